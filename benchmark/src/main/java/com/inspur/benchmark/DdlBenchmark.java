@@ -0,0 +1,47 @@
+package com.inspur.benchmark;
+
+import com.inspur.rdms.adapter.MysqlAdapter;
+import com.inspur.rdms.adapter.PostgresqlAdapter;
+import com.inspur.rdms.bean.TableBean;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * exportSql生成建表语句的耗时
+ *
+ * @author Neo
+ * @date 2019/3/19 10:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DdlBenchmark {
+	@Param({"10", "500", "5000"})
+	private int columnCount;
+
+	private TableBean tableBean;
+	private MysqlAdapter mysql;
+	private PostgresqlAdapter postgresql;
+
+	@Setup
+	public void setup() {
+		this.tableBean = SyntheticSchema.table("t_bench", this.columnCount);
+		//只调用exportSql，不会建立连接
+		this.mysql = new MysqlAdapter("bench", "127.0.0.1", 3306, "root", "", null);
+		this.postgresql = new PostgresqlAdapter("bench", "127.0.0.1", 5432, "postgres", "", null);
+	}
+
+	@Benchmark
+	public String mysqlExportSql() {
+		return this.mysql.exportSql(this.tableBean);
+	}
+
+	@Benchmark
+	public String postgresqlExportSql() {
+		return this.postgresql.exportSql(this.tableBean);
+	}
+}
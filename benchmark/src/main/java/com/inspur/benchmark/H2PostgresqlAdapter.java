@@ -0,0 +1,96 @@
+package com.inspur.benchmark;
+
+import com.inspur.rdms.adapter.PostgresqlAdapter;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.impl.RowWriterImpl;
+import com.inspur.rdms.pipe.InsertRowWriter;
+
+/**
+ * 指向H2内存库(PostgreSQL兼容模式)的PostgreSQL handler，用于离线测试
+ *
+ * @author Neo
+ * @date 2019/3/20 9:30
+ */
+public class H2PostgresqlAdapter extends PostgresqlAdapter {
+	private static final String H2_DRIVER = "org.h2.Driver";
+
+	public H2PostgresqlAdapter(String databaseName) {
+		super(databaseName, "localhost", 0, "sa", "", null);
+	}
+
+	@Override
+	public String handleJdbcUrl(String jdbcType) {
+		return "jdbc:h2:mem:" + this.getDatabaseName() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+	}
+
+	@Override
+	public String handleDriver() {
+		return H2_DRIVER;
+	}
+
+	/**
+	 * 内存库不需要探测端口
+	 */
+	@Override
+	public boolean canConnect(int timeoutMillis) {
+		return true;
+	}
+
+	/**
+	 * H2的模式为PUBLIC
+	 */
+	@Override
+	public String handleSchema(String schema) {
+		return "PUBLIC";
+	}
+
+	/**
+	 * H2没有存储大小统计，只返回预估行数
+	 */
+	@Override
+	protected String handleTableStatsSql() {
+		return "SELECT TABLE_NAME, ROW_COUNT_ESTIMATE, 0, 0 FROM INFORMATION_SCHEMA.TABLES"
+			+ " WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'TABLE'";
+	}
+
+	/**
+	 * H2不支持COPY，使用批量INSERT
+	 */
+	@Override
+	public RowWriterImpl createRowWriter(TableBean tableBean) {
+		return new InsertRowWriter(this, tableBean);
+	}
+
+	/**
+	 * H2不支持pg_catalog和information_schema的这些查询，使用DatabaseMetaData
+	 */
+	@Override
+	protected String handleTablesSql() {
+		return null;
+	}
+
+	@Override
+	protected String handleColumnsSql() {
+		return null;
+	}
+
+	@Override
+	protected String handlePrimaryKeysSql() {
+		return null;
+	}
+
+	@Override
+	protected String handleIndexesSql() {
+		return null;
+	}
+
+	@Override
+	protected String handleSchemasSql() {
+		return null;
+	}
+
+	@Override
+	protected String handleTableExistsSql(String placeholders) {
+		return null;
+	}
+}
@@ -0,0 +1,193 @@
+package com.inspur.benchmark;
+
+import com.inspur.rdms.bean.CatelogBean;
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.migrate.MigrateOptions;
+import com.inspur.rdms.migrate.MigrateStatusEnum;
+import com.inspur.rdms.migrate.SchemaMigrateResult;
+import com.inspur.rdms.migrate.SchemaMigrator;
+import com.inspur.rdms.migrate.TableMigrateResult;
+import com.inspur.rdms.pipe.CopyOptions;
+import com.inspur.rdms.pool.PoolConfig;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 离线负载测试：在H2内存库(源库MySQL模式，目标库PostgreSQL模式)中生成合成的大模式，
+ * 测量建表、元数据加载和数据复制的吞吐与耗时，结果可重复；复制结束后校验每张表的行数和抽样表的内容，不一致时抛出异常
+ * <p>
+ * H2不支持COPY和LOAD DATA，目标库使用批量INSERT写入，PgCopyRowWriter和MysqlLoadDataRowWriter不在测试范围内，
+ * 测得的吞吐也不代表批量写入的吞吐
+ * <p>
+ * 参数: [表数=2000] [每表列数=20] [每表行数=1000] [并行度=8]
+ *
+ * @author Neo
+ * @date 2019/3/20 10:00
+ */
+public class LoadHarness {
+	private static final String SCHEMA = "PUBLIC";
+	/**
+	 * 逐行比较内容的表数，其余表只比较行数
+	 */
+	private static final int VERIFY_TABLES = 20;
+
+	public static void main(String[] args) {
+		int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int columnCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		long rowCount = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+		int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+		H2MysqlAdapter source = new H2MysqlAdapter("harness_src");
+		H2PostgresqlAdapter target = new H2PostgresqlAdapter("harness_dst");
+		source.setPoolConfig(PoolConfig.bulkCopy());
+		target.setPoolConfig(PoolConfig.bulkCopy());
+		try {
+			long start = System.currentTimeMillis();
+			List<TableBean> tables = SyntheticSchema.createTables(source, "t_load_", tableCount, columnCount);
+			report("建表(源库)", start, tableCount, "表");
+
+			start = System.currentTimeMillis();
+			for (TableBean tableBean : tables) {
+				SyntheticSchema.fillRows(source, tableBean, rowCount);
+			}
+			report("写入合成数据", start, tableCount * rowCount, "行");
+
+			start = System.currentTimeMillis();
+			CatelogBean catelogBean = source.queryCatalog(SCHEMA);
+			report("元数据加载(queryCatalog)", start, catelogBean.getTableList().size(), "表");
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < Math.min(tableCount, 200); i++) {
+				source.getSourceTableColumns(SCHEMA, "t_load_" + i);
+			}
+			report("元数据加载(逐表,前200张)", start, Math.min(tableCount, 200), "表");
+
+			CopyOptions copyOptions = new CopyOptions();
+			MigrateOptions options = new MigrateOptions();
+			options.setThreads(parallelism);
+			options.setCopyData(true);
+			options.setCopyOptions(copyOptions);
+			start = System.currentTimeMillis();
+			SchemaMigrateResult result = SchemaMigrator.migrateSchema(source, target, SCHEMA, options);
+			long copied = 0;
+			for (TableMigrateResult r : result.getTableResults()) {
+				copied += r.getRowCount();
+			}
+			report("建表+数据复制(目标库)", start, copied, "行");
+			System.out.println("新建:" + result.count(MigrateStatusEnum.CREATED)
+				+ " 已存在:" + result.count(MigrateStatusEnum.EXISTS)
+				+ " 失败:" + result.count(MigrateStatusEnum.FAILED));
+
+			check(result.count(MigrateStatusEnum.CREATED) == tableCount, "新建表数" + result.count(MigrateStatusEnum.CREATED) + "，应为" + tableCount);
+			check(copied == tableCount * rowCount, "复制行数" + copied + "，应为" + tableCount * rowCount);
+			start = System.currentTimeMillis();
+			for (int i = 0; i < tables.size(); i++) {
+				TableBean tableBean = tables.get(i);
+				long count = count(target, tableBean);
+				check(count == rowCount, tableBean.getTableName() + "目标库行数" + count + "，应为" + rowCount);
+				if (i < VERIFY_TABLES) {
+					verifyRows(source, target, tableBean);
+				}
+			}
+			report("校验(行数+前" + VERIFY_TABLES + "张表内容)", start, tableCount, "表");
+		} finally {
+			source.close();
+			target.close();
+		}
+	}
+
+	/**
+	 * 目标表的实际行数
+	 */
+	private static long count(DatabaseImpl database, TableBean tableBean) {
+		Connection conn = database.getConnection();
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			psmt = conn.prepareStatement("SELECT COUNT(*) FROM " + database.handleTableName(SCHEMA, tableBean.getTableName()));
+			rs = psmt.executeQuery();
+			rs.next();
+			return rs.getLong(1);
+		} catch (SQLException e) {
+			throw new IllegalStateException("统计" + tableBean.getTableName() + "行数失败", e);
+		} finally {
+			database.closeObject(conn, psmt, rs);
+		}
+	}
+
+	/**
+	 * 按主键顺序逐行比较源表和目标表：数值按BigDecimal比较，其它按字符串比较；
+	 * DOUBLE在PostgreSQL中映射为NUMERIC(长度,0)，小数部分会被舍入，不比较
+	 */
+	private static void verifyRows(DatabaseImpl source, DatabaseImpl target, TableBean tableBean) {
+		List<ColumnBean> columns = tableBean.getColumnList();
+		Connection srcConn = source.getConnection();
+		Connection dstConn = target.getConnection();
+		PreparedStatement srcPsmt = null;
+		PreparedStatement dstPsmt = null;
+		ResultSet srcRs = null;
+		ResultSet dstRs = null;
+		try {
+			srcPsmt = srcConn.prepareStatement(selectSql(source, tableBean));
+			dstPsmt = dstConn.prepareStatement(selectSql(target, tableBean));
+			srcRs = srcPsmt.executeQuery();
+			dstRs = dstPsmt.executeQuery();
+			long row = 0;
+			while (srcRs.next()) {
+				check(dstRs.next(), tableBean.getTableName() + "目标库缺少第" + row + "行");
+				for (int c = 0; c < columns.size(); c++) {
+					ColumnBean column = columns.get(c);
+					if (Types.DOUBLE == column.getColumnType()) {
+						continue;
+					}
+					boolean same;
+					if (Types.BIGINT == column.getColumnType() || Types.INTEGER == column.getColumnType() || Types.DECIMAL == column.getColumnType()) {
+						BigDecimal expected = srcRs.getBigDecimal(c + 1);
+						BigDecimal actual = dstRs.getBigDecimal(c + 1);
+						same = null == expected ? null == actual : null != actual && expected.compareTo(actual) == 0;
+					} else {
+						same = Objects.equals(srcRs.getString(c + 1), dstRs.getString(c + 1));
+					}
+					check(same, tableBean.getTableName() + "第" + row + "行" + column.getColumnName() + "不一致");
+				}
+				row++;
+			}
+			check(!dstRs.next(), tableBean.getTableName() + "目标库行数多于源库");
+		} catch (SQLException e) {
+			throw new IllegalStateException("校验" + tableBean.getTableName() + "失败", e);
+		} finally {
+			source.closeObject(srcConn, srcPsmt, srcRs);
+			target.closeObject(dstConn, dstPsmt, dstRs);
+		}
+	}
+
+	private static String selectSql(DatabaseImpl database, TableBean tableBean) {
+		StringBuilder sb = new StringBuilder("SELECT ");
+		for (int i = 0; i < tableBean.getColumnList().size(); i++) {
+			sb.append(i > 0 ? ", " : "").append(database.handleQuote(tableBean.getColumnList().get(i).getColumnName()));
+		}
+		String pk = database.handleQuote(tableBean.getColumnList().get(0).getColumnName());
+		return sb.append(" FROM ").append(database.handleTableName(SCHEMA, tableBean.getTableName()))
+			.append(" ORDER BY ").append(pk).toString();
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new IllegalStateException("校验失败：" + message);
+		}
+	}
+
+	private static void report(String phase, long start, long count, String unit) {
+		long elapsed = Math.max(1, System.currentTimeMillis() - start);
+		System.out.println(String.format("%-28s 数量:%d%s 耗时:%dms 吞吐:%.1f%s/s", phase, count, unit, elapsed, count * 1000.0 / elapsed, unit));
+	}
+}
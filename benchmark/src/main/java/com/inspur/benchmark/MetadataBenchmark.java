@@ -0,0 +1,56 @@
+package com.inspur.benchmark;
+
+import com.inspur.rdms.bean.CatelogBean;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 元数据加载耗时：整个模式一次加载(queryCatalog)与逐表加载(getSourceTableColumns)对比，
+ * 数据库为H2内存库(MySQL兼容模式)
+ *
+ * @author Neo
+ * @date 2019/3/19 10:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataBenchmark {
+	private static final String SCHEMA = "PUBLIC";
+
+	@Param({"50", "500"})
+	private int tableCount;
+
+	@Param({"20"})
+	private int columnCount;
+
+	private H2MysqlAdapter database;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.database = new H2MysqlAdapter("bench_meta_" + this.tableCount);
+		SyntheticSchema.createTables(this.database, "t_bench_", this.tableCount, this.columnCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.database.executeSql("DROP ALL OBJECTS");
+		this.database.close();
+	}
+
+	@Benchmark
+	public CatelogBean queryCatalog() {
+		return this.database.queryCatalog(SCHEMA);
+	}
+
+	@Benchmark
+	public void getSourceTableColumnsPerTable(Blackhole bh) {
+		for (int i = 0; i < this.tableCount; i++) {
+			bh.consume(this.database.getSourceTableColumns(SCHEMA, "t_bench_" + i));
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.inspur.benchmark;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.exception.ExceptionEnum;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.RowWriterImpl;
+import com.inspur.rdms.pipe.InsertRowWriter;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成合成的表结构和数据
+ *
+ * @author Neo
+ * @date 2019/3/19 9:40
+ */
+public class SyntheticSchema {
+	/**
+	 * 列类型轮换使用，覆盖常见类型
+	 */
+	private static final int[] TYPES = {Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.DECIMAL, Types.TIMESTAMP, Types.DATE, Types.LONGVARCHAR, Types.DOUBLE};
+	private static final String[] TYPE_NAMES = {"BIGINT", "VARCHAR", "INTEGER", "DECIMAL", "TIMESTAMP", "DATE", "LONGVARCHAR", "DOUBLE"};
+	/**
+	 * 与驱动getColumns返回的COLUMN_SIZE一致
+	 */
+	private static final int[] SIZES = {19, 255, 10, 18, 19, 10, 65535, 22};
+
+	private static final int FILL_BATCH_SIZE = 1000;
+	private static final long BASE_TIME = 1546300800000L;
+
+	private SyntheticSchema() {
+	}
+
+	/**
+	 * 生成表结构，第一列为主键
+	 *
+	 * @param tableName   表名
+	 * @param columnCount 列数
+	 * @return TableBean 表结构
+	 */
+	public static TableBean table(String tableName, int columnCount) {
+		List<ColumnBean> columns = new ArrayList<>(columnCount);
+		for (int i = 0; i < columnCount; i++) {
+			int t = i % TYPES.length;
+			ColumnBean column = new ColumnBean();
+			column.setIsPk(i == 0);
+			column.setColumnName(i == 0 ? "id" : "c_" + i);
+			column.setColumnType(TYPES[t]);
+			column.setColumnTypeName(TYPE_NAMES[t]);
+			column.setColumnSize(SIZES[t]);
+			column.setDecimalDigits(TYPES[t] == Types.DECIMAL ? 4 : 0);
+			column.setIsNullable(i != 0);
+			column.setDefaultValue("");
+			column.setRemark(i % 3 == 0 ? "列" + i : "");
+			columns.add(column);
+		}
+		TableBean tableBean = new TableBean();
+		tableBean.setTableName(tableName);
+		tableBean.setType("TABLE");
+		tableBean.setRemark("");
+		tableBean.setColumnList(columns);
+		tableBean.setIndexList(new ArrayList<>());
+		return tableBean;
+	}
+
+	/**
+	 * 在数据库中创建合成的表
+	 *
+	 * @param database    数据库
+	 * @param prefix      表名前缀
+	 * @param tableCount  表数
+	 * @param columnCount 每张表的列数
+	 * @return List 创建的表结构
+	 */
+	public static List<TableBean> createTables(DatabaseImpl database, String prefix, int tableCount, int columnCount) {
+		List<TableBean> tables = new ArrayList<>(tableCount);
+		for (int i = 0; i < tableCount; i++) {
+			TableBean tableBean = table(prefix + i, columnCount);
+			database.executeSql(database.exportSql(tableBean).replace("ENGINE=InnoDB  DEFAULT CHARSET=utf8", ""));
+			tables.add(tableBean);
+		}
+		return tables;
+	}
+
+	/**
+	 * 向表中写入合成数据，主键从0递增
+	 *
+	 * @param database  数据库
+	 * @param tableBean 表结构
+	 * @param rowCount  行数
+	 */
+	public static void fillRows(DatabaseImpl database, TableBean tableBean, long rowCount) {
+		RowWriterImpl writer = new InsertRowWriter(database, tableBean);
+		Connection conn = database.getConnection();
+		List<ColumnBean> columns = tableBean.getColumnList();
+		List<Object[]> batch = new ArrayList<>(FILL_BATCH_SIZE);
+		try {
+			conn.setAutoCommit(false);
+			writer.open(conn);
+			for (long id = 0; id < rowCount; id++) {
+				Object[] row = new Object[columns.size()];
+				for (int c = 0; c < row.length; c++) {
+					row[c] = value(columns.get(c).getColumnType(), id, c);
+				}
+				batch.add(row);
+				if (batch.size() >= FILL_BATCH_SIZE) {
+					writer.write(batch);
+					batch.clear();
+				}
+			}
+			if (!batch.isEmpty()) {
+				writer.write(batch);
+			}
+			conn.commit();
+			conn.setAutoCommit(true);
+		} catch (SQLException e) {
+			throw new DatabaseException(ExceptionEnum.SQL_EXECUTE_EXCEPTION, "fillRows", "写入" + tableBean.getTableName() + "出现异常" + e);
+		} finally {
+			writer.close();
+			database.closeObject(conn, null, null);
+		}
+	}
+
+	private static Object value(int type, long id, int column) {
+		if (column == 0) {
+			return id;
+		}
+		switch (type) {
+			case Types.BIGINT:
+				return id * 31 + column;
+			case Types.INTEGER:
+				return (int) (id % Integer.MAX_VALUE);
+			case Types.DECIMAL:
+				return BigDecimal.valueOf(id * 7 + column, 4);
+			case Types.TIMESTAMP:
+				return new Timestamp(BASE_TIME + id * 1000L);
+			case Types.DATE:
+				return new Date(BASE_TIME + (id % 3650) * 86400000L);
+			case Types.DOUBLE:
+				return id / 3.0;
+			case Types.LONGVARCHAR:
+				return "text\t" + id + "\n" + column;
+			default:
+				return "v" + id + "_" + column;
+		}
+	}
+}
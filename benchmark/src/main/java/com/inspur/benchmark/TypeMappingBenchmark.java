@@ -0,0 +1,76 @@
+package com.inspur.benchmark;
+
+import com.inspur.rdms.adapter.MysqlAdapter;
+import com.inspur.rdms.adapter.PostgresqlAdapter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getTypeById和java2db类型映射的耗时
+ *
+ * @author Neo
+ * @date 2019/3/19 10:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeMappingBenchmark {
+	private static final int[] TYPE_IDS = {
+		Types.BIT, Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.FLOAT, Types.REAL, Types.DOUBLE,
+		Types.NUMERIC, Types.DECIMAL, Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.DATE, Types.TIME,
+		Types.TIMESTAMP, Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB, Types.CLOB, Types.BOOLEAN,
+		Types.NCHAR, Types.NVARCHAR, Types.OTHER, Types.TIMESTAMP_WITH_TIMEZONE
+	};
+
+	private MysqlAdapter mysql;
+	private PostgresqlAdapter postgresql;
+	private String[] typeNames;
+
+	@Setup
+	public void setup() {
+		this.mysql = new MysqlAdapter("bench", "127.0.0.1", 3306, "root", "", null);
+		this.postgresql = new PostgresqlAdapter("bench", "127.0.0.1", 5432, "postgres", "", null);
+		this.typeNames = new String[TYPE_IDS.length];
+		for (int i = 0; i < TYPE_IDS.length; i++) {
+			this.typeNames[i] = this.mysql.getTypeById(TYPE_IDS[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(26)
+	public void mysqlGetTypeById(Blackhole bh) {
+		for (int type : TYPE_IDS) {
+			bh.consume(this.mysql.getTypeById(type));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(26)
+	public void postgresqlGetTypeById(Blackhole bh) {
+		for (int type : TYPE_IDS) {
+			bh.consume(this.postgresql.getTypeById(type));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(26)
+	public void mysqlJava2db(Blackhole bh) {
+		for (String name : this.typeNames) {
+			bh.consume(this.mysql.java2db(name));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(26)
+	public void postgresqlJava2db(Blackhole bh) {
+		for (String name : this.typeNames) {
+			bh.consume(this.postgresql.java2db(name));
+		}
+	}
+}
@@ -15,15 +15,24 @@ public class Index {
 		DatabaseImpl to = DatabaseFactory.getDatabase("postgresql", "test_db", "127.0.0.1", 5432, "inspur", "root", "postgresql");
 		DatabaseImpl from = DatabaseFactory.getDatabase("mysql", "test_db", "10.110.16.96", 3306, "root", "123456a?", "mysql");
 		TableBean tableBean = null;
-		if (from != null) {
-			tableBean = from.getSourceTableColumns("", "t_user_444");
-		} else {
-			return;
-		}
+		try {
+			if (from != null) {
+				tableBean = from.getSourceTableColumns("", "t_user_444");
+			} else {
+				return;
+			}
 
-		if (to != null && tableBean != null) {
-			Boolean info = to.createTableFromSource(tableBean);
-			System.out.println(info);
+			if (to != null && tableBean != null) {
+				Boolean info = to.createTableFromSource(tableBean);
+				System.out.println(info);
+			}
+		} finally {
+			if (from != null) {
+				from.close();
+			}
+			if (to != null) {
+				to.close();
+			}
 		}
 	}
 }
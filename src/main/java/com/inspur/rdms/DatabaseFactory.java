@@ -3,10 +3,17 @@ package com.inspur.rdms;
 import com.inspur.rdms.adapter.AbstractDatabase;
 import com.inspur.rdms.adapter.MysqlAdapter;
 import com.inspur.rdms.adapter.PostgresqlAdapter;
+import com.inspur.rdms.bean.EndpointBean;
+import com.inspur.rdms.bean.EndpointStatusBean;
 import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.pool.PoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
 /**
  * 获取数据库处理类的工厂类
  *
@@ -15,6 +22,49 @@ import org.slf4j.LoggerFactory;
  */
 public class DatabaseFactory {
 	private static Logger log = LoggerFactory.getLogger(DatabaseFactory.class);
+	/**
+	 * 共享handler默认的空闲回收时间和健康检查间隔，单位毫秒
+	 */
+	private static final long SHARED_IDLE_TIMEOUT = 30 * 60 * 1000L;
+	private static final long SHARED_CHECK_INTERVAL = 30 * 1000L;
+
+	private static volatile DatabaseRegistry registry;
+
+	/**
+	 * 获取共享的数据库处理handler：相同的连接坐标返回同一个handler和连接池，
+	 * 只有第一次调用时探测连接，适合在服务中按请求调用
+	 *
+	 * @param dbType       数据库类型
+	 * @param databaseName 数据库名称
+	 * @param host         ip地址
+	 * @param port         端口号
+	 * @param username     用户名
+	 * @param password     密码
+	 * @param jdbcType     oracle用到,serviceName和sid
+	 * @param poolConfig   连接池配置，只在第一次创建时生效
+	 * @return IDatabase 数据库处理handler，不要自行close
+	 */
+	public static DatabaseImpl getSharedDatabase(String dbType, String databaseName, String host, int port, String username, String password, String jdbcType, PoolConfig poolConfig) {
+		return getRegistry().get(dbType, databaseName, host, port, username, password, jdbcType, poolConfig);
+	}
+
+	/**
+	 * 默认的共享handler注册表
+	 *
+	 * @return DatabaseRegistry 注册表
+	 */
+	public static DatabaseRegistry getRegistry() {
+		DatabaseRegistry r = registry;
+		if (null == r) {
+			synchronized (DatabaseFactory.class) {
+				if (null == registry) {
+					registry = new DatabaseRegistry(SHARED_IDLE_TIMEOUT, SHARED_CHECK_INTERVAL);
+				}
+				r = registry;
+			}
+		}
+		return r;
+	}
 
 	/**
 	 * 获取数据库处理handler类的工厂类方法
@@ -30,18 +80,35 @@ public class DatabaseFactory {
 	 */
 	@SuppressWarnings("unchecked")
 	public static DatabaseImpl getDatabase(String dbType, String databaseName, String host, int port, String username, String password, String jdbcType) {
+		return getDatabase(dbType, databaseName, host, port, username, password, jdbcType, new PoolConfig());
+	}
+
+	/**
+	 * 获取数据库处理handler类的工厂类方法
+	 *
+	 * @param dbType       数据库类型
+	 * @param databaseName 数据库名称
+	 * @param host         ip地址
+	 * @param port         端口号
+	 * @param username     用户名
+	 * @param password     密码
+	 * @param jdbcType     oracle用到,serviceName和sid
+	 * @param poolConfig   连接池配置，可使用PoolConfig.metadata()、PoolConfig.bulkCopy()、PoolConfig.bulkCopyTarget()预设
+	 * @return IDatabase 数据库处理handler
+	 */
+	public static DatabaseImpl getDatabase(String dbType, String databaseName, String host, int port, String username, String password, String jdbcType, PoolConfig poolConfig) {
 
 		if (null == dbType || "".equals(dbType)) {
 			log.error("dbType为空");
 			return null;
 		}
-		AbstractDatabase databaseHandler = null;
-		if ("mysql".equalsIgnoreCase(dbType) && null == databaseHandler) {
-			databaseHandler = new MysqlAdapter(databaseName, host, port, username, password, jdbcType);
+		AbstractDatabase databaseHandler = createHandler(dbType, databaseName, host, port, username, password, jdbcType);
+		if (null == databaseHandler) {
+			log.error("不支持的数据库类型" + dbType);
+			return null;
 		}
-
-		if ("postgresql".equalsIgnoreCase(dbType) && null == databaseHandler) {
-			databaseHandler = new PostgresqlAdapter(databaseName, host, port, username, password, jdbcType);
+		if (null != poolConfig) {
+			databaseHandler.setPoolConfig(poolConfig);
 		}
 		if (!databaseHandler.canConnect()) {
 			log.error("服务器" + host + "无法连接");
@@ -51,6 +118,93 @@ public class DatabaseFactory {
 			log.error("服务器上" + host + "上的数据库" + databaseName + "无法连接");
 			return null;
 		}
+		if (null != poolConfig && poolConfig.getPrewarmSize() > 0) {
+			databaseHandler.warmUp(poolConfig.getPrewarmSize());
+		}
 		return databaseHandler;
 	}
+
+	/**
+	 * 并发探测多个数据库：每个探测有独立的建连和登录超时，不修改全局状态
+	 *
+	 * @param endpoints        连接坐标列表
+	 * @param connectTimeout   TCP建连超时，单位毫秒
+	 * @param loginTimeout     数据库登录超时，单位毫秒
+	 * @param parallelism      同时探测的数量，小于1时按1处理
+	 * @return List 与endpoints顺序一致的探测结果
+	 */
+	public static List<EndpointStatusBean> checkEndpoints(List<EndpointBean> endpoints, int connectTimeout, int loginTimeout, int parallelism) {
+		List<EndpointStatusBean> result = new ArrayList<>();
+		if (null == endpoints || endpoints.isEmpty()) {
+			return result;
+		}
+		int threads = Math.max(1, Math.min(parallelism, endpoints.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "jdbcPipe-probe");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<EndpointStatusBean>> futures = new ArrayList<>();
+			for (EndpointBean endpoint : endpoints) {
+				futures.add(executor.submit(() -> probe(endpoint, connectTimeout, loginTimeout)));
+			}
+			//驱动超时之外再加一道整体截止时间，防止驱动未遵守超时设置
+			long deadline = System.currentTimeMillis() + (long) (connectTimeout + loginTimeout) * 2
+				* ((endpoints.size() + threads - 1) / threads);
+			for (int i = 0; i < futures.size(); i++) {
+				EndpointBean endpoint = endpoints.get(i);
+				try {
+					long wait = Math.max(0, deadline - System.currentTimeMillis());
+					result.add(futures.get(i).get(wait, TimeUnit.MILLISECONDS));
+				} catch (TimeoutException e) {
+					futures.get(i).cancel(true);
+					result.add(new EndpointStatusBean(endpoint, false, false, -1, "探测超时"));
+				} catch (ExecutionException e) {
+					result.add(new EndpointStatusBean(endpoint, false, false, 0, String.valueOf(e.getCause())));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	private static EndpointStatusBean probe(EndpointBean endpoint, int connectTimeout, int loginTimeout) {
+		long start = System.currentTimeMillis();
+		EndpointStatusBean status = new EndpointStatusBean();
+		status.setEndpoint(endpoint);
+		AbstractDatabase handler = createHandler(endpoint.getDbType(), endpoint.getDatabaseName(), endpoint.getHost(),
+			endpoint.getPort(), endpoint.getUsername(), endpoint.getPassword(), endpoint.getJdbcType());
+		if (null == handler) {
+			status.setErrorMessage("不支持的数据库类型" + endpoint.getDbType());
+		} else if (!handler.canConnect(connectTimeout)) {
+			status.setErrorMessage("服务器" + endpoint.getHost() + "无法连接");
+		} else {
+			status.setReachable(true);
+			status.setDatabaseConnect(handler.isDatabaseConnect(loginTimeout));
+			if (!status.isDatabaseConnect()) {
+				status.setErrorMessage("数据库" + endpoint.getDatabaseName() + "无法连接");
+			}
+		}
+		status.setLatencyMillis(System.currentTimeMillis() - start);
+		return status;
+	}
+
+	/**
+	 * 根据数据库类型创建handler，只创建对象，不建立连接
+	 *
+	 * @return AbstractDatabase 不支持的类型返回null
+	 */
+	private static AbstractDatabase createHandler(String dbType, String databaseName, String host, int port, String username, String password, String jdbcType) {
+		if ("mysql".equalsIgnoreCase(dbType)) {
+			return new MysqlAdapter(databaseName, host, port, username, password, jdbcType);
+		}
+		if ("postgresql".equalsIgnoreCase(dbType)) {
+			return new PostgresqlAdapter(databaseName, host, port, username, password, jdbcType);
+		}
+		return null;
+	}
 }
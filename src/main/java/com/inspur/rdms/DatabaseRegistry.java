@@ -0,0 +1,213 @@
+package com.inspur.rdms;
+
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.pool.PoolConfig;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享的数据库handler注册表：相同(dbType, host, port, databaseName, username)复用同一个handler和连接池，
+ * 只在创建时探测一次连接，之后由后台线程检查健康状态并释放长时间未使用的连接池
+ * 调用方获取handler后可能长时间持有，空闲时只释放连接池，handler保持可用，下次获取连接时重新创建；
+ * 连续多次健康检查失败或密码变更后旧handler不再分配，下次get时重新创建，旧handler空闲后关闭
+ *
+ * @author Neo
+ * @date 2019/3/14 9:40
+ */
+public class DatabaseRegistry implements AutoCloseable {
+	private static Logger log = LoggerFactory.getLogger(DatabaseRegistry.class);
+	/**
+	 * 健康检查时等待连接有效的秒数
+	 */
+	private static final int VALID_TIMEOUT_SECONDS = 5;
+	/**
+	 * 连续健康检查失败达到该次数后替换handler
+	 */
+	private static final int MAX_FAILED_CHECKS = 3;
+
+	private final long idleTimeoutMillis;
+	private final Map<RegistryKey, RegistryEntry> entries = new ConcurrentHashMap<>();
+	/**
+	 * 已替换但可能仍被调用方持有的handler，空闲后关闭
+	 */
+	private final Queue<RegistryEntry> retired = new ConcurrentLinkedQueue<>();
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * @param idleTimeoutMillis         超过该时间未使用的handler释放连接池
+	 * @param healthCheckIntervalMillis 后台健康检查和回收的间隔
+	 */
+	public DatabaseRegistry(long idleTimeoutMillis, long healthCheckIntervalMillis) {
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "jdbcPipe-registry");
+			t.setDaemon(true);
+			return t;
+		});
+		this.scheduler.scheduleWithFixedDelay(this::maintain, healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 获取共享的handler，不存在时通过DatabaseFactory创建
+	 *
+	 * @return DatabaseImpl 无法连接或最近一次健康检查失败时返回null
+	 */
+	public DatabaseImpl get(String dbType, String databaseName, String host, int port, String username, String password, String jdbcType, PoolConfig poolConfig) {
+		if (null == dbType) {
+			return null;
+		}
+		RegistryKey key = new RegistryKey(dbType.toLowerCase(), host, port, databaseName, username);
+		RegistryEntry entry = this.entries.get(key);
+		if (null != entry && !entry.password.equals(String.valueOf(password))) {
+			//密码变更后重新创建，旧handler可能仍在使用，由后台任务在空闲后关闭
+			if (this.entries.remove(key, entry)) {
+				this.retired.add(entry);
+			}
+			entry = null;
+		}
+		if (null == entry) {
+			//探测连接可能阻塞到超时，不在computeIfAbsent中执行；并发创建时保留先注册的handler
+			DatabaseImpl database = DatabaseFactory.getDatabase(dbType, databaseName, host, port, username, password, jdbcType, poolConfig);
+			if (null == database) {
+				return null;
+			}
+			RegistryEntry created = new RegistryEntry(database, String.valueOf(password), System.currentTimeMillis(), true, 0);
+			entry = this.entries.putIfAbsent(key, created);
+			if (null == entry) {
+				entry = created;
+			} else {
+				database.close();
+			}
+		}
+		if (!entry.healthy) {
+			//不刷新访问时间，连续检查失败后由后台任务替换
+			return null;
+		}
+		entry.lastAccess = System.currentTimeMillis();
+		return entry.database;
+	}
+
+	/**
+	 * 当前注册的handler数量
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * 后台任务：释放空闲且没有活动连接的连接池，检查其余handler的连接是否有效，替换连续检查失败的handler
+	 */
+	private void maintain() {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<RegistryKey, RegistryEntry>> it = this.entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<RegistryKey, RegistryEntry> e = it.next();
+			RegistryEntry entry = e.getValue();
+			RegistryKey key = e.getKey();
+			if (now - entry.lastAccess > this.idleTimeoutMillis) {
+				//handler不关闭，与get并发或调用方仍持有时下次获取连接重新创建连接池；空闲时不做健康检查，避免重建连接池
+				entry.database.releaseIdlePool();
+				continue;
+			}
+			boolean healthy = this.checkHealth(entry.database);
+			if (healthy != entry.healthy) {
+				log.info("数据库{}:{}/{}健康状态变更为{}", key.host, key.port, key.databaseName, healthy);
+			}
+			entry.healthy = healthy;
+			entry.failedChecks = healthy ? 0 : entry.failedChecks + 1;
+			if (entry.failedChecks >= MAX_FAILED_CHECKS && this.entries.remove(key, entry)) {
+				this.retired.add(entry);
+				log.info("数据库{}:{}/{}连续{}次健康检查失败，下次获取时重新创建handler", key.host, key.port, key.databaseName, entry.failedChecks);
+			}
+		}
+		Iterator<RegistryEntry> retiredIt = this.retired.iterator();
+		while (retiredIt.hasNext()) {
+			RegistryEntry entry = retiredIt.next();
+			if (now - entry.lastAccess > this.idleTimeoutMillis && !isInUse(entry.database)) {
+				retiredIt.remove();
+				entry.database.close();
+			}
+		}
+	}
+
+	/**
+	 * 是否有调用方正在使用连接池中的连接
+	 */
+	private static boolean isInUse(DatabaseImpl database) {
+		Number active = database.getPoolStats().get("activeCount");
+		return null != active && active.intValue() > 0;
+	}
+
+	private boolean checkHealth(DatabaseImpl database) {
+		Connection conn = null;
+		try {
+			conn = database.getConnection();
+			return conn.isValid(VALID_TIMEOUT_SECONDS);
+		} catch (Exception e) {
+			return false;
+		} finally {
+			if (null != conn) {
+				try {
+					database.closeObject(conn, null, null);
+				} catch (RuntimeException e) {
+					log.info("归还健康检查连接失败", e);
+				}
+			}
+		}
+	}
+
+	private void remove(RegistryKey key, RegistryEntry entry) {
+		if (this.entries.remove(key, entry)) {
+			entry.database.close();
+		}
+	}
+
+	/**
+	 * 停止后台任务并关闭全部handler
+	 */
+	@Override
+	public void close() {
+		this.scheduler.shutdownNow();
+		for (Map.Entry<RegistryKey, RegistryEntry> e : this.entries.entrySet()) {
+			this.remove(e.getKey(), e.getValue());
+		}
+		RegistryEntry entry;
+		while (null != (entry = this.retired.poll())) {
+			entry.database.close();
+		}
+	}
+
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	private static class RegistryKey {
+		private String dbType;
+		private String host;
+		private int port;
+		private String databaseName;
+		private String username;
+	}
+
+	@AllArgsConstructor
+	private static class RegistryEntry {
+		private final DatabaseImpl database;
+		private final String password;
+		private volatile long lastAccess;
+		private volatile boolean healthy;
+		/**
+		 * 连续健康检查失败的次数，只由后台任务修改
+		 */
+		private int failedChecks;
+	}
+}
@@ -1,24 +1,46 @@
 package com.inspur.rdms.adapter;
 
 import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.pool.DruidPooledConnection;
+import com.inspur.rdms.cache.DdlTableParser;
+import com.inspur.rdms.cache.MetadataCache;
+import com.inspur.rdms.cache.MetadataKindEnum;
+import com.inspur.rdms.diff.ChangeTypeEnum;
+import com.inspur.rdms.diff.ColumnChange;
+import com.inspur.rdms.diff.TableDiff;
+import com.inspur.rdms.diff.TableDiffer;
+import com.inspur.rdms.bean.CatelogBean;
 import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.IndexBean;
 import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.bean.TableStatsBean;
 import com.inspur.rdms.exception.DatabaseException;
 import com.inspur.rdms.exception.ExceptionEnum;
 import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.RowWriterImpl;
+import com.inspur.rdms.metrics.RoundTripFilter;
+import com.inspur.rdms.pipe.CopyOptions;
+import com.inspur.rdms.pipe.CopyResult;
+import com.inspur.rdms.pipe.InsertRowWriter;
+import com.inspur.rdms.pipe.ParallelTableCopier;
+import com.inspur.rdms.pipe.TableCopier;
+import com.inspur.rdms.pool.CircuitBreaker;
+import com.inspur.rdms.pool.PoolConfig;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.net.telnet.TelnetClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * DataBase抽象方法 通用方法+需要各个handler实现的接口
@@ -30,11 +52,30 @@ import java.util.Map;
 @Getter
 public abstract class AbstractDatabase implements DatabaseImpl {
 	private static Logger log = LoggerFactory.getLogger(AbstractDatabase.class);
+	/**
+	 * 连接探测默认的超时时间，单位毫秒
+	 */
+	private static final int DEFAULT_PROBE_TIMEOUT = 5000;
+	/**
+	 * existingTables每次查询的最多表名数
+	 */
+	private static final int EXISTS_BATCH_SIZE = 1024;
+	private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)(?:\\.(\\d+))?(?:\\.(\\d+))?");
 
 	/**
 	 * Druid连接池对象 -> abstract处理
 	 */
-	private DruidDataSource druidDataSource;
+	private volatile DruidDataSource druidDataSource;
+	/**
+	 * 创建和关闭连接池时的锁
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final Object poolLock = new Object();
+	/**
+	 * 连接池是否已关闭
+	 */
+	private volatile boolean closed;
 	/**
 	 * JDBCUrl-》子类传入handler方法
 	 */
@@ -65,6 +106,24 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 * oracle专用
 	 */
 	private String jdbcType;
+	/**
+	 * 服务器熔断器，同一host:port共用
+	 */
+	private final CircuitBreaker circuitBreaker;
+	/**
+	 * 连接池配置
+	 */
+	private PoolConfig poolConfig = new PoolConfig();
+	/**
+	 * 元数据缓存，为null时不缓存
+	 */
+	private MetadataCache metadataCache;
+	/**
+	 * 数据库版本号(主、次、修订)，第一次使用时读取
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private volatile int[] serverVersion;
 
 	public AbstractDatabase(
 		String databaseName,
@@ -80,6 +139,7 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 		this.username = username;
 		this.password = password;
 		this.jdbcType = jdbcType;
+		this.circuitBreaker = CircuitBreaker.forEndpoint(host, port);
 		this.setJdbcUrl(this.handleJdbcUrl(jdbcType));
 	}
 
@@ -90,12 +150,28 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public boolean canConnect() {
-		TelnetClient telnet = new TelnetClient();
-		try {
-			telnet.connect(this.host, this.port);
-			return telnet.isConnected();
+		return this.canConnect(DEFAULT_PROBE_TIMEOUT);
+	}
+
+	/**
+	 * 判断服务器是否可以连接，超时后视为不可用
+	 *
+	 * @param timeoutMillis 建立TCP连接的超时时间，单位毫秒
+	 * @return boolean true:可用 false:不可用
+	 */
+	@Override
+	public boolean canConnect(int timeoutMillis) {
+		if (!this.circuitBreaker.allowRequest()) {
+			log.info("服务器{}处于熔断状态", this.circuitBreaker.getEndpoint());
+			return false;
+		}
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(this.host, this.port), timeoutMillis);
+			this.circuitBreaker.recordSuccess();
+			return true;
 		} catch (IOException e) {
 			log.info("ip地址和端口号不通");
+			this.circuitBreaker.recordFailure();
 			return false;
 		}
 	}
@@ -107,25 +183,62 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public boolean isDatabaseConnect() {
+		return this.isDatabaseConnect(DEFAULT_PROBE_TIMEOUT);
+	}
+
+	/**
+	 * 数据库是否可以连接，超时通过驱动的连接属性设置，不修改DriverManager的全局登录超时
+	 *
+	 * @param timeoutMillis 连接和登录的超时时间，单位毫秒
+	 * @return boolean  true:可用 false:不可用
+	 */
+	@Override
+	public boolean isDatabaseConnect(int timeoutMillis) {
 		boolean isDatabaseConnect = false;
 		String driver = this.handleDriver();
 		Connection conn = null;
+		if (!this.circuitBreaker.allowRequest()) {
+			log.info("服务器{}处于熔断状态", this.circuitBreaker.getEndpoint());
+			return false;
+		}
 
+		SQLException failure = null;
 		try {
 			Class.forName(driver);
-			//设置连接时间
-			DriverManager.setLoginTimeout(5);
-			conn = DriverManager.getConnection(this.jdbcUrl, this.username, this.password);
-			isDatabaseConnect = true;
-		} catch (ClassNotFoundException | SQLException e) {
+			Properties info = new Properties();
+			info.setProperty("user", this.username);
+			info.setProperty("password", null == this.password ? "" : this.password);
+			this.handleTimeout(info, timeoutMillis);
+			conn = DriverManager.getDriver(this.jdbcUrl).connect(this.jdbcUrl, info);
+			isDatabaseConnect = null != conn;
+		} catch (SQLException e) {
 			//返回是否可以连接，异常信息写入日志
 			log.info("数据库连接失败", e);
+			failure = e;
+		} catch (ClassNotFoundException e) {
+			log.info("数据库连接失败", e);
 		} finally {
+			//只有连接类异常计入熔断，认证失败等不影响同一服务器上的其它数据库和用户
+			if (isDatabaseConnect) {
+				this.circuitBreaker.recordSuccess();
+			} else if (null != failure) {
+				this.circuitBreaker.record(failure);
+			} else {
+				this.circuitBreaker.releaseTrial();
+			}
 			this.closeObject(conn, null, null);
 		}
 		return isDatabaseConnect;
 	}
 
+	/**
+	 * 设置驱动的连接、登录和读取超时属性
+	 *
+	 * @param info          连接属性
+	 * @param timeoutMillis 超时时间，单位毫秒
+	 */
+	protected abstract void handleTimeout(Properties info, int timeoutMillis);
+
 	/**
 	 * 执行SQL语句
 	 *
@@ -147,6 +260,48 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 			throw new DatabaseException(ExceptionEnum.SQL_EXECUTE_EXCEPTION, "executeSql", "执行sql:" + sql + "语句时异常" + e);
 		} finally {
 			this.closeObject(conn, psmt, null);
+			this.invalidateMetadata(sql);
+		}
+	}
+
+	/**
+	 * 开启元数据缓存
+	 *
+	 * @param ttlMillis 过期时间，单位毫秒
+	 * @param maxSize   最大缓存条数
+	 */
+	@Override
+	public void enableMetadataCache(long ttlMillis, int maxSize) {
+		this.metadataCache = new MetadataCache(ttlMillis, maxSize);
+	}
+
+	/**
+	 * 失效指定表的元数据缓存
+	 *
+	 * @param tableName 表名
+	 */
+	protected void invalidateTable(String tableName) {
+		if (null != this.metadataCache) {
+			this.metadataCache.invalidate(tableName);
+		}
+	}
+
+	/**
+	 * 执行DDL语句后失效相关表的元数据缓存，无法解析出表名时清空缓存
+	 *
+	 * @param sql 执行的SQL
+	 */
+	protected void invalidateMetadata(String sql) {
+		if (null == this.metadataCache || null == sql) {
+			return;
+		}
+		Set<String> tableNames = DdlTableParser.parse(sql);
+		if (null == tableNames) {
+			this.metadataCache.invalidateAll();
+			return;
+		}
+		for (String tableName : tableNames) {
+			this.metadataCache.invalidate(tableName);
 		}
 	}
 
@@ -157,48 +312,190 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public Connection getConnection() {
+		//服务器已知不可用时立即失败，不等待maxWait
+		if (!this.circuitBreaker.allowRequest()) {
+			throw new DatabaseException(ExceptionEnum.DATASOURCE_CONNECT_EXCEPTION, "getConnection",
+				"服务器" + this.circuitBreaker.getEndpoint() + "处于熔断状态");
+		}
 		DruidDataSource ds;
-		Connection conn;
-		//druid单例模式
-		if (null == this.druidDataSource) {
-			log.info("GetConnection: create druid pool object");
-			String driver = this.handleDriver();
-
-			ds = new DruidDataSource();
-			//这一项可配可不配，如果不配置druid会根据url自动识别dbType，然后选择相应的driverClassName(建议配置下)
-			ds.setDriverClassName(driver);
-			ds.setUrl(this.jdbcUrl);
-			//连接数据库的用户名
-			ds.setUsername(this.username);
-			//连接数据库的密码。如果你不希望密码直接写在配置文件中，可以使用ConfigFilter。
-			ds.setPassword(this.password);
-			//初始化时建立物理连接的个数。初始化发生在显示调用init方法，或者第一次getConnection时.默认值0
-			ds.setInitialSize(0);
-			//最大连接池数量,默认值8
-			ds.setMaxActive(2);
-			//获取连接时最大等待时间，单位毫秒。配置了maxWait之后，缺省启用公平锁，并发效率会有所下降，如果需要可以通过配置useUnfairLock属性为true使用非公平锁。
-			ds.setMaxWait(5000);
-			// 配置间隔多久启动一次DestroyThread，对连接池内的连接才进行一次检测，单位是毫秒
-			ds.setTimeBetweenEvictionRunsMillis(10);
-			// 连接长时间不归还，强制归还
-			ds.setRemoveAbandoned(true);
-			ds.setRemoveAbandonedTimeout(80);
-			// 关闭自动重试
-			ds.setConnectionErrorRetryAttempts(0);
-			ds.setBreakAfterAcquireFailure(true);
-
-			this.setDruidDataSource(ds);
-
-			log.info("create druid pool success!");
-			log.info("driver:{}|jdbcUrl:{}|this.username:{}", driver, this.jdbcUrl, this.username);
+		try {
+			ds = this.getDataSource();
+		} catch (RuntimeException e) {
+			//连接池已关闭等，请求未到达服务器，释放可能占用的试探名额，避免一直处于半开状态
+			this.circuitBreaker.releaseTrial();
+			throw e;
 		}
-
 		try {
-			conn = this.druidDataSource.getConnection();
+			Connection conn;
+			try {
+				conn = ds.getConnection();
+			} catch (SQLException e) {
+				//连接池被releaseIdlePool释放与本次获取并发，在重新创建的连接池上重试一次
+				if (!ds.isClosed() || this.closed) {
+					throw e;
+				}
+				ds = this.getDataSource();
+				conn = ds.getConnection();
+			}
+			this.circuitBreaker.recordSuccess();
+			return conn;
 		} catch (SQLException e) {
+			//连接全部被占用导致的等待超时说明服务器可用，不计为失败
+			if (ds.getActiveCount() >= ds.getMaxActive()) {
+				this.circuitBreaker.recordSuccess();
+			} else {
+				this.circuitBreaker.record(e);
+			}
 			throw new DatabaseException(ExceptionEnum.DATASOURCE_CONNECT_EXCEPTION, "getConnection", "获取数据源连接失败");
 		}
-		return conn;
+	}
+
+	/**
+	 * 获取连接池，第一次使用时创建；双重检查保证并发首次调用时只创建一个连接池
+	 *
+	 * @return DruidDataSource 连接池
+	 */
+	private DruidDataSource getDataSource() {
+		DruidDataSource ds = this.druidDataSource;
+		if (null != ds) {
+			return ds;
+		}
+		synchronized (this.poolLock) {
+			if (this.closed) {
+				throw new DatabaseException(ExceptionEnum.DATASOURCE_CONNECT_EXCEPTION, "getConnection", "连接池已关闭");
+			}
+			if (null == this.druidDataSource) {
+				this.druidDataSource = this.createDataSource();
+			}
+			return this.druidDataSource;
+		}
+	}
+
+	private DruidDataSource createDataSource() {
+		log.info("GetConnection: create druid pool object");
+		String driver = this.handleDriver();
+
+		DruidDataSource ds = new DruidDataSource();
+		//这一项可配可不配，如果不配置druid会根据url自动识别dbType，然后选择相应的driverClassName(建议配置下)
+		ds.setDriverClassName(driver);
+		ds.setUrl(this.handlePoolUrl(this.jdbcUrl));
+		//连接数据库的用户名
+		ds.setUsername(this.username);
+		//连接数据库的密码。如果你不希望密码直接写在配置文件中，可以使用ConfigFilter。
+		ds.setPassword(this.password);
+		//连接数、等待时间、检测间隔、PS缓存等由PoolConfig配置
+		this.poolConfig.apply(ds);
+		//建连失败后不立即重试，每隔timeBetweenConnectErrorMillis重试一次；
+		//不设置breakAfterAcquireFailure，否则建连线程失败一次后退出，服务器恢复后连接池也无法再建立连接，
+		//服务器不可用时的快速失败由熔断器处理
+		ds.setConnectionErrorRetryAttempts(0);
+		//统计每次调用的JDBC往返次数
+		if (this.poolConfig.isRoundTripMetrics()) {
+			ds.getProxyFilters().add(new RoundTripFilter());
+		}
+
+		log.info("create druid pool success!");
+		log.info("driver:{}|jdbcUrl:{}|this.username:{}", driver, this.jdbcUrl, this.username);
+		return ds;
+	}
+
+	/**
+	 * 连接池使用的URL，可按连接池配置追加只用于连接池的参数，探测连接不使用
+	 *
+	 * @param jdbcUrl 连接URL
+	 * @return String 连接池URL
+	 */
+	protected String handlePoolUrl(String jdbcUrl) {
+		return jdbcUrl;
+	}
+
+	/**
+	 * 预先建立连接，避免第一次请求承担建连开销
+	 *
+	 * @param size 预建的连接数，不超过连接池最大连接数
+	 */
+	@Override
+	public void warmUp(int size) {
+		if (size <= 0) {
+			return;
+		}
+		DruidDataSource ds = this.getDataSource();
+		int count = Math.min(size, ds.getMaxActive());
+		List<Connection> connections = new ArrayList<>(count);
+		try {
+			for (int i = 0; i < count; i++) {
+				connections.add(this.getConnection());
+			}
+		} finally {
+			for (Connection conn : connections) {
+				this.closeObject(conn, null, null);
+			}
+		}
+		log.info("连接池预建{}个连接", count);
+	}
+
+	/**
+	 * 没有活动连接时关闭连接池，与close不同，之后获取连接时重新创建连接池
+	 *
+	 * @return boolean true: 已释放或连接池未创建 false: 有活动连接，未释放
+	 */
+	@Override
+	public boolean releaseIdlePool() {
+		synchronized (this.poolLock) {
+			DruidDataSource ds = this.druidDataSource;
+			if (null == ds) {
+				return true;
+			}
+			if (ds.getActiveCount() > 0) {
+				return false;
+			}
+			this.druidDataSource = null;
+			ds.close();
+			log.info("druid pool released:{}", this.jdbcUrl);
+			return true;
+		}
+	}
+
+	/**
+	 * 关闭连接池，关闭后不能再获取连接
+	 */
+	@Override
+	public void close() {
+		synchronized (this.poolLock) {
+			this.closed = true;
+			if (null != this.druidDataSource) {
+				this.druidDataSource.close();
+				this.druidDataSource = null;
+				log.info("druid pool closed:{}", this.jdbcUrl);
+			}
+		}
+	}
+
+	/**
+	 * 连接池状态，用于区分慢在连接池等待还是慢在服务器
+	 *
+	 * @return Map 指标名 -> 值
+	 */
+	@Override
+	public Map<String, Number> getPoolStats() {
+		Map<String, Number> stats = new LinkedHashMap<>();
+		DruidDataSource ds = this.druidDataSource;
+		if (null == ds) {
+			return stats;
+		}
+		stats.put("activeCount", ds.getActiveCount());
+		stats.put("activePeak", ds.getActivePeak());
+		stats.put("poolingCount", ds.getPoolingCount());
+		stats.put("maxActive", ds.getMaxActive());
+		stats.put("waitThreadCount", ds.getWaitThreadCount());
+		stats.put("notEmptyWaitCount", ds.getNotEmptyWaitCount());
+		stats.put("notEmptyWaitMillis", ds.getNotEmptyWaitMillis());
+		stats.put("createCount", ds.getCreateCount());
+		stats.put("createTimespanMillis", ds.getCreateTimespanMillis());
+		stats.put("destroyCount", ds.getDestroyCount());
+		stats.put("connectErrorCount", ds.getConnectErrorCount());
+		stats.put("errorCount", ds.getErrorCount());
+		return stats;
 	}
 
 	/**
@@ -220,6 +517,20 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 		ResultSet rs = null;
 
 		try {
+			if (null != this.handleSchemasSql()) {
+				try (PreparedStatement psmt = conn.prepareStatement(this.handleSchemasSql());
+					 ResultSet schemas = psmt.executeQuery()) {
+					while (schemas.next()) {
+						Map<String, Object> resultMap = new HashMap<>();
+						resultMap.put("TABLE_SCHEM", schemas.getString("TABLE_SCHEM"));
+						result.add(resultMap);
+					}
+					return result;
+				} catch (SQLException e) {
+					log.info("系统表查询模式失败，改用DatabaseMetaData", e);
+					result.clear();
+				}
+			}
 			DatabaseMetaData dbma = conn.getMetaData();
 			rs = dbma.getSchemas();
 
@@ -256,42 +567,116 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public boolean isTableExists(String tableName) {
-		boolean isExist = false;
+		try {
+			if (null == this.metadataCache) {
+				return this.loadTableExists(tableName);
+			}
+			//查询失败时异常穿过缓存，不缓存false
+			return this.metadataCache.get(this.getSchema(""), tableName, MetadataKindEnum.TABLE_EXISTS, null,
+				() -> this.loadTableExists(tableName));
+		} catch (DatabaseException e) {
+			log.info("数据表" + tableName + "不存在");
+			return false;
+		}
+	}
+
+	private boolean loadTableExists(String tableName) {
+		return !this.existingTables(null, Collections.singletonList(tableName)).isEmpty();
+	}
+
+	/**
+	 * 一次查询多个表名中已存在的数据表，表名较多时按批查询
+	 *
+	 * @param schema     模式
+	 * @param tableNames 表名
+	 * @return Set 已存在的表名，与传入的表名一致
+	 */
+	@Override
+	public Set<String> existingTables(String schema, Collection<String> tableNames) {
+		Set<String> result = new HashSet<>();
+		if (null == tableNames || tableNames.isEmpty()) {
+			return result;
+		}
+		List<String> names = new ArrayList<>(new LinkedHashSet<>(tableNames));
+		Map<String, String> lookup = nameLookup(names);
 		Connection conn = null;
 		ResultSet rs = null;
 
 		try {
 			conn = this.getConnection();
-			DatabaseMetaData dbmd = conn.getMetaData();
-			rs = dbmd.getTables(conn.getCatalog(), null, tableName, new String[]{"TABLE"});
-			while (rs.next()) {
-				String tableSchem = rs.getString("TABLE_SCHEM");
-				// postgresql的TABLE_CAT为null
-				if (null == rs.getString("TABLE_CAT")) {
-					if (tableSchem.equals(this.getSchema(""))) {
-						return true;
-					}
-				}
-				if (StringUtils.isNotBlank(tableSchem)) {
-					if (tableSchem.equals(this.getSchema(""))) {
-						if (this.databaseName.equals(rs.getString("TABLE_CAT"))) {
-							isExist = true;
-						}
-					}
-				} else {
-					if (this.databaseName.equals(rs.getString("TABLE_CAT"))) {
-						isExist = true;
+			if (null != this.handleTableExistsSql("?")) {
+				try {
+					for (int from = 0; from < names.size(); from += EXISTS_BATCH_SIZE) {
+						this.loadNativeExists(conn, schema, names.subList(from, Math.min(names.size(), from + EXISTS_BATCH_SIZE)), lookup, result);
 					}
+					return result;
+				} catch (SQLException e) {
+					log.info("系统表查询数据表是否存在失败，改用DatabaseMetaData", e);
+					result.clear();
 				}
 			}
+			//只有一个表名时按表名过滤，否则一次读取模式下的全部数据表
+			DatabaseMetaData dbmd = conn.getMetaData();
+			rs = dbmd.getTables(conn.getCatalog(), this.handleSchema(schema), 1 == names.size() ? names.get(0) : null, new String[]{"TABLE"});
+			while (rs.next()) {
+				addExistingName(lookup, rs.getString("TABLE_NAME"), result);
+			}
 		} catch (SQLException e) {
-			log.info("数据表" + tableName + "不存在");
-			return false;
-			//throw new DatabaseException(ExceptionEnum.DATABASE_STRUCTURE_EXCEPTION, "isTableExist", "isTableExist出现异常");
+			throw new DatabaseException(
+				ExceptionEnum.DATABASE_STRUCTURE_EXCEPTION, "existingTables", "existingTables出现异常" + e);
 		} finally {
 			this.closeObject(conn, null, rs);
 		}
-		return isExist;
+		return result;
+	}
+
+	/**
+	 * 参数个数按2的幂补齐(重复最后一个表名)，减少不同的SQL文本，便于PreparedStatement缓存复用
+	 */
+	private void loadNativeExists(Connection conn, String schema, List<String> names, Map<String, String> lookup, Set<String> result) throws SQLException {
+		int size = 1;
+		while (size < names.size()) {
+			size <<= 1;
+		}
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			psmt = conn.prepareStatement(this.handleTableExistsSql(String.join(", ", Collections.nCopies(size, "?"))));
+			psmt.setString(1, this.handleSchema(schema));
+			for (int i = 0; i < size; i++) {
+				psmt.setString(i + 2, names.get(Math.min(i, names.size() - 1)));
+			}
+			rs = psmt.executeQuery();
+			while (rs.next()) {
+				addExistingName(lookup, rs.getString("TABLE_NAME"), result);
+			}
+		} finally {
+			this.closeObject(null, psmt, rs);
+		}
+	}
+
+	/**
+	 * 表名查找表：先按原样，不区分大小写的数据库(如MySQL)返回的表名再按小写查找
+	 */
+	private static Map<String, String> nameLookup(List<String> names) {
+		Map<String, String> lookup = new HashMap<>();
+		for (String name : names) {
+			lookup.put(name, name);
+		}
+		for (String name : names) {
+			lookup.putIfAbsent(name.toLowerCase(), name);
+		}
+		return lookup;
+	}
+
+	private static void addExistingName(Map<String, String> lookup, String tableName, Set<String> result) {
+		String name = lookup.get(tableName);
+		if (null == name) {
+			name = lookup.get(tableName.toLowerCase());
+		}
+		if (null != name) {
+			result.add(name);
+		}
 	}
 
 	/**
@@ -303,12 +688,43 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public List<TableBean> queryTable(String schema, String type) {
+		if (null == this.metadataCache) {
+			return this.loadTable(schema, type);
+		}
+		List<TableBean> cached = this.metadataCache.get(schema, null, MetadataKindEnum.TABLE_LIST, type,
+			() -> this.loadTable(schema, type));
+		//返回副本，调用方修改不影响缓存
+		List<TableBean> result = new ArrayList<>(cached.size());
+		for (TableBean tableBean : cached) {
+			result.add(new TableBean(tableBean.getTableName(), copyColumns(tableBean.getColumnList()), tableBean.getType(),
+				tableBean.getRemark(), null == tableBean.getIndexList() ? null : new ArrayList<>(tableBean.getIndexList())));
+		}
+		return result;
+	}
+
+	private List<TableBean> loadTable(String schema, String type) {
 		List<TableBean> result = new ArrayList<>();
 		Connection conn = null;
 		ResultSet rs = null;
 
 		try {
 			conn = this.getConnection();
+			if (null != this.handleTablesSql()) {
+				try {
+					for (TableBean tableBean : this.loadNativeTables(conn, schema, null)) {
+						if (StringUtils.isNoneEmpty(type) ? type.equalsIgnoreCase(tableBean.getType())
+							: "TABLE".equalsIgnoreCase(tableBean.getType()) || "VIEW".equalsIgnoreCase(tableBean.getType())) {
+							tableBean.setColumnList(null);
+							tableBean.setIndexList(null);
+							result.add(tableBean);
+						}
+					}
+					return result;
+				} catch (SQLException e) {
+					log.info("系统表查询数据表失败，改用DatabaseMetaData", e);
+					result.clear();
+				}
+			}
 			DatabaseMetaData dbmd = conn.getMetaData();
 			String[] types;
 			if (StringUtils.isNoneEmpty(type)) {
@@ -351,8 +767,36 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public ArrayList<ColumnBean> queryTableColumns(String schema, String tableName) {
+		if (null == this.metadataCache) {
+			return this.loadTableColumns(schema, tableName);
+		}
+		return copyColumns(this.metadataCache.get(schema, tableName, MetadataKindEnum.TABLE_COLUMNS, null,
+			() -> this.loadTableColumns(schema, tableName)));
+	}
+
+	/**
+	 * 复制缓存中的列信息，调用方修改返回的ColumnBean不影响缓存
+	 */
+	private static ArrayList<ColumnBean> copyColumns(List<ColumnBean> columns) {
+		if (null == columns) {
+			return null;
+		}
+		ArrayList<ColumnBean> result = new ArrayList<>(columns.size());
+		for (ColumnBean c : columns) {
+			result.add(new ColumnBean(c.getIsPk(), c.getColumnName(), c.getColumnType(), c.getColumnTypeName(),
+				c.getColumnSize(), c.getDecimalDigits(), c.getIsNullable(), c.getDefaultValue(), c.getRemark(),
+				c.getNativeType(), c.getExtra(), c.getCollation()));
+		}
+		return result;
+	}
+
+	private ArrayList<ColumnBean> loadTableColumns(String schema, String tableName) {
 		ArrayList<ColumnBean> columnBeanList = new ArrayList<>();
-		List<Map<String, Object>> pkList = queryTablePrimaryKey(schema, tableName);
+		List<Map<String, Object>> primaryKeys = queryTablePrimaryKey(schema, tableName);
+		Set<String> pkList = new HashSet<>();
+		for (Map<String, Object> pkMap : primaryKeys) {
+			pkList.add(pkMap.get("COLUMN_NAME").toString());
+		}
 		Connection conn = null;
 		ResultSet rs = null;
 
@@ -360,45 +804,25 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 			conn = this.getConnection();
 			//处理连接属性，目前oracle用到
 			this.handleRemarks(conn);
+			if (null != this.handleColumnsSql()) {
+				try {
+					for (List<ColumnBean> columns : this.loadNativeColumns(conn, schema, tableName).values()) {
+						for (ColumnBean columnBean : columns) {
+							columnBean.setIsPk(pkList.contains(columnBean.getColumnName()));
+							columnBeanList.add(columnBean);
+						}
+					}
+					return columnBeanList;
+				} catch (SQLException e) {
+					log.info("系统表查询列失败，改用DatabaseMetaData", e);
+					columnBeanList.clear();
+				}
+			}
 			DatabaseMetaData dbmd = conn.getMetaData();
 			rs = dbmd.getColumns(conn.getCatalog(), schema, tableName, null);
 
 			while (rs.next()) {
-				ColumnBean columnBean = new ColumnBean();
-
-				// 是否主键 0：不是 1：是
-				boolean isPrimaryKey = false;
-				for (Map<String, Object> pkMap : pkList) {
-					if (pkMap.get("COLUMN_NAME").toString().equals(rs.getString("COLUMN_NAME"))) {
-						isPrimaryKey = true;
-					}
-				}
-				columnBean.setIsPk(isPrimaryKey);
-
-				//列名
-				columnBean.setColumnName(rs.getString("COLUMN_NAME"));
-				//对应的java.sql.Types类型及名字
-				columnBean.setColumnType(rs.getInt("DATA_TYPE"));
-				columnBean.setColumnTypeName(getTypeById(rs.getInt("DATA_TYPE")));
-				//列宽度和精度
-				columnBean.setColumnSize(rs.getInt("COLUMN_SIZE"));
-				columnBean.setDecimalDigits(rs.getInt("DECIMAL_DIGITS"));
-				//是否允许使用NULL（0：否 1：是）
-				columnBean.setIsNullable("0".equals(rs.getString("NULLABLE")));
-				//描述列的注释（可能为null）
-				columnBean.setRemark((rs.getString("REMARKS") == null) ? "" : rs.getString("REMARKS"));
-				//默认值
-				if (rs.getString("COLUMN_DEF") == null) {
-					columnBean.setDefaultValue("");
-				} else {
-					String defaultValue = rs.getString("COLUMN_DEF");
-					if (defaultValue.contains("::")) {
-						int end = defaultValue.lastIndexOf("::");
-						defaultValue = defaultValue.substring(1, end - 1);
-					}
-					columnBean.setDefaultValue(defaultValue);
-				}
-				columnBeanList.add(columnBean);
+				columnBeanList.add(this.buildColumnBean(rs, pkList));
 			}
 
 		} catch (SQLException e) {
@@ -411,44 +835,35 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	}
 
 	/**
-	 * 查询表的索引
+	 * 查询表的索引，不含主键索引
 	 *
 	 * @param schema    模式
 	 * @param tableName 表名
 	 * @return List 表索引信息
 	 */
 	@Override
-	public List queryTableIndex(String schema, String tableName) {
-		List<Map<String, Object>> result = new ArrayList<>();
+	public List<IndexBean> queryTableIndex(String schema, String tableName) {
 		Connection conn = null;
-		ResultSet rs = null;
 
 		try {
 			conn = this.getConnection();
-			DatabaseMetaData dbmd = conn.getMetaData();
-			/**
-			 * unique - 该参数为 true 时，仅返回唯一值的索引；该参数为 false 时，返回所有索引，不管它们是否唯一
-			 * approximate - 该参数为 true时，允许结果是接近的数据值或这些数据值以外的值；该参数为 false 时，要求结果是精确结果
-			 */
-			boolean unique = false;
-			boolean approximate = true;
-			rs = dbmd.getIndexInfo(conn.getCatalog(), schema, tableName, unique, approximate);
-			while (rs.next()) {
-				Map<String, Object> resultMap = new HashMap<>();
-				//表模式（可以为NUll）
-				resultMap.put("TABLE_SCHEM", rs.getObject("TABLE_SCHEM"));
-				//表名称
-				resultMap.put("TABLE_NAME", rs.getString("TABLE_NAME"));
-				//索引值是否可以唯一
-				resultMap.put("NON_UNIQUE", rs.getString("NON_UNIQUE"));
+			if (null != this.handleIndexesSql()) {
+				try {
+					List<IndexBean> indexes = this.loadNativeIndexes(conn, schema, tableName).get(tableName);
+					return null == indexes ? new ArrayList<>() : indexes;
+				} catch (SQLException e) {
+					log.info("系统表查询索引失败，改用DatabaseMetaData", e);
+				}
 			}
+			DatabaseMetaData dbmd = conn.getMetaData();
+			return this.loadIndexes(dbmd, conn.getCatalog(), schema, tableName,
+				this.loadPrimaryKeyName(dbmd, conn.getCatalog(), schema, tableName));
 		} catch (SQLException e) {
 			throw new DatabaseException(
-				ExceptionEnum.DATABASE_STRUCTURE_EXCEPTION, "queryTableIndex", "queryTableIndex出现异常");
+				ExceptionEnum.DATABASE_STRUCTURE_EXCEPTION, "queryTableIndex", "queryTableIndex出现异常" + e);
 		} finally {
-			this.closeObject(conn, null, rs);
+			this.closeObject(conn, null, null);
 		}
-		return result;
 	}
 
 	/**
@@ -460,12 +875,32 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 	 */
 	@Override
 	public List queryTablePrimaryKey(String schema, String tableName) {
+		if (null == this.metadataCache) {
+			return this.loadTablePrimaryKey(schema, tableName);
+		}
+		List<Map<String, Object>> cached = this.metadataCache.get(schema, tableName, MetadataKindEnum.TABLE_PRIMARY_KEY, null,
+			() -> this.loadTablePrimaryKey(schema, tableName));
+		List<Map<String, Object>> result = new ArrayList<>(cached.size());
+		for (Map<String, Object> primaryKey : cached) {
+			result.add(new HashMap<>(primaryKey));
+		}
+		return result;
+	}
+
+	private List<Map<String, Object>> loadTablePrimaryKey(String schema, String tableName) {
 		List<Map<String, Object>> result = new ArrayList<>();
 		Connection conn = null;
 		ResultSet rs = null;
 
 		try {
 			conn = this.getConnection();
+			if (null != this.handlePrimaryKeysSql()) {
+				try {
+					return this.loadNativePrimaryKeys(conn, schema, tableName);
+				} catch (SQLException e) {
+					log.info("系统表查询主键失败，改用DatabaseMetaData", e);
+				}
+			}
 			DatabaseMetaData dbmd = conn.getMetaData();
 			rs = dbmd.getPrimaryKeys(conn.getCatalog(), schema, tableName);
 
@@ -633,20 +1068,997 @@ public abstract class AbstractDatabase implements DatabaseImpl {
 		}
 	}
 
+	/**
+	 * 默认只设置fetchSize，由驱动决定是否分批获取
+	 */
 	@Override
-	public TableBean getSourceTableColumns(String schema, String tableName) {
-		List<TableBean> tableBeans = this.queryTable(schema, "");
-		TableBean table = new TableBean();
-		table.setTableName(tableName);
-		for (TableBean t : tableBeans) {
-			if (tableName.equalsIgnoreCase(t.getTableName())) {
-				table.setType(t.getType());
-				table.setRemark(t.getRemark());
-			}
-		}
-		//获取数据表字段描述
-		List<ColumnBean> columnBeans = this.queryTableColumns(schema, tableName);
-		table.setColumnList(columnBeans);
-		return table;
+	public Statement createStreamingStatement(Connection conn, int fetchSize) throws SQLException {
+		Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		stmt.setFetchSize(fetchSize);
+		return stmt;
+	}
+
+	@Override
+	public void finishStreamingRead(Connection conn) {
+		if (null == conn) {
+			return;
+		}
+		try {
+			if (!conn.getAutoCommit()) {
+				conn.rollback();
+				conn.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			log.info("恢复连接自动提交失败", e);
+		}
+	}
+
+	/**
+	 * 游标方式分批获取时关闭结果集只关闭游标，默认不处理
+	 */
+	@Override
+	public void cancelStreamingRead(Statement stmt) {
+	}
+
+	@Override
+	public String exportSql(TableBean tableBean) {
+		return this.exportSql(tableBean, false);
+	}
+
+	@Override
+	public void createTable(TableBean tableBean) {
+		this.createTable(tableBean, false);
+	}
+
+	/**
+	 * 依次执行handleBulkLoadSql中的设置语句，失败的设置(如权限不足)跳过，不影响写入
+	 *
+	 * @param conn 写入连接，处于自动提交状态
+	 * @return List 已生效设置的恢复语句
+	 */
+	@Override
+	public List<String> beginBulkLoad(Connection conn) {
+		List<String> resetSql = new ArrayList<>();
+		for (Map.Entry<String, String> entry : this.handleBulkLoadSql().entrySet()) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(entry.getKey());
+				resetSql.add(entry.getValue());
+			} catch (SQLException e) {
+				log.info("批量加载会话设置失败，跳过:" + entry.getKey() + "," + e);
+			}
+		}
+		return resetSql;
+	}
+
+	/**
+	 * 执行恢复语句，任一语句失败时丢弃该物理连接，不把修改过会话参数的连接还回连接池
+	 *
+	 * @param conn     写入连接
+	 * @param resetSql beginBulkLoad返回的恢复语句
+	 */
+	@Override
+	public void endBulkLoad(Connection conn, List<String> resetSql) {
+		if (null == conn || null == resetSql) {
+			return;
+		}
+		for (String sql : resetSql) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(sql);
+			} catch (SQLException e) {
+				log.info("恢复会话设置失败，丢弃连接:" + sql, e);
+				this.discardConnection(conn);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 批量加载结束后对数据表的处理，默认不处理
+	 *
+	 * @param tableBean 表结构
+	 */
+	@Override
+	public void finishBulkLoad(TableBean tableBean) {
+	}
+
+	/**
+	 * 批量加载时写入会话的设置语句 -> 对应的恢复语句，默认不设置
+	 *
+	 * @return Map 按顺序执行
+	 */
+	protected Map<String, String> handleBulkLoadSql() {
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * 关闭物理连接，连接归还时连接池发现已关闭会将其丢弃
+	 */
+	private void discardConnection(Connection conn) {
+		try {
+			if (conn instanceof DruidPooledConnection) {
+				((DruidPooledConnection) conn).getConnection().close();
+			}
+		} catch (SQLException e) {
+			log.info("关闭物理连接失败", e);
+		}
+	}
+
+	/**
+	 * 默认使用批量INSERT写入
+	 *
+	 * @param tableBean 目标表结构
+	 * @return RowWriterImpl 数据写入器
+	 */
+	@Override
+	public RowWriterImpl createRowWriter(TableBean tableBean) {
+		return new InsertRowWriter(this, tableBean);
+	}
+
+	@Override
+	public CopyResult copyTableFromSource(DatabaseImpl source, String schema, TableBean tableBean, CopyOptions options) {
+		if (null != options && options.getParallelism() > 1) {
+			return new ParallelTableCopier(source, this, options).copy(schema, tableBean);
+		}
+		return new TableCopier(source, this, options).copy(schema, tableBean);
+	}
+
+	@Override
+	public String handleTableName(String schema, String tableName) {
+		if (StringUtils.isBlank(schema)) {
+			return this.handleQuote(tableName);
+		}
+		return this.handleQuote(schema) + "." + this.handleQuote(tableName);
+	}
+
+	/**
+	 * 比较源表结构和目标库中当前的表结构，由handleAlterSql生成语句，handleRewrite判断是否重写整表
+	 *
+	 * @param source  源表结构
+	 * @param current 目标库中当前的表结构
+	 * @return TableDiff 列变更，目标库不支持的变更不包含在内
+	 */
+	@Override
+	public TableDiff diffTable(TableBean source, TableBean current) {
+		TableDiff diff = TableDiffer.diff(source, current, this::getTypeById);
+		Iterator<ColumnChange> it = diff.getChanges().iterator();
+		while (it.hasNext()) {
+			ColumnChange change = it.next();
+			change.setSql(this.handleAlterSql(current.getTableName(), change));
+			if (null == change.getSql()) {
+				it.remove();
+				continue;
+			}
+			change.setRewrite(this.handleRewrite(change));
+		}
+		return diff;
+	}
+
+	/**
+	 * 列变更语句，默认使用标准SQL(与PostgreSQL一致)
+	 *
+	 * @param tableName 表名
+	 * @param change    列变更
+	 * @return String 变更语句，不需要或不支持时返回null
+	 */
+	protected String handleAlterSql(String tableName, ColumnChange change) {
+		String prefix = "ALTER TABLE " + this.handleTableName(this.handleSchema(null), tableName) + " ";
+		String column = this.handleQuote(change.getColumnName());
+		switch (change.getChangeType()) {
+			case ADD_COLUMN:
+				return prefix + "ADD COLUMN " + column + " " + this.handleColumnType(change.getColumn())
+					+ (StringUtils.isEmpty(change.getColumn().getDefaultValue()) ? ""
+					: " DEFAULT " + this.handleDefaultLiteral(change.getColumn().getDefaultValue()));
+			case DROP_COLUMN:
+				return prefix + "DROP COLUMN " + column;
+			case ALTER_TYPE:
+				return prefix + "ALTER COLUMN " + column + " TYPE " + this.handleColumnType(change.getColumn());
+			case SET_DEFAULT:
+				return prefix + "ALTER COLUMN " + column + " SET DEFAULT " + this.handleDefaultLiteral(change.getColumn().getDefaultValue());
+			case COMMENT:
+				return "COMMENT ON COLUMN " + this.handleTableName(this.handleSchema(null), tableName) + "." + column + " IS '"
+					+ change.getColumn().getRemark().replace("'", "''") + "'";
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * 列变更是否需要重写整表，默认只有修改类型需要
+	 *
+	 * @param change 列变更
+	 * @return boolean true：需要
+	 */
+	protected boolean handleRewrite(ColumnChange change) {
+		return ChangeTypeEnum.ALTER_TYPE == change.getChangeType();
+	}
+
+	/**
+	 * 列类型及长度，如VARCHAR(64)、NUMERIC(10,2)
+	 *
+	 * @param column 列描述
+	 * @return String 可拼接到DDL中的列类型
+	 */
+	protected String handleColumnType(ColumnBean column) {
+		String columnType = this.java2db(column.getColumnTypeName().toUpperCase());
+		if (columnType.contains("CHAR") && column.getColumnSize() > 0 && column.getColumnSize() < Integer.MAX_VALUE) {
+			return columnType + "(" + column.getColumnSize() + ")";
+		}
+		if ((columnType.contains("NUMERIC") || columnType.contains("DECIMAL")) && column.getColumnSize() > 0) {
+			return columnType + "(" + column.getColumnSize() + "," + column.getDecimalDigits() + ")";
+		}
+		return columnType;
+	}
+
+	/**
+	 * 默认值字面量：CURRENT_TIMESTAMP等函数原样输出，其它加单引号
+	 *
+	 * @param defaultValue 默认值
+	 * @return String 可拼接到DEFAULT之后的字面量
+	 */
+	protected String handleDefaultLiteral(String defaultValue) {
+		String value = defaultValue.trim();
+		if (value.toUpperCase().startsWith("CURRENT_") || value.endsWith(")")) {
+			return value;
+		}
+		return "'" + value.replace("'", "''") + "'";
+	}
+
+	/**
+	 * 数据库版本是否不低于指定版本，读取版本失败时返回false
+	 *
+	 * @param major 主版本
+	 * @param minor 次版本
+	 * @param patch 修订版本
+	 * @return boolean true：不低于
+	 */
+	protected boolean isServerVersionAtLeast(int major, int minor, int patch) {
+		int[] version = this.serverVersion;
+		if (null == version) {
+			Connection conn = null;
+			try {
+				conn = this.getConnection();
+				Matcher matcher = VERSION_PATTERN.matcher(conn.getMetaData().getDatabaseProductVersion());
+				if (!matcher.find()) {
+					return false;
+				}
+				version = new int[3];
+				for (int i = 0; i < 3; i++) {
+					version[i] = null == matcher.group(i + 1) ? 0 : Integer.parseInt(matcher.group(i + 1));
+				}
+				this.serverVersion = version;
+			} catch (SQLException | RuntimeException e) {
+				log.info("读取数据库版本失败", e);
+				return false;
+			} finally {
+				this.closeObject(conn, null, null);
+			}
+		}
+		int[] expected = {major, minor, patch};
+		for (int i = 0; i < 3; i++) {
+			if (version[i] != expected[i]) {
+				return version[i] > expected[i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 通用的建索引语句，不支持部分索引和表达式索引，concurrently参数忽略
+	 *
+	 * @param tableBean    表结构
+	 * @param indexBean    索引
+	 * @param concurrently 是否在线创建，不阻塞写入
+	 * @return String 建索引语句，目标库不支持时返回null
+	 */
+	@Override
+	public String exportIndexSql(TableBean tableBean, IndexBean indexBean, boolean concurrently) {
+		if (StringUtils.isNotBlank(indexBean.getFilterCondition()) || indexBean.hasExpression()) {
+			return null;
+		}
+		return "CREATE " + (Boolean.TRUE.equals(indexBean.getIsUnique()) ? "UNIQUE " : "") + "INDEX "
+			+ this.handleQuote(indexBean.getIndexName()) + " ON " + this.handleTableName(this.handleSchema(null), tableBean.getTableName())
+			+ " (" + this.handleIndexColumns(indexBean) + ")";
+	}
+
+	/**
+	 * 索引列列表：普通列加引号，表达式原样输出，降序列加DESC
+	 *
+	 * @param indexBean 索引
+	 * @return String 逗号分隔的索引列
+	 */
+	protected String handleIndexColumns(IndexBean indexBean) {
+		return this.handleIndexColumns(indexBean, false);
+	}
+
+	/**
+	 * 索引列列表
+	 *
+	 * @param indexBean  索引
+	 * @param withPrefix 是否输出前缀索引长度，如`name`(10)
+	 * @return String 逗号分隔的索引列
+	 */
+	protected String handleIndexColumns(IndexBean indexBean, boolean withPrefix) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < indexBean.getColumnList().size(); i++) {
+			String column = indexBean.getColumnList().get(i);
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(IndexBean.isExpression(column) ? column : this.handleQuote(column));
+			if (withPrefix && i < indexBean.getPrefixList().size() && null != indexBean.getPrefixList().get(i)) {
+				sb.append("(").append(indexBean.getPrefixList().get(i)).append(")");
+			}
+			if (i < indexBean.getDescList().size() && Boolean.TRUE.equals(indexBean.getDescList().get(i))) {
+				sb.append(" DESC");
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 单列整数主键按MIN/MAX等分为多个范围，其它情况不切分
+	 *
+	 * @param schema     模式
+	 * @param tableBean  表结构
+	 * @param chunkCount 期望的分片数
+	 * @return List 每个分片的WHERE条件
+	 */
+	@Override
+	public List<String> splitTable(String schema, TableBean tableBean, int chunkCount) {
+		List<String> chunks = new ArrayList<>();
+		ColumnBean pk = null;
+		int pkCount = 0;
+		for (ColumnBean column : tableBean.getColumnList()) {
+			if (Boolean.TRUE.equals(column.getIsPk())) {
+				pk = column;
+				pkCount++;
+			}
+		}
+		if (chunkCount <= 1 || pkCount != 1 || !isIntegerType(pk)) {
+			chunks.add("");
+			return chunks;
+		}
+
+		String pkName = this.handleQuote(pk.getColumnName());
+		String sql = "SELECT MIN(" + pkName + "), MAX(" + pkName + ") FROM " + this.handleTableName(schema, tableBean.getTableName());
+		Connection conn = null;
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		BigInteger min;
+		BigInteger max;
+		try {
+			conn = this.getConnection();
+			psmt = conn.prepareStatement(sql);
+			rs = psmt.executeQuery();
+			if (!rs.next() || null == rs.getObject(1)) {
+				chunks.add("");
+				return chunks;
+			}
+			min = rs.getBigDecimal(1).toBigInteger();
+			max = rs.getBigDecimal(2).toBigInteger();
+		} catch (SQLException e) {
+			throw new DatabaseException(ExceptionEnum.DATABASE_QUERY_EXCEPTION, "splitTable", "查询" + tableBean.getTableName() + "主键范围出现异常" + e);
+		} finally {
+			this.closeObject(conn, psmt, rs);
+		}
+
+		BigInteger span = max.subtract(min).add(BigInteger.ONE);
+		BigInteger count = BigInteger.valueOf(chunkCount).min(span);
+		BigInteger step = span.divide(count);
+		for (int i = 0; i < count.intValue(); i++) {
+			BigInteger lower = min.add(step.multiply(BigInteger.valueOf(i)));
+			if (i == count.intValue() - 1) {
+				chunks.add(pkName + " >= " + lower);
+			} else {
+				chunks.add(pkName + " >= " + lower + " AND " + pkName + " < " + lower.add(step));
+			}
+		}
+		return chunks;
+	}
+
+	private static boolean isIntegerType(ColumnBean column) {
+		switch (column.getColumnType()) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+				return true;
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+				return column.getDecimalDigits() == 0;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * 返回原始表数据结构，表、列、主键和索引在同一个连接上读取
+	 *
+	 * @param schema    模式
+	 * @param tableName 表名
+	 * @return TableBean 表结构
+	 */
+	@Override
+	public TableBean getSourceTableColumns(String schema, String tableName) {
+		CatelogBean catelogBean = this.loadCatalog(schema, tableName, "getSourceTableColumns");
+		TableBean table = catelogBean.getTable(tableName);
+		if (null == table) {
+			table = new TableBean();
+			table.setTableName(tableName);
+			table.setColumnList(new ArrayList<>());
+			table.setIndexList(new ArrayList<>());
+		}
+		return table;
+	}
+
+	/**
+	 * 一次性加载模式下全部数据表的结构：表、列、主键、索引和备注
+	 *
+	 * @param schema 模式
+	 * @return CatelogBean 模式快照
+	 */
+	@Override
+	public CatelogBean queryCatalog(String schema) {
+		return this.loadCatalog(schema, null, "queryCatalog");
+	}
+
+	/**
+	 * 一次查询模式下全部数据表的预估行数和占用空间
+	 *
+	 * @param schema 模式
+	 * @return List 按总占用空间从大到小排列
+	 */
+	@Override
+	public List<TableStatsBean> queryTableStats(String schema) {
+		List<TableStatsBean> stats = new ArrayList<>();
+		Connection conn = null;
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			conn = this.getConnection();
+			psmt = conn.prepareStatement(this.handleTableStatsSql());
+			psmt.setString(1, this.handleSchema(schema));
+			rs = psmt.executeQuery();
+			while (rs.next()) {
+				long rows = rs.getLong(2);
+				stats.add(new TableStatsBean(rs.getString(1), rs.wasNull() || rows < 0 ? -1 : rows, rs.getLong(3), rs.getLong(4)));
+			}
+		} catch (SQLException e) {
+			throw new DatabaseException(ExceptionEnum.DATABASE_STRUCTURE_EXCEPTION, "queryTableStats", "查询" + schema + "统计信息出现异常" + e);
+		} finally {
+			this.closeObject(conn, psmt, rs);
+		}
+		stats.sort((a, b) -> Long.compare(b.getTotalBytes(), a.getTotalBytes()));
+		return stats;
+	}
+
+	/**
+	 * 查询表统计信息的SQL，参数为模式，结果列依次为表名、预估行数、数据字节数、索引字节数
+	 *
+	 * @return String SQL
+	 */
+	protected abstract String handleTableStatsSql();
+
+	/**
+	 * 在一个连接上加载表结构，tableName为null时加载模式下全部的表
+	 *
+	 * @param schema    模式
+	 * @param tableName 表名，为null时不过滤
+	 * @param method    调用方法名，用于异常信息
+	 * @return CatelogBean 模式快照
+	 */
+	private CatelogBean loadCatalog(String schema, String tableName, String method) {
+		CatelogBean catelogBean = new CatelogBean(schema);
+		Connection conn = null;
+		ResultSet rs = null;
+
+		try {
+			conn = this.getConnection();
+			//处理连接属性，目前oracle用到
+			this.handleRemarks(conn);
+			if (null != this.handleColumnsSql()) {
+				try {
+					return this.loadNativeCatalog(conn, schema, tableName);
+				} catch (SQLException e) {
+					log.info("系统表查询表结构失败，改用DatabaseMetaData", e);
+				}
+			}
+			DatabaseMetaData dbmd = conn.getMetaData();
+			String catalog = conn.getCatalog();
+
+			//表
+			rs = dbmd.getTables(catalog, schema, tableName, new String[]{"TABLE", "VIEW"});
+			while (rs.next()) {
+				String name = rs.getString("TABLE_NAME");
+				//表名模式中的"_"是通配符，需要精确比较
+				if (null != tableName && !tableName.equalsIgnoreCase(name)) {
+					continue;
+				}
+				TableBean tableBean = new TableBean();
+				tableBean.setTableName(name);
+				tableBean.setType(rs.getString("TABLE_TYPE"));
+				tableBean.setRemark(rs.getString("REMARKS"));
+				tableBean.setColumnList(new ArrayList<>());
+				tableBean.setIndexList(new ArrayList<>());
+				catelogBean.addTable(tableBean);
+			}
+			this.closeObject(null, null, rs);
+			rs = null;
+			if (catelogBean.getTableList().isEmpty()) {
+				return catelogBean;
+			}
+
+			//主键
+			Map<String, String> pkNames = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+			Map<String, Set<String>> pkMap = this.loadPrimaryKeys(dbmd, catalog, schema, tableName, catelogBean, pkNames);
+
+			//列：整个模式一次读取
+			rs = dbmd.getColumns(catalog, schema, tableName, null);
+			while (rs.next()) {
+				TableBean tableBean = catelogBean.getTable(rs.getString("TABLE_NAME"));
+				if (null == tableBean) {
+					continue;
+				}
+				Set<String> pkList = pkMap.get(tableBean.getTableName());
+				tableBean.getColumnList().add(this.buildColumnBean(rs, null == pkList ? new HashSet<>() : pkList));
+			}
+			this.closeObject(null, null, rs);
+			rs = null;
+
+			//索引
+			Map<String, List<IndexBean>> indexMap = this.loadSchemaIndexes(dbmd, catalog, schema, tableName, pkNames);
+			for (TableBean tableBean : catelogBean.getTableList()) {
+				if (!"TABLE".equalsIgnoreCase(tableBean.getType())) {
+					continue;
+				}
+				if (null != indexMap) {
+					tableBean.setIndexList(indexMap.getOrDefault(tableBean.getTableName(), new ArrayList<>()));
+				} else {
+					tableBean.setIndexList(this.loadIndexes(dbmd, catalog, schema, tableBean.getTableName(),
+						pkNames.get(tableBean.getTableName())));
+				}
+			}
+		} catch (SQLException e) {
+			throw new DatabaseException(ExceptionEnum.DATABASE_STRUCTURE_EXCEPTION, method, method + "出现异常" + e);
+		} finally {
+			this.closeObject(conn, null, rs);
+		}
+		return catelogBean;
+	}
+
+	/**
+	 * 加载主键列，驱动支持时整个模式一次读取，否则在同一个连接上逐表读取(如MySQL，往返次数与表数相同；
+	 * MySQL和PostgreSQL正常走系统表查询，只在系统表查询失败时才会用到这里)
+	 *
+	 * @param pkNames 输出参数，表名 -> 主键约束名，用于排除主键索引
+	 * @return Map 表名 -> 主键列名
+	 */
+	private Map<String, Set<String>> loadPrimaryKeys(DatabaseMetaData dbmd, String catalog, String schema, String tableName,
+													 CatelogBean catelogBean, Map<String, String> pkNames) throws SQLException {
+		Map<String, Set<String>> pkMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		ResultSet rs = null;
+		if (null == tableName) {
+			try {
+				rs = dbmd.getPrimaryKeys(catalog, schema, null);
+				while (rs.next()) {
+					pkMap.computeIfAbsent(rs.getString("TABLE_NAME"), k -> new HashSet<>()).add(rs.getString("COLUMN_NAME"));
+					pkNames.put(rs.getString("TABLE_NAME"), rs.getString("PK_NAME"));
+				}
+				return pkMap;
+			} catch (SQLException e) {
+				//MySQL等驱动不支持表名为空，退回逐表读取
+				log.info("getPrimaryKeys不支持整个模式读取，改为逐表读取");
+				pkMap.clear();
+				pkNames.clear();
+			} finally {
+				this.closeObject(null, null, rs);
+			}
+		}
+		for (TableBean tableBean : catelogBean.getTableList()) {
+			if (!"TABLE".equalsIgnoreCase(tableBean.getType())) {
+				continue;
+			}
+			try {
+				rs = dbmd.getPrimaryKeys(catalog, schema, tableBean.getTableName());
+				while (rs.next()) {
+					pkMap.computeIfAbsent(tableBean.getTableName(), k -> new HashSet<>()).add(rs.getString("COLUMN_NAME"));
+					pkNames.put(tableBean.getTableName(), rs.getString("PK_NAME"));
+				}
+			} finally {
+				this.closeObject(null, null, rs);
+			}
+		}
+		return pkMap;
+	}
+
+	/**
+	 * 整个模式一次读取索引(与主键约束同名的主键索引除外)。JDBC规范中getIndexInfo的表名不能为空，部分驱动(如H2)允许为空，
+	 * MySQL等驱动不支持；不支持或没有返回任何索引时返回null，由调用方在同一个连接上逐表读取，表多时往返次数与表数相同
+	 *
+	 * @param pkNames 表名 -> 主键约束名
+	 * @return Map 表名 -> 索引列表，需要逐表读取时返回null
+	 */
+	private Map<String, List<IndexBean>> loadSchemaIndexes(DatabaseMetaData dbmd, String catalog, String schema, String tableName,
+														   Map<String, String> pkNames) {
+		if (null != tableName) {
+			return null;
+		}
+		Map<String, Map<String, IndexBean>> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		ResultSet rs = null;
+		try {
+			rs = dbmd.getIndexInfo(catalog, schema, null, false, true);
+			while (rs.next()) {
+				String indexName = rs.getString("INDEX_NAME");
+				String table = rs.getString("TABLE_NAME");
+				if (null == table || (null != indexName && indexName.equals(pkNames.get(table)))) {
+					continue;
+				}
+				this.addIndexColumn(result.computeIfAbsent(table, k -> new LinkedHashMap<>()), rs, false);
+			}
+		} catch (SQLException e) {
+			log.info("getIndexInfo不支持整个模式读取，改为逐表读取");
+			return null;
+		} finally {
+			this.closeObject(null, null, rs);
+		}
+		if (result.isEmpty()) {
+			//部分驱动对空表名返回空结果而不报错，无法区分是否没有索引
+			return null;
+		}
+		Map<String, List<IndexBean>> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (Map.Entry<String, Map<String, IndexBean>> entry : result.entrySet()) {
+			indexes.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+		}
+		return indexes;
+	}
+
+	/**
+	 * 读取单个表的索引(与主键约束同名的主键索引除外)
+	 *
+	 * @param pkName 主键约束名，没有主键时为null
+	 * @return List 索引列表
+	 */
+	private List<IndexBean> loadIndexes(DatabaseMetaData dbmd, String catalog, String schema, String tableName, String pkName) throws SQLException {
+		Map<String, IndexBean> indexMap = new LinkedHashMap<>();
+		ResultSet rs = null;
+		try {
+			rs = dbmd.getIndexInfo(catalog, schema, tableName, false, true);
+			while (rs.next()) {
+				String indexName = rs.getString("INDEX_NAME");
+				if (null != indexName && indexName.equals(pkName)) {
+					continue;
+				}
+				this.addIndexColumn(indexMap, rs, false);
+			}
+		} finally {
+			this.closeObject(null, null, rs);
+		}
+		return new ArrayList<>(indexMap.values());
+	}
+
+	/**
+	 * 读取单个表的主键约束名
+	 *
+	 * @return String 没有主键时返回null
+	 */
+	private String loadPrimaryKeyName(DatabaseMetaData dbmd, String catalog, String schema, String tableName) throws SQLException {
+		ResultSet rs = null;
+		try {
+			rs = dbmd.getPrimaryKeys(catalog, schema, tableName);
+			return rs.next() ? rs.getString("PK_NAME") : null;
+		} finally {
+			this.closeObject(null, null, rs);
+		}
+	}
+
+	/**
+	 * 将索引结果集的当前行加入对应的索引，getIndexInfo和系统表查询共用
+	 *
+	 * @param indexMap 索引名 -> 索引
+	 * @param rs       结果集，包含INDEX_NAME、NON_UNIQUE、COLUMN_NAME、ASC_OR_DESC、FILTER_CONDITION
+	 * @param nativeRow 是否系统表查询，结果集另含SUB_PART、IS_INCLUDED
+	 * @return IndexBean 当前行所属的索引，统计信息行返回null
+	 */
+	private IndexBean addIndexColumn(Map<String, IndexBean> indexMap, ResultSet rs, boolean nativeRow) throws SQLException {
+		String indexName = rs.getString("INDEX_NAME");
+		String columnName = rs.getString("COLUMN_NAME");
+		//统计信息行没有索引名
+		if (null == indexName || null == columnName) {
+			return null;
+		}
+		IndexBean indexBean = indexMap.get(indexName);
+		if (null == indexBean) {
+			indexBean = new IndexBean();
+			indexBean.setIndexName(indexName);
+			indexBean.setIsUnique(!rs.getBoolean("NON_UNIQUE"));
+			indexBean.setFilterCondition(rs.getString("FILTER_CONDITION"));
+			indexMap.put(indexName, indexBean);
+		}
+		if (nativeRow && rs.getBoolean("IS_INCLUDED")) {
+			indexBean.getIncludeList().add(columnName);
+			return indexBean;
+		}
+		indexBean.getColumnList().add(columnName);
+		indexBean.getDescList().add("D".equalsIgnoreCase(rs.getString("ASC_OR_DESC")));
+		Integer prefix = null;
+		if (nativeRow) {
+			prefix = rs.getInt("SUB_PART");
+			if (rs.wasNull()) {
+				prefix = null;
+			}
+		}
+		indexBean.getPrefixList().add(prefix);
+		return indexBean;
+	}
+
+	/**
+	 * 将getColumns结果集的当前行转换为列描述
+	 *
+	 * @param rs     getColumns结果集
+	 * @param pkList 主键列名
+	 * @return ColumnBean 列描述
+	 */
+	private ColumnBean buildColumnBean(ResultSet rs, Set<String> pkList) throws SQLException {
+		ColumnBean columnBean = new ColumnBean();
+
+		// 是否主键 0：不是 1：是
+		columnBean.setIsPk(pkList.contains(rs.getString("COLUMN_NAME")));
+
+		//列名
+		columnBean.setColumnName(rs.getString("COLUMN_NAME"));
+		//对应的java.sql.Types类型及名字
+		columnBean.setColumnType(rs.getInt("DATA_TYPE"));
+		columnBean.setColumnTypeName(getTypeById(rs.getInt("DATA_TYPE")));
+		//列宽度和精度
+		columnBean.setColumnSize(rs.getInt("COLUMN_SIZE"));
+		columnBean.setDecimalDigits(rs.getInt("DECIMAL_DIGITS"));
+		//是否允许使用NULL（0：否 1：是）
+		columnBean.setIsNullable("0".equals(rs.getString("NULLABLE")));
+		//描述列的注释（可能为null）
+		columnBean.setRemark((rs.getString("REMARKS") == null) ? "" : rs.getString("REMARKS"));
+		//默认值
+		columnBean.setDefaultValue(this.handleDefaultValue(rs.getString("COLUMN_DEF")));
+		return columnBean;
+	}
+
+	/**
+	 * 处理列的默认值：null转为空串，去掉PostgreSQL的类型转换后缀
+	 *
+	 * @param defaultValue 元数据中的默认值
+	 * @return String 默认值
+	 */
+	protected String handleDefaultValue(String defaultValue) {
+		if (null == defaultValue) {
+			return "";
+		}
+		if (defaultValue.contains("::")) {
+			int end = defaultValue.lastIndexOf("::");
+			defaultValue = defaultValue.substring(1, end - 1);
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * 使用系统表查询时的数据表SQL，参数依次为模式、表名、表名(表名为null时查询整个模式)，
+	 * 结果列为TABLE_NAME、TABLE_TYPE(TABLE或VIEW)、REMARKS
+	 * 返回null时使用DatabaseMetaData；SQL文本固定，开启PreparedStatement缓存后在同一连接上复用
+	 *
+	 * @return String SQL
+	 */
+	protected String handleTablesSql() {
+		return null;
+	}
+
+	/**
+	 * 使用系统表查询时的列SQL，参数同handleTablesSql，结果列包含TABLE_NAME，按表名和列顺序排序，
+	 * 每行由handleNativeColumn转换；返回null时使用DatabaseMetaData
+	 *
+	 * @return String SQL
+	 */
+	protected String handleColumnsSql() {
+		return null;
+	}
+
+	/**
+	 * 把列SQL结果集的当前行转换为列描述，主键标记由调用方设置
+	 *
+	 * @param rs 列SQL结果集
+	 * @return ColumnBean 列描述
+	 * @throws SQLException SQL异常
+	 */
+	protected ColumnBean handleNativeColumn(ResultSet rs) throws SQLException {
+		return this.buildColumnBean(rs, new HashSet<>());
+	}
+
+	/**
+	 * 使用系统表查询时的主键SQL，参数同handleTablesSql，结果列为TABLE_NAME、COLUMN_NAME、KEY_SEQ、PK_NAME
+	 *
+	 * @return String SQL，返回null时使用DatabaseMetaData
+	 */
+	protected String handlePrimaryKeysSql() {
+		return null;
+	}
+
+	/**
+	 * 使用系统表查询时的索引SQL，参数同handleTablesSql，不含主键索引，结果列为TABLE_NAME、INDEX_NAME、NON_UNIQUE、
+	 * COLUMN_NAME(表达式列以括号包裹)、ASC_OR_DESC(A或D)、FILTER_CONDITION、INDEX_TYPE、SUB_PART(前缀长度，可为NULL)、
+	 * IS_INCLUDED(是否INCLUDE列)，按表名、索引名和索引中的列顺序排序
+	 *
+	 * @return String SQL，返回null时使用DatabaseMetaData
+	 */
+	protected String handleIndexesSql() {
+		return null;
+	}
+
+	/**
+	 * 使用系统表判断数据表是否存在的SQL，参数为模式和placeholders中的表名，结果列为TABLE_NAME，只返回数据表
+	 *
+	 * @param placeholders 逗号分隔的参数占位符，拼接到IN中
+	 * @return String SQL，返回null时使用DatabaseMetaData
+	 */
+	protected String handleTableExistsSql(String placeholders) {
+		return null;
+	}
+
+	/**
+	 * 使用系统表查询时的模式SQL，无参数，结果列为TABLE_SCHEM
+	 *
+	 * @return String SQL，返回null时使用DatabaseMetaData
+	 */
+	protected String handleSchemasSql() {
+		return null;
+	}
+
+	/**
+	 * 准备系统表查询，设置模式和表名参数
+	 */
+	private PreparedStatement prepareNative(Connection conn, String sql, String schema, String tableName) throws SQLException {
+		PreparedStatement psmt = conn.prepareStatement(sql);
+		psmt.setString(1, this.handleSchema(schema));
+		psmt.setString(2, tableName);
+		psmt.setString(3, tableName);
+		return psmt;
+	}
+
+	/**
+	 * 通过系统表加载表结构，与loadCatalog的DatabaseMetaData路径结果一致
+	 */
+	private CatelogBean loadNativeCatalog(Connection conn, String schema, String tableName) throws SQLException {
+		CatelogBean catelogBean = new CatelogBean(schema);
+		for (TableBean tableBean : this.loadNativeTables(conn, schema, tableName)) {
+			catelogBean.addTable(tableBean);
+		}
+		if (catelogBean.getTableList().isEmpty()) {
+			return catelogBean;
+		}
+
+		Map<String, Set<String>> pkMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		Map<String, String> pkNames = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (Map<String, Object> pk : this.loadNativePrimaryKeys(conn, schema, tableName)) {
+			pkMap.computeIfAbsent((String) pk.get("TABLE_NAME"), k -> new HashSet<>()).add((String) pk.get("COLUMN_NAME"));
+			pkNames.put((String) pk.get("TABLE_NAME"), (String) pk.get("PK_NAME"));
+		}
+		for (Map.Entry<String, List<ColumnBean>> entry : this.loadNativeColumns(conn, schema, tableName).entrySet()) {
+			TableBean tableBean = catelogBean.getTable(entry.getKey());
+			if (null == tableBean) {
+				continue;
+			}
+			Set<String> pkList = pkMap.getOrDefault(entry.getKey(), Collections.emptySet());
+			for (ColumnBean columnBean : entry.getValue()) {
+				columnBean.setIsPk(pkList.contains(columnBean.getColumnName()));
+				tableBean.getColumnList().add(columnBean);
+			}
+		}
+
+		if (null != this.handleIndexesSql()) {
+			for (Map.Entry<String, List<IndexBean>> entry : this.loadNativeIndexes(conn, schema, tableName).entrySet()) {
+				TableBean tableBean = catelogBean.getTable(entry.getKey());
+				if (null != tableBean && "TABLE".equalsIgnoreCase(tableBean.getType())) {
+					tableBean.setIndexList(entry.getValue());
+				}
+			}
+		} else {
+			DatabaseMetaData dbmd = conn.getMetaData();
+			for (TableBean tableBean : catelogBean.getTableList()) {
+				if ("TABLE".equalsIgnoreCase(tableBean.getType())) {
+					tableBean.setIndexList(this.loadIndexes(dbmd, conn.getCatalog(), schema, tableBean.getTableName(),
+						pkNames.get(tableBean.getTableName())));
+				}
+			}
+		}
+		return catelogBean;
+	}
+
+	private List<TableBean> loadNativeTables(Connection conn, String schema, String tableName) throws SQLException {
+		List<TableBean> result = new ArrayList<>();
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			psmt = this.prepareNative(conn, this.handleTablesSql(), schema, tableName);
+			rs = psmt.executeQuery();
+			while (rs.next()) {
+				TableBean tableBean = new TableBean();
+				tableBean.setTableName(rs.getString("TABLE_NAME"));
+				tableBean.setType(rs.getString("TABLE_TYPE"));
+				tableBean.setRemark(rs.getString("REMARKS"));
+				tableBean.setColumnList(new ArrayList<>());
+				tableBean.setIndexList(new ArrayList<>());
+				result.add(tableBean);
+			}
+		} finally {
+			this.closeObject(null, psmt, rs);
+		}
+		return result;
+	}
+
+	/**
+	 * @return Map 表名 -> 列描述，按查询顺序
+	 */
+	private Map<String, List<ColumnBean>> loadNativeColumns(Connection conn, String schema, String tableName) throws SQLException {
+		Map<String, List<ColumnBean>> result = new LinkedHashMap<>();
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			psmt = this.prepareNative(conn, this.handleColumnsSql(), schema, tableName);
+			rs = psmt.executeQuery();
+			while (rs.next()) {
+				result.computeIfAbsent(rs.getString("TABLE_NAME"), k -> new ArrayList<>()).add(this.handleNativeColumn(rs));
+			}
+		} finally {
+			this.closeObject(null, psmt, rs);
+		}
+		return result;
+	}
+
+	/**
+	 * @return List 与queryTablePrimaryKey相同格式的主键信息
+	 */
+	private List<Map<String, Object>> loadNativePrimaryKeys(Connection conn, String schema, String tableName) throws SQLException {
+		List<Map<String, Object>> result = new ArrayList<>();
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			psmt = this.prepareNative(conn, this.handlePrimaryKeysSql(), schema, tableName);
+			rs = psmt.executeQuery();
+			while (rs.next()) {
+				Map<String, Object> resultMap = new HashMap<>();
+				resultMap.put("TABLE_SCHEM", this.handleSchema(schema));
+				resultMap.put("TABLE_NAME", rs.getString("TABLE_NAME"));
+				resultMap.put("COLUMN_NAME", rs.getString("COLUMN_NAME"));
+				resultMap.put("KEY_SEQ", rs.getString("KEY_SEQ"));
+				resultMap.put("PK_NAME", rs.getString("PK_NAME"));
+				result.add(resultMap);
+			}
+		} finally {
+			this.closeObject(null, psmt, rs);
+		}
+		return result;
+	}
+
+	/**
+	 * @return Map 表名 -> 索引列表
+	 */
+	private Map<String, List<IndexBean>> loadNativeIndexes(Connection conn, String schema, String tableName) throws SQLException {
+		Map<String, Map<String, IndexBean>> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		try {
+			psmt = this.prepareNative(conn, this.handleIndexesSql(), schema, tableName);
+			rs = psmt.executeQuery();
+			while (rs.next()) {
+				IndexBean indexBean = this.addIndexColumn(
+					result.computeIfAbsent(rs.getString("TABLE_NAME"), k -> new LinkedHashMap<>()), rs, true);
+				if (null != indexBean && null == indexBean.getIndexType()) {
+					indexBean.setIndexType(rs.getString("INDEX_TYPE"));
+				}
+			}
+		} finally {
+			this.closeObject(null, psmt, rs);
+		}
+		Map<String, List<IndexBean>> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (Map.Entry<String, Map<String, IndexBean>> entry : result.entrySet()) {
+			indexes.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+		}
+		return indexes;
 	}
 }
@@ -1,13 +1,27 @@
 package com.inspur.rdms.adapter;
 
 import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.IndexBean;
 import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.diff.ColumnChange;
+import com.inspur.rdms.impl.RowWriterImpl;
+import com.inspur.rdms.pipe.InsertRowWriter;
+import com.inspur.rdms.pipe.MysqlLoadDataRowWriter;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * MySQL数据转换类型转换具体实现
@@ -18,6 +32,37 @@ import java.util.Map;
 public class MysqlAdapter extends AbstractDatabase {
 	private static Logger log = LoggerFactory.getLogger(MysqlAdapter.class);
 	private static final String MYSQL_DRIVER = "com.mysql.cj.jdbc.Driver";
+	/**
+	 * information_schema元数据查询，参数为数据库名、表名、表名(表名为null时查询整个数据库)
+	 */
+	private static final String TABLES_SQL = "SELECT TABLE_NAME AS TABLE_NAME,"
+		+ " CASE WHEN TABLE_TYPE = 'VIEW' THEN 'VIEW' ELSE 'TABLE' END AS TABLE_TYPE, TABLE_COMMENT AS REMARKS"
+		+ " FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND (? IS NULL OR TABLE_NAME = ?) ORDER BY TABLE_NAME";
+	private static final String COLUMNS_SQL = "SELECT TABLE_NAME AS TABLE_NAME, COLUMN_NAME AS COLUMN_NAME,"
+		+ " DATA_TYPE AS DATA_TYPE, COLUMN_TYPE AS COLUMN_TYPE, CHARACTER_MAXIMUM_LENGTH AS CHAR_LENGTH,"
+		+ " NUMERIC_PRECISION AS NUMERIC_PRECISION, NUMERIC_SCALE AS NUMERIC_SCALE, DATETIME_PRECISION AS DATETIME_PRECISION,"
+		+ " IS_NULLABLE AS IS_NULLABLE, COLUMN_COMMENT AS REMARKS, COLUMN_DEFAULT AS COLUMN_DEF,"
+		+ " EXTRA AS EXTRA, COLLATION_NAME AS COLLATION_NAME"
+		+ " FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? AND (? IS NULL OR TABLE_NAME = ?)"
+		+ " ORDER BY TABLE_NAME, ORDINAL_POSITION";
+	private static final String PRIMARY_KEYS_SQL = "SELECT TABLE_NAME AS TABLE_NAME, COLUMN_NAME AS COLUMN_NAME,"
+		+ " ORDINAL_POSITION AS KEY_SEQ, CONSTRAINT_NAME AS PK_NAME FROM information_schema.KEY_COLUMN_USAGE"
+		+ " WHERE TABLE_SCHEMA = ? AND CONSTRAINT_NAME = 'PRIMARY' AND (? IS NULL OR TABLE_NAME = ?)"
+		+ " ORDER BY TABLE_NAME, ORDINAL_POSITION";
+	private static final String INDEXES_SQL = "SELECT TABLE_NAME AS TABLE_NAME, INDEX_NAME AS INDEX_NAME,"
+		+ " NON_UNIQUE AS NON_UNIQUE, COLUMN_NAME AS COLUMN_NAME, COLLATION AS ASC_OR_DESC, NULL AS FILTER_CONDITION,"
+		+ " INDEX_TYPE AS INDEX_TYPE, SUB_PART AS SUB_PART, 0 AS IS_INCLUDED FROM information_schema.STATISTICS"
+		+ " WHERE TABLE_SCHEMA = ? AND INDEX_NAME <> 'PRIMARY' AND (? IS NULL OR TABLE_NAME = ?)"
+		+ " ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+	/**
+	 * EXTRA中的ON UPDATE子句，如on update CURRENT_TIMESTAMP(3)
+	 */
+	private static final Pattern ON_UPDATE_PATTERN = Pattern.compile("on update (\\S+)");
+	/**
+	 * 批量写入是否使用LOAD DATA LOCAL INFILE，false时使用批量INSERT；
+	 * 还需要连接池配置allowLoadLocalInfile(如PoolConfig.bulkCopyTarget())，在连接池创建前设置
+	 */
+	private boolean loadDataEnabled = true;
 
 	public MysqlAdapter(String databaseName, String host, int port, String username, String password, String jdbcType) {
 		super(databaseName, host, port, username, password, jdbcType);
@@ -29,9 +74,33 @@ public class MysqlAdapter extends AbstractDatabase {
 		String jdbc = this.getHost() + ":" + this.getPort();
 		jdbc = "jdbc:mysql://" + jdbc + "/" + this.getDatabaseName();
 		jdbc += "?useUnicode=true&characterEncoding=UTF8&autoReconnect=true&failOverReadOnly=false&useSSL=false&allowMultiQueries=true";
+		//批量INSERT改写为多行VALUES
+		jdbc += "&rewriteBatchedStatements=true";
 		return jdbc;
 	}
 
+	/**
+	 * 只有开启loadDataEnabled且连接池配置允许时才打开allowLoadLocalInfile：
+	 * 打开后服务端可以要求客户端发送任意本地文件，源库、元数据和探测连接都不打开
+	 */
+	@Override
+	protected String handlePoolUrl(String jdbcUrl) {
+		return this.isLoadDataAllowed() ? jdbcUrl + "&allowLoadLocalInfile=true" : jdbcUrl;
+	}
+
+	private boolean isLoadDataAllowed() {
+		return this.loadDataEnabled && this.getPoolConfig().isAllowLoadLocalInfile();
+	}
+
+	/**
+	 * Connector/J的超时属性单位为毫秒
+	 */
+	@Override
+	protected void handleTimeout(Properties info, int timeoutMillis) {
+		info.setProperty("connectTimeout", String.valueOf(timeoutMillis));
+		info.setProperty("socketTimeout", String.valueOf(timeoutMillis));
+	}
+
 	@Override
 	public String handleDriver() {
 		return MYSQL_DRIVER;
@@ -78,13 +147,218 @@ public class MysqlAdapter extends AbstractDatabase {
 	}
 
 	/**
-	 * 获取建表语句
+	 * Connector/J默认把整个结果集读入内存，fetchSize为Integer.MIN_VALUE时逐行流式读取
+	 * 未使用useCursorFetch：它会强制服务端预处理，与allowMultiQueries的多语句执行冲突
+	 */
+	@Override
+	public Statement createStreamingStatement(Connection conn, int fetchSize) throws SQLException {
+		Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		stmt.setFetchSize(Integer.MIN_VALUE);
+		return stmt;
+	}
+
+	/**
+	 * 流式结果集关闭时会读完剩余的所有行，大表可能要等很久；先取消查询(KILL QUERY)，服务端停止发送后再关闭
+	 */
+	@Override
+	public void cancelStreamingRead(Statement stmt) {
+		if (null == stmt) {
+			return;
+		}
+		try {
+			stmt.cancel();
+		} catch (SQLException e) {
+			log.info("取消流式读取失败", e);
+		}
+	}
+
+	/**
+	 * 连接池允许时使用LOAD DATA LOCAL INFILE批量写入，不可用时退回批量INSERT
+	 *
+	 * @param tableBean 目标表结构
+	 * @return RowWriterImpl 数据写入器
+	 */
+	@Override
+	public RowWriterImpl createRowWriter(TableBean tableBean) {
+		if (this.isLoadDataAllowed()) {
+			return new MysqlLoadDataRowWriter(this, tableBean);
+		}
+		return new InsertRowWriter(this, tableBean);
+	}
+
+	public boolean isLoadDataEnabled() {
+		return loadDataEnabled;
+	}
+
+	public void setLoadDataEnabled(boolean loadDataEnabled) {
+		this.loadDataEnabled = loadDataEnabled;
+	}
+
+	/**
+	 * information_schema.TABLES中的TABLE_ROWS对InnoDB是估算值，
+	 * MySQL 8默认缓存统计信息(information_schema_stats_expiry)，最多可能滞后一天
+	 */
+	@Override
+	protected String handleTableStatsSql() {
+		return "SELECT TABLE_NAME, TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH FROM information_schema.TABLES"
+			+ " WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE'";
+	}
+
+	/**
+	 * Connector/J的元数据对每张表执行SHOW语句，这里整个数据库一次查询information_schema
+	 * getSchemas在Connector/J中不访问服务器，模式查询仍使用DatabaseMetaData
+	 */
+	@Override
+	protected String handleTablesSql() {
+		return TABLES_SQL;
+	}
+
+	@Override
+	protected String handleColumnsSql() {
+		return COLUMNS_SQL;
+	}
+
+	@Override
+	protected String handlePrimaryKeysSql() {
+		return PRIMARY_KEYS_SQL;
+	}
+
+	@Override
+	protected String handleIndexesSql() {
+		return INDEXES_SQL;
+	}
+
+	@Override
+	protected String handleTableExistsSql(String placeholders) {
+		return "SELECT TABLE_NAME AS TABLE_NAME FROM information_schema.TABLES"
+			+ " WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' AND TABLE_NAME IN (" + placeholders + ")";
+	}
+
+	/**
+	 * 按Connector/J的规则转换类型、列宽度和精度
+	 */
+	@Override
+	protected ColumnBean handleNativeColumn(ResultSet rs) throws SQLException {
+		String dataType = rs.getString("DATA_TYPE").toLowerCase();
+		String columnType = rs.getString("COLUMN_TYPE").toLowerCase();
+		int sqlType = mysqlTypeToSqlType(dataType, columnType);
+		long columnSize = rs.getLong("CHAR_LENGTH");
+		if (rs.wasNull()) {
+			columnSize = rs.getLong("NUMERIC_PRECISION");
+		}
+		int fsp = rs.getInt("DATETIME_PRECISION");
+		switch (dataType) {
+			case "date":
+				columnSize = 10;
+				break;
+			case "datetime":
+			case "timestamp":
+				columnSize = 19 + (fsp > 0 ? fsp + 1 : 0);
+				break;
+			case "time":
+				columnSize = 8 + (fsp > 0 ? fsp + 1 : 0);
+				break;
+			case "year":
+				columnSize = 4;
+				break;
+			default:
+				if (Types.BIT == sqlType && columnType.startsWith("tinyint(1)")) {
+					columnSize = 1;
+				}
+		}
+
+		ColumnBean columnBean = new ColumnBean();
+		columnBean.setColumnName(rs.getString("COLUMN_NAME"));
+		columnBean.setColumnType(sqlType);
+		columnBean.setColumnTypeName(this.getTypeById(sqlType));
+		columnBean.setColumnSize((int) Math.min(Integer.MAX_VALUE, columnSize));
+		columnBean.setDecimalDigits(rs.getInt("NUMERIC_SCALE"));
+		//与getColumns路径一致：NULLABLE为0(NOT NULL)时为true
+		columnBean.setIsNullable("NO".equalsIgnoreCase(rs.getString("IS_NULLABLE")));
+		columnBean.setRemark(null == rs.getString("REMARKS") ? "" : rs.getString("REMARKS"));
+		columnBean.setDefaultValue(this.handleDefaultValue(rs.getString("COLUMN_DEF")));
+		columnBean.setNativeType(rs.getString("COLUMN_TYPE"));
+		columnBean.setExtra(rs.getString("EXTRA"));
+		columnBean.setCollation(rs.getString("COLLATION_NAME"));
+		return columnBean;
+	}
+
+	/**
+	 * MySQL类型到java.sql.Types，与Connector/J的MysqlType一致(tinyInt1isBit默认开启)
+	 */
+	private static int mysqlTypeToSqlType(String dataType, String columnType) {
+		switch (dataType) {
+			case "tinyint":
+				return columnType.startsWith("tinyint(1)") ? Types.BIT : Types.TINYINT;
+			case "smallint":
+				return Types.SMALLINT;
+			case "mediumint":
+			case "int":
+			case "integer":
+				return Types.INTEGER;
+			case "bigint":
+				return Types.BIGINT;
+			case "decimal":
+			case "numeric":
+				return Types.DECIMAL;
+			case "float":
+				return Types.REAL;
+			case "double":
+			case "real":
+				return Types.DOUBLE;
+			case "bit":
+				return Types.BIT;
+			case "char":
+			case "enum":
+			case "set":
+				return Types.CHAR;
+			case "varchar":
+			case "tinytext":
+				return Types.VARCHAR;
+			case "text":
+			case "mediumtext":
+			case "longtext":
+			case "json":
+				return Types.LONGVARCHAR;
+			case "binary":
+				return Types.BINARY;
+			case "varbinary":
+			case "tinyblob":
+				return Types.VARBINARY;
+			case "blob":
+			case "mediumblob":
+			case "longblob":
+				return Types.LONGVARBINARY;
+			case "date":
+			case "year":
+				return Types.DATE;
+			case "time":
+				return Types.TIME;
+			case "datetime":
+			case "timestamp":
+				return Types.TIMESTAMP;
+			default:
+				return Types.BINARY;
+		}
+	}
+
+	/**
+	 * MySQL标识符使用反引号
+	 */
+	@Override
+	public String handleQuote(String identifier) {
+		return "`" + identifier.replace("`", "``") + "`";
+	}
+
+	/**
+	 * 获取建表语句，批量加载只调整写入会话，建表语句不变
 	 *
 	 * @param tableBean
+	 * @param bulkLoad
 	 * @return
 	 */
 	@Override
-	public String exportSql(TableBean tableBean) {
+	public String exportSql(TableBean tableBean, boolean bulkLoad) {
 
 		StringBuffer sb = new StringBuffer();
 
@@ -129,6 +403,186 @@ public class MysqlAdapter extends AbstractDatabase {
 		return sb.toString();
 	}
 
+	/**
+	 * 批量加载时关闭唯一性检查、外键检查和binlog，sql_log_bin需要SUPER权限，没有权限时跳过
+	 * 恢复为全局值(DEFAULT)
+	 */
+	@Override
+	protected Map<String, String> handleBulkLoadSql() {
+		Map<String, String> sql = new LinkedHashMap<>();
+		sql.put("SET SESSION unique_checks = 0", "SET SESSION unique_checks = DEFAULT");
+		sql.put("SET SESSION foreign_key_checks = 0", "SET SESSION foreign_key_checks = DEFAULT");
+		sql.put("SET SESSION sql_log_bin = 0", "SET SESSION sql_log_bin = DEFAULT");
+		return sql;
+	}
+
+	/**
+	 * MySQL修改类型和注释需要用MODIFY COLUMN重新给出完整的列定义，其余属性取目标库中的当前值，
+	 * 无法还原当前列定义时不生成MODIFY，避免丢失auto_increment等属性；新增列的注释直接写在ADD COLUMN中
+	 */
+	@Override
+	protected String handleAlterSql(String tableName, ColumnChange change) {
+		String prefix = "ALTER TABLE " + this.handleTableName(this.handleSchema(null), tableName) + " ";
+		String column = this.handleQuote(change.getColumnName());
+		switch (change.getChangeType()) {
+			case ADD_COLUMN:
+				return prefix + "ADD COLUMN " + column + " " + this.handleColumnDefinition(change.getColumn());
+			case ALTER_TYPE:
+				String widened = this.handleModifyDefinition(change.getColumn(), false);
+				return null == widened ? null : prefix + "MODIFY COLUMN " + column + " " + widened;
+			case COMMENT:
+				if (null == change.getCurrent()) {
+					return null;
+				}
+				ColumnBean current = change.getCurrent();
+				ColumnBean modified = new ColumnBean(current.getIsPk(), current.getColumnName(), current.getColumnType(),
+					current.getColumnTypeName(), current.getColumnSize(), current.getDecimalDigits(), current.getIsNullable(),
+					current.getDefaultValue(), change.getColumn().getRemark(), current.getNativeType(), current.getExtra(),
+					current.getCollation());
+				String commented = this.handleModifyDefinition(modified, true);
+				return null == commented ? null : prefix + "MODIFY COLUMN " + column + " " + commented;
+			default:
+				return super.handleAlterSql(tableName, change);
+		}
+	}
+
+	/**
+	 * 列类型、可空、默认值和注释，isNullable为true表示NOT NULL(与元数据读取一致)
+	 */
+	private String handleColumnDefinition(ColumnBean column) {
+		StringBuilder sb = new StringBuilder(this.handleColumnType(column));
+		if (Boolean.TRUE.equals(column.getIsNullable())) {
+			sb.append(" NOT NULL");
+		}
+		if (StringUtils.isNotEmpty(column.getDefaultValue())) {
+			sb.append(" DEFAULT ").append(this.handleDefaultLiteral(column.getDefaultValue()));
+		}
+		if (StringUtils.isNotEmpty(column.getRemark())) {
+			sb.append(" COMMENT '").append(column.getRemark().replace("'", "''")).append("'");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 已存在列的MODIFY COLUMN定义：类型不变时直接使用COLUMN_TYPE，扩大类型时保留unsigned和zerofill，
+	 * 并保留排序规则、auto_increment、on update和invisible
+	 * 没有读取到COLUMN_TYPE(未使用information_schema)或是生成列时无法还原，返回null
+	 *
+	 * @param column   列定义，基于目标库中的当前列
+	 * @param sameType 类型是否与当前列相同
+	 */
+	private String handleModifyDefinition(ColumnBean column, boolean sameType) {
+		String extra = StringUtils.defaultString(column.getExtra()).toLowerCase();
+		if (null == column.getNativeType() || extra.contains("virtual generated") || extra.contains("stored generated")) {
+			log.info("无法还原列{}的完整定义，不生成MODIFY COLUMN", column.getColumnName());
+			return null;
+		}
+		StringBuilder sb = new StringBuilder();
+		if (sameType) {
+			sb.append(column.getNativeType());
+		} else {
+			sb.append(this.handleColumnType(column));
+			String nativeType = column.getNativeType().toLowerCase();
+			if (nativeType.contains("unsigned")) {
+				sb.append(" UNSIGNED");
+			}
+			if (nativeType.contains("zerofill")) {
+				sb.append(" ZEROFILL");
+			}
+		}
+		if (StringUtils.isNotEmpty(column.getCollation())) {
+			sb.append(" COLLATE ").append(column.getCollation());
+		}
+		if (Boolean.TRUE.equals(column.getIsNullable())) {
+			sb.append(" NOT NULL");
+		}
+		if (StringUtils.isNotEmpty(column.getDefaultValue())) {
+			String value = column.getDefaultValue().trim();
+			//8.0.13起的表达式默认值需要加括号，CURRENT_TIMESTAMP除外
+			boolean expression = extra.contains("default_generated") && !value.toUpperCase().startsWith("CURRENT_");
+			sb.append(" DEFAULT ").append(expression ? "(" + value + ")" : this.handleDefaultLiteral(value));
+		}
+		if (extra.contains("auto_increment")) {
+			sb.append(" AUTO_INCREMENT");
+		}
+		Matcher onUpdate = ON_UPDATE_PATTERN.matcher(extra);
+		if (onUpdate.find()) {
+			sb.append(" ON UPDATE ").append(onUpdate.group(1).toUpperCase());
+		}
+		if (extra.contains("invisible")) {
+			sb.append(" INVISIBLE");
+		}
+		if (StringUtils.isNotEmpty(column.getRemark())) {
+			sb.append(" COMMENT '").append(column.getRemark().replace("'", "''")).append("'");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 与exportSql的类型规则一致，长度超过65535的列使用TEXT
+	 */
+	@Override
+	protected String handleColumnType(ColumnBean column) {
+		String columnType = java2db(column.getColumnTypeName().toUpperCase());
+		if ((column.getColumnSize() > 0) && (column.getDecimalDigits() > 0)) {
+			return columnType + "(" + column.getColumnSize() + "," + column.getDecimalDigits() + ")";
+		}
+		if (column.getColumnSize() > 65535) {
+			return "TEXT";
+		}
+		if (column.getColumnSize() > 0 && (columnType.contains("INT") || columnType.contains("CHAR"))) {
+			return columnType + "(" + column.getColumnSize() + ")";
+		}
+		return columnType;
+	}
+
+	/**
+	 * InnoDB：8.0.12起ADD COLUMN为INSTANT，8.0.29起DROP COLUMN为INSTANT；
+	 * varchar加长且长度字节数不变(都小于或都不小于256字节，按utf8mb4每字符4字节计算)时原地修改，其它类型修改需要复制表
+	 */
+	@Override
+	protected boolean handleRewrite(ColumnChange change) {
+		switch (change.getChangeType()) {
+			case ADD_COLUMN:
+				return !this.isServerVersionAtLeast(8, 0, 12);
+			case DROP_COLUMN:
+				return !this.isServerVersionAtLeast(8, 0, 29);
+			case ALTER_TYPE:
+				ColumnBean current = change.getCurrent();
+				ColumnBean column = change.getColumn();
+				if (Types.VARCHAR == current.getColumnType() && Types.VARCHAR == column.getColumnType()) {
+					return (current.getColumnSize() * 4L < 256) != (column.getColumnSize() * 4L < 256);
+				}
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * MySQL不支持部分索引；表达式和gin等索引方法来自其它数据库，无法转换，均返回null
+	 * InnoDB默认在线建索引，concurrently参数忽略；前缀索引保留前缀长度，INCLUDE列不支持，只创建键列
+	 */
+	@Override
+	public String exportIndexSql(TableBean tableBean, IndexBean indexBean, boolean concurrently) {
+		if (StringUtils.isNotBlank(indexBean.getFilterCondition()) || indexBean.hasExpression()) {
+			return null;
+		}
+		String method = null == indexBean.getIndexType() ? "BTREE" : indexBean.getIndexType().toUpperCase();
+		StringBuilder sb = new StringBuilder("CREATE ");
+		if ("FULLTEXT".equals(method) || "SPATIAL".equals(method)) {
+			sb.append(method).append(" ");
+		} else if (!"BTREE".equals(method) && !"HASH".equals(method)) {
+			return null;
+		} else if (Boolean.TRUE.equals(indexBean.getIsUnique())) {
+			sb.append("UNIQUE ");
+		}
+		sb.append("INDEX ").append(this.handleQuote(indexBean.getIndexName()))
+			.append(" ON ").append(this.handleTableName(this.handleSchema(null), tableBean.getTableName()))
+			.append(" (").append(this.handleIndexColumns(indexBean, true)).append(")");
+		return sb.toString();
+	}
+
 	@Override
 	public String java2db(String dataType) {
 		switch (dataType) {
@@ -179,8 +633,17 @@ public class MysqlAdapter extends AbstractDatabase {
 			log.info(tableBean.getTableName() + " 数据表已经存在");
 			return false;
 		}
-		String sql = exportSql(tableBean);
-		executeSql(sql);
+		createTable(tableBean);
 		return true;
 	}
+
+	@Override
+	public void createTable(TableBean tableBean, boolean bulkLoad) {
+		String sql = exportSql(tableBean, bulkLoad);
+		try {
+			executeSql(sql);
+		} finally {
+			invalidateTable(tableBean.getTableName());
+		}
+	}
 }
@@ -1,12 +1,34 @@
 package com.inspur.rdms.adapter;
 
 import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.IndexBean;
 import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.diff.ColumnChange;
+import com.inspur.rdms.diff.TableDiffer;
+import com.inspur.rdms.diff.TableFingerprint;
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.exception.ExceptionEnum;
+import com.inspur.rdms.impl.RowWriterImpl;
+import com.inspur.rdms.pipe.CopyFormatEnum;
+import com.inspur.rdms.pipe.PgCopyRowWriter;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 /**
  * PostgreSQL数据转换类型转换具体实现
@@ -17,6 +39,82 @@ import java.util.Map;
 public class PostgresqlAdapter extends AbstractDatabase {
 	private static Logger log = LoggerFactory.getLogger(PostgresqlAdapter.class);
 	private static final String POSTGRESQL_DRIVER = "org.postgresql.Driver";
+	/**
+	 * 流式读取时默认的fetchSize
+	 */
+	private static final int DEFAULT_FETCH_SIZE = 1000;
+	/**
+	 * 系统表元数据查询，参数为模式、表名、表名(表名为null时查询整个模式)
+	 */
+	private static final String TABLES_SQL = "SELECT c.relname AS TABLE_NAME,"
+		+ " CASE WHEN c.relkind IN ('r', 'p') THEN 'TABLE' ELSE 'VIEW' END AS TABLE_TYPE, d.description AS REMARKS"
+		+ " FROM pg_catalog.pg_class c JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+		+ " LEFT JOIN pg_catalog.pg_description d ON d.objoid = c.oid AND d.objsubid = 0"
+		+ " AND d.classoid = 'pg_catalog.pg_class'::regclass"
+		+ " WHERE n.nspname = ? AND c.relkind IN ('r', 'p', 'v') AND (CAST(? AS text) IS NULL OR c.relname = ?)"
+		+ " ORDER BY c.relname";
+	private static final String COLUMNS_SQL = "SELECT c.relname AS TABLE_NAME, a.attname AS COLUMN_NAME,"
+		+ " COALESCE(bt.typname, t.typname) AS TYPE_NAME, CASE WHEN t.typtype = 'd' THEN t.typtypmod ELSE a.atttypmod END AS TYPE_MOD,"
+		+ " a.attnotnull AS NOT_NULL, d.description AS REMARKS, pg_catalog.pg_get_expr(def.adbin, def.adrelid) AS COLUMN_DEF"
+		+ " FROM pg_catalog.pg_attribute a JOIN pg_catalog.pg_class c ON c.oid = a.attrelid"
+		+ " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace JOIN pg_catalog.pg_type t ON t.oid = a.atttypid"
+		+ " LEFT JOIN pg_catalog.pg_type bt ON t.typtype = 'd' AND bt.oid = t.typbasetype"
+		+ " LEFT JOIN pg_catalog.pg_attrdef def ON def.adrelid = a.attrelid AND def.adnum = a.attnum"
+		+ " LEFT JOIN pg_catalog.pg_description d ON d.objoid = a.attrelid AND d.objsubid = a.attnum"
+		+ " AND d.classoid = 'pg_catalog.pg_class'::regclass"
+		+ " WHERE n.nspname = ? AND c.relkind IN ('r', 'p', 'v') AND a.attnum > 0 AND NOT a.attisdropped"
+		+ " AND (CAST(? AS text) IS NULL OR c.relname = ?) ORDER BY c.relname, a.attnum";
+	private static final String PRIMARY_KEYS_SQL = "SELECT c.relname AS TABLE_NAME, a.attname AS COLUMN_NAME,"
+		+ " k.n AS KEY_SEQ, ct.conname AS PK_NAME"
+		+ " FROM pg_catalog.pg_constraint ct JOIN pg_catalog.pg_class c ON c.oid = ct.conrelid"
+		+ " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+		+ " CROSS JOIN LATERAL unnest(ct.conkey) WITH ORDINALITY AS k(attnum, n)"
+		+ " JOIN pg_catalog.pg_attribute a ON a.attrelid = ct.conrelid AND a.attnum = k.attnum"
+		+ " WHERE ct.contype = 'p' AND n.nspname = ? AND (CAST(? AS text) IS NULL OR c.relname = ?)"
+		+ " ORDER BY c.relname, k.n";
+	/**
+	 * PostgreSQL 11起indkey中indnkeyatts之后为INCLUDE列
+	 */
+	private static final String INDEXES_SQL = indexesSql("x.indnkeyatts");
+	private static final String INDEXES_SQL_10 = indexesSql("x.indnatts");
+	/**
+	 * PostgreSQL标识符的最大字节数(NAMEDATALEN - 1)
+	 */
+	private static final int MAX_IDENTIFIER_BYTES = 63;
+	/**
+	 * reltuples不可用：从未分析(PG14起为-1)，或为0但表文件非空(PG14之前从未分析也是0)
+	 */
+	private static final String UNKNOWN_TUPLES = "(c.reltuples < 0 OR (c.reltuples = 0 AND pg_relation_size(c.oid) > 0))";
+	private static final String SCHEMAS_SQL = "SELECT nspname AS TABLE_SCHEM FROM pg_catalog.pg_namespace"
+		+ " WHERE nspname <> 'pg_toast' AND nspname !~ '^pg_temp_' AND nspname !~ '^pg_toast_temp_' ORDER BY nspname";
+	/**
+	 * 长度未限定的类型的列宽度，与pgjdbc一致
+	 */
+	private static final int UNKNOWN_LENGTH = Integer.MAX_VALUE;
+	/**
+	 * PostgreSQL内置的索引方法
+	 */
+	private static final Set<String> PG_INDEX_METHODS = new HashSet<>(Arrays.asList("btree", "hash", "gist", "spgist", "gin", "brin"));
+	/**
+	 * 批量写入时COPY的数据格式
+	 */
+	private CopyFormatEnum copyFormat = CopyFormatEnum.TEXT;
+
+	private static String indexesSql(String keyAttributes) {
+		return "SELECT c.relname AS TABLE_NAME, i.relname AS INDEX_NAME,"
+			+ " NOT x.indisunique AS NON_UNIQUE,"
+			+ " CASE WHEN k.attnum = 0 THEN '(' || pg_catalog.pg_get_indexdef(x.indexrelid, k.n::int, true) || ')' ELSE a.attname END AS COLUMN_NAME,"
+			+ " CASE WHEN x.indoption[k.n - 1] & 1 = 1 THEN 'D' ELSE 'A' END AS ASC_OR_DESC,"
+			+ " pg_catalog.pg_get_expr(x.indpred, x.indrelid, true) AS FILTER_CONDITION, am.amname AS INDEX_TYPE,"
+			+ " NULL::int AS SUB_PART, k.n > " + keyAttributes + " AS IS_INCLUDED"
+			+ " FROM pg_catalog.pg_index x JOIN pg_catalog.pg_class c ON c.oid = x.indrelid"
+			+ " JOIN pg_catalog.pg_class i ON i.oid = x.indexrelid JOIN pg_catalog.pg_am am ON am.oid = i.relam"
+			+ " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+			+ " CROSS JOIN LATERAL unnest(x.indkey) WITH ORDINALITY AS k(attnum, n)"
+			+ " LEFT JOIN pg_catalog.pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = k.attnum"
+			+ " WHERE NOT x.indisprimary AND n.nspname = ? AND (CAST(? AS text) IS NULL OR c.relname = ?)"
+			+ " ORDER BY c.relname, i.relname, k.n";
+	}
 
 	public PostgresqlAdapter(String databaseName, String host, int port, String username, String password, String jdbcType) {
 		super(databaseName, host, port, username, password, jdbcType);
@@ -33,6 +131,17 @@ public class PostgresqlAdapter extends AbstractDatabase {
 		return jdbc;
 	}
 
+	/**
+	 * pgjdbc的超时属性单位为秒
+	 */
+	@Override
+	protected void handleTimeout(Properties info, int timeoutMillis) {
+		String seconds = String.valueOf(Math.max(1, (timeoutMillis + 999) / 1000));
+		info.setProperty("connectTimeout", seconds);
+		info.setProperty("loginTimeout", seconds);
+		info.setProperty("socketTimeout", seconds);
+	}
+
 	@Override
 	public String handleDriver() {
 		return POSTGRESQL_DRIVER;
@@ -57,6 +166,382 @@ public class PostgresqlAdapter extends AbstractDatabase {
 
 	}
 
+	/**
+	 * pgjdbc只有在关闭自动提交时才使用游标按fetchSize分批读取，否则会读取整个结果集
+	 */
+	@Override
+	public Statement createStreamingStatement(Connection conn, int fetchSize) throws SQLException {
+		conn.setAutoCommit(false);
+		return super.createStreamingStatement(conn, fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE);
+	}
+
+	/**
+	 * 没有可用的整数主键时，按pg_class.relpages把表切分为ctid页范围；
+	 * PG14之前没有TID范围扫描，每个分片都要顺序扫描全表，此时不切分
+	 *
+	 * @param schema     模式
+	 * @param tableBean  表结构
+	 * @param chunkCount 期望的分片数
+	 * @return List 每个分片的WHERE条件
+	 */
+	@Override
+	public List<String> splitTable(String schema, TableBean tableBean, int chunkCount) {
+		List<String> chunks = super.splitTable(schema, tableBean, chunkCount);
+		if (chunks.size() > 1 || chunkCount <= 1 || !"TABLE".equalsIgnoreCase(tableBean.getType())
+			|| !this.isServerVersionAtLeast(14, 0, 0)) {
+			return chunks;
+		}
+		String sql = "SELECT c.relpages FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = ? AND c.relname = ?";
+		Connection conn = null;
+		PreparedStatement psmt = null;
+		ResultSet rs = null;
+		long pages = 0;
+		try {
+			conn = this.getConnection();
+			psmt = conn.prepareStatement(sql);
+			psmt.setString(1, this.handleSchema(schema));
+			psmt.setString(2, tableBean.getTableName());
+			rs = psmt.executeQuery();
+			if (rs.next()) {
+				pages = rs.getLong(1);
+			}
+		} catch (SQLException e) {
+			throw new DatabaseException(ExceptionEnum.DATABASE_QUERY_EXCEPTION, "splitTable", "查询" + tableBean.getTableName() + "页数出现异常" + e);
+		} finally {
+			this.closeObject(conn, psmt, rs);
+		}
+		if (pages < chunkCount) {
+			return chunks;
+		}
+
+		chunks.clear();
+		long step = pages / chunkCount;
+		for (int i = 0; i < chunkCount; i++) {
+			long lower = step * i;
+			if (i == chunkCount - 1) {
+				//relpages是统计值，最后一个分片不设上限
+				chunks.add("ctid >= '(" + lower + ",0)'::tid");
+			} else {
+				chunks.add("ctid >= '(" + lower + ",0)'::tid AND ctid < '(" + (lower + step) + ",0)'::tid");
+			}
+		}
+		return chunks;
+	}
+
+	/**
+	 * reltuples由VACUUM/ANALYZE更新，从未分析过的表为-1(PG14之前为0，此时按实际文件大小判断，非空则视为没有统计)
+	 * 数据大小包含TOAST，索引大小为全部索引之和；分区表本身没有数据，行数和大小取各级分区之和，分区仍单独列出
+	 */
+	@Override
+	protected String handleTableStatsSql() {
+		if (!this.isServerVersionAtLeast(10, 0, 0)) {
+			return "SELECT c.relname, CASE WHEN " + UNKNOWN_TUPLES + " THEN -1 ELSE c.reltuples::bigint END,"
+				+ " pg_table_size(c.oid), pg_indexes_size(c.oid)"
+				+ " FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+				+ " WHERE n.nspname = ? AND c.relkind = 'r'";
+		}
+		return "WITH RECURSIVE t AS (SELECT c.oid AS root, c.oid AS relid FROM pg_class c"
+			+ " JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = ? AND c.relkind IN ('r', 'p')"
+			+ " UNION ALL SELECT t.root, i.inhrelid FROM t JOIN pg_class p ON p.oid = t.relid AND p.relkind = 'p'"
+			+ " JOIN pg_inherits i ON i.inhparent = t.relid)"
+			+ " SELECT r.relname, CASE WHEN bool_or(c.relkind = 'r' AND " + UNKNOWN_TUPLES + ") THEN -1"
+			+ " ELSE sum(CASE WHEN c.relkind = 'r' THEN c.reltuples ELSE 0 END)::bigint END,"
+			+ " sum(pg_table_size(c.oid))::bigint, sum(pg_indexes_size(c.oid))::bigint"
+			+ " FROM t JOIN pg_class c ON c.oid = t.relid JOIN pg_class r ON r.oid = t.root GROUP BY r.relname";
+	}
+
+	/**
+	 * pgjdbc的getColumns对每个调用执行多表关联并逐行解析类型，这里直接查询pg_catalog，
+	 * LATERAL和WITH ORDINALITY需要9.4及以上版本，低版本查询失败时自动使用DatabaseMetaData
+	 */
+	@Override
+	protected String handleTablesSql() {
+		return TABLES_SQL;
+	}
+
+	@Override
+	protected String handleColumnsSql() {
+		return COLUMNS_SQL;
+	}
+
+	@Override
+	protected String handlePrimaryKeysSql() {
+		return PRIMARY_KEYS_SQL;
+	}
+
+	@Override
+	protected String handleIndexesSql() {
+		return this.isServerVersionAtLeast(11, 0, 0) ? INDEXES_SQL : INDEXES_SQL_10;
+	}
+
+	@Override
+	protected String handleTableExistsSql(String placeholders) {
+		return "SELECT c.relname AS TABLE_NAME FROM pg_catalog.pg_class c"
+			+ " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+			+ " WHERE n.nspname = ? AND c.relkind IN ('r', 'p') AND c.relname IN (" + placeholders + ")";
+	}
+
+	@Override
+	protected String handleSchemasSql() {
+		return SCHEMAS_SQL;
+	}
+
+	/**
+	 * 批量加载时关闭同步提交，数据库崩溃时可能丢失最近提交的事务，但不会损坏数据
+	 */
+	@Override
+	protected Map<String, String> handleBulkLoadSql() {
+		return Collections.singletonMap("SET synchronous_commit = off", "RESET synchronous_commit");
+	}
+
+	/**
+	 * UNLOGGED表改为LOGGED，需要9.5及以上版本；改写整张表并写入WAL，已是LOGGED的表不处理
+	 */
+	@Override
+	public void finishBulkLoad(TableBean tableBean) {
+		if ("TABLE".equalsIgnoreCase(tableBean.getType())) {
+			this.executeSql("ALTER TABLE " + this.handleTableName(this.handleSchema(null), tableBean.getTableName()) + " SET LOGGED");
+		}
+	}
+
+	/**
+	 * 11之前带默认值的ADD COLUMN需要重写整表；varchar加长或改为text、numeric只提高精度时不需要重写，其它类型修改需要
+	 */
+	@Override
+	protected boolean handleRewrite(ColumnChange change) {
+		ColumnBean column = change.getColumn();
+		ColumnBean current = change.getCurrent();
+		switch (change.getChangeType()) {
+			case ADD_COLUMN:
+				return StringUtils.isNotEmpty(column.getDefaultValue()) && !this.isServerVersionAtLeast(11, 0, 0);
+			case ALTER_TYPE:
+				if (Types.VARCHAR == current.getColumnType()) {
+					return Types.VARCHAR != column.getColumnType() && !TableDiffer.isLongCharacter(column.getColumnType());
+				}
+				if (TableDiffer.isDecimal(current.getColumnType()) && TableDiffer.isDecimal(column.getColumnType())) {
+					return column.getDecimalDigits() != current.getDecimalDigits();
+				}
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * 支持部分索引、表达式索引、INCLUDE列和索引方法，concurrently时使用CREATE INDEX CONCURRENTLY，
+	 * 不阻塞写入但需要两次扫描表，且不能在事务中执行；前缀索引按整列创建
+	 */
+	@Override
+	public String exportIndexSql(TableBean tableBean, IndexBean indexBean, boolean concurrently) {
+		String method = null == indexBean.getIndexType() ? "btree" : indexBean.getIndexType().toLowerCase();
+		if (!PG_INDEX_METHODS.contains(method)) {
+			//MySQL的FULLTEXT、SPATIAL索引没有对应的方法
+			return null;
+		}
+		StringBuilder sb = new StringBuilder("CREATE ");
+		if (Boolean.TRUE.equals(indexBean.getIsUnique())) {
+			sb.append("UNIQUE ");
+		}
+		sb.append("INDEX ");
+		if (concurrently) {
+			sb.append("CONCURRENTLY ");
+		}
+		sb.append(this.handleQuote(handleIndexName(tableBean.getTableName(), indexBean.getIndexName())))
+			.append(" ON ").append(this.handleTableName(this.handleSchema(null), tableBean.getTableName()));
+		if (!"btree".equals(method)) {
+			sb.append(" USING ").append(method);
+		}
+		sb.append(" (").append(this.handleIndexColumns(indexBean)).append(")");
+		if (!indexBean.getIncludeList().isEmpty()) {
+			StringBuilder include = new StringBuilder();
+			for (String column : indexBean.getIncludeList()) {
+				include.append(include.length() > 0 ? ", " : "").append(this.handleQuote(column));
+			}
+			sb.append(" INCLUDE (").append(include).append(")");
+		}
+		if (StringUtils.isNotBlank(indexBean.getFilterCondition())) {
+			sb.append(" WHERE ").append(indexBean.getFilterCondition());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * PostgreSQL的索引名在模式内唯一，MySQL等来源只在表内唯一：不以表名开头时加上表名前缀，
+	 * 超过63字节时截断并加哈希后缀，避免被服务端截断后重名
+	 *
+	 * @param tableName 表名
+	 * @param indexName 源索引名
+	 * @return String 目标索引名
+	 */
+	static String handleIndexName(String tableName, String indexName) {
+		String name = indexName.toLowerCase().startsWith(tableName.toLowerCase()) ? indexName : tableName + "_" + indexName;
+		if (name.getBytes(StandardCharsets.UTF_8).length <= MAX_IDENTIFIER_BYTES) {
+			return name;
+		}
+		String suffix = "_" + TableFingerprint.digest(name).substring(0, 8);
+		int end = name.length();
+		while (name.substring(0, end).getBytes(StandardCharsets.UTF_8).length + suffix.length() > MAX_IDENTIFIER_BYTES) {
+			end--;
+		}
+		if (end > 0 && Character.isHighSurrogate(name.charAt(end - 1))) {
+			end--;
+		}
+		return name.substring(0, end) + suffix;
+	}
+
+	/**
+	 * 按pgjdbc的规则把类型名和typmod转换为java.sql.Types、列宽度和精度
+	 */
+	@Override
+	protected ColumnBean handleNativeColumn(ResultSet rs) throws SQLException {
+		String typeName = rs.getString("TYPE_NAME");
+		int typeMod = rs.getInt("TYPE_MOD");
+		int dataType = pgTypeToSqlType(typeName);
+		int columnSize;
+		int decimalDigits = 0;
+		switch (typeName) {
+			case "varchar":
+			case "bpchar":
+			case "char":
+				columnSize = typeMod > 4 ? typeMod - 4 : UNKNOWN_LENGTH;
+				break;
+			case "numeric":
+				if (typeMod > 4) {
+					columnSize = ((typeMod - 4) >> 16) & 0xffff;
+					decimalDigits = (typeMod - 4) & 0xffff;
+				} else {
+					columnSize = 131089;
+				}
+				break;
+			case "int2":
+				columnSize = 5;
+				break;
+			case "int4":
+			case "oid":
+				columnSize = 10;
+				break;
+			case "int8":
+				columnSize = 19;
+				break;
+			case "float4":
+				columnSize = 8;
+				decimalDigits = 8;
+				break;
+			case "float8":
+				columnSize = 17;
+				decimalDigits = 17;
+				break;
+			case "bool":
+				columnSize = 1;
+				break;
+			case "date":
+				columnSize = 13;
+				break;
+			case "time":
+				columnSize = 15;
+				break;
+			case "timetz":
+				columnSize = 21;
+				break;
+			case "timestamp":
+				columnSize = 29;
+				break;
+			case "timestamptz":
+				columnSize = 35;
+				break;
+			default:
+				columnSize = UNKNOWN_LENGTH;
+		}
+
+		ColumnBean columnBean = new ColumnBean();
+		columnBean.setColumnName(rs.getString("COLUMN_NAME"));
+		columnBean.setColumnType(dataType);
+		columnBean.setColumnTypeName(this.getTypeById(dataType));
+		columnBean.setColumnSize(columnSize);
+		columnBean.setDecimalDigits(decimalDigits);
+		//与getColumns路径一致：NULLABLE为0(NOT NULL)时为true
+		columnBean.setIsNullable(rs.getBoolean("NOT_NULL"));
+		columnBean.setRemark(null == rs.getString("REMARKS") ? "" : rs.getString("REMARKS"));
+		columnBean.setDefaultValue(this.handleDefaultValue(rs.getString("COLUMN_DEF")));
+		return columnBean;
+	}
+
+	/**
+	 * PostgreSQL类型名到java.sql.Types，与pgjdbc的TypeInfoCache一致
+	 */
+	private static int pgTypeToSqlType(String typeName) {
+		if (typeName.startsWith("_")) {
+			return Types.ARRAY;
+		}
+		switch (typeName) {
+			case "int2":
+				return Types.SMALLINT;
+			case "int4":
+				return Types.INTEGER;
+			case "int8":
+			case "oid":
+				return Types.BIGINT;
+			case "numeric":
+				return Types.NUMERIC;
+			case "float4":
+				return Types.REAL;
+			case "float8":
+			case "money":
+				return Types.DOUBLE;
+			case "char":
+			case "bpchar":
+				return Types.CHAR;
+			case "varchar":
+			case "text":
+			case "name":
+				return Types.VARCHAR;
+			case "bytea":
+				return Types.BINARY;
+			case "bool":
+			case "bit":
+				return Types.BIT;
+			case "date":
+				return Types.DATE;
+			case "time":
+			case "timetz":
+				return Types.TIME;
+			case "timestamp":
+			case "timestamptz":
+				return Types.TIMESTAMP;
+			case "xml":
+				return Types.SQLXML;
+			default:
+				return Types.OTHER;
+		}
+	}
+
+	/**
+	 * 使用COPY FROM STDIN批量写入
+	 *
+	 * @param tableBean 目标表结构
+	 * @return RowWriterImpl 数据写入器
+	 */
+	@Override
+	public RowWriterImpl createRowWriter(TableBean tableBean) {
+		return new PgCopyRowWriter(this, tableBean, this.copyFormat);
+	}
+
+	public CopyFormatEnum getCopyFormat() {
+		return copyFormat;
+	}
+
+	public void setCopyFormat(CopyFormatEnum copyFormat) {
+		this.copyFormat = copyFormat;
+	}
+
+	/**
+	 * 标识符加双引号，保留大小写，内部的双引号转义为两个；建表、COPY、查询统一使用，表名大小写与源库一致
+	 */
+	@Override
+	public String handleQuote(String identifier) {
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+
 	/**
 	 * java.sql.type2
 	 *
@@ -150,20 +635,22 @@ public class PostgresqlAdapter extends AbstractDatabase {
 	}
 
 	@Override
-	public String exportSql(TableBean tableBean) {
+	public String exportSql(TableBean tableBean, boolean bulkLoad) {
 
 		StringBuffer sbTable = new StringBuffer();
 		StringBuffer sbComments = new StringBuffer();
+		String tableName = this.handleTableName(this.handleSchema(null), tableBean.getTableName());
 
 		if ("TABLE".equalsIgnoreCase(tableBean.getType())) {
-			sbTable.append("CREATE TABLE public." + tableBean.getTableName() + " (");
+			//批量加载模式下建UNLOGGED表，写入不记WAL，加载完成后由finishBulkLoad改为LOGGED
+			sbTable.append("CREATE " + (bulkLoad ? "UNLOGGED " : "") + "TABLE " + tableName + " (");
 		} else if ("VIEW".equalsIgnoreCase(tableBean.getType())) {
 			sbTable.append("CREATE VIEW `" + tableBean.getTableName() + "` (");
 		}
 		//动态拼接字段
 		for (ColumnBean column : tableBean.getColumnList()) {
 			String columnType = java2db(column.getColumnTypeName().toUpperCase());
-			sbTable.append(column.getColumnName() + " " + columnType + " ");
+			sbTable.append(this.handleQuote(column.getColumnName()) + " " + columnType + " ");
 
 			if (column.getIsPk()) {
 				sbTable.append("NOT NULL PRIMARY KEY ");
@@ -182,7 +669,8 @@ public class PostgresqlAdapter extends AbstractDatabase {
 			} else {
 				sbTable.append(",");
 			}
-			sbComments.append("COMMENT ON COLUMN   " + tableBean.getTableName() + "." + column.getColumnName() + " IS  '" + column.getRemark() + "';");
+			sbComments.append("COMMENT ON COLUMN " + tableName + "." + this.handleQuote(column.getColumnName())
+				+ " IS '" + StringUtils.defaultString(column.getRemark()).replace("'", "''") + "';");
 		}
 		sbTable = new StringBuffer(sbTable.toString().substring(0, sbTable.toString().length() - 1));
 		sbTable.append("); ");
@@ -210,8 +698,17 @@ public class PostgresqlAdapter extends AbstractDatabase {
 			log.info(tableBean.getTableName() + " 数据表已经存在");
 			return false;
 		}
-		String sql = exportSql(tableBean);
-		executeSql(sql);
+		createTable(tableBean);
 		return true;
 	}
+
+	@Override
+	public void createTable(TableBean tableBean, boolean bulkLoad) {
+		String sql = exportSql(tableBean, bulkLoad);
+		try {
+			executeSql(sql);
+		} finally {
+			invalidateTable(tableBean.getTableName());
+		}
+	}
 }
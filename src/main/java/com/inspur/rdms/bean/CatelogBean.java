@@ -1,11 +1,23 @@
 package com.inspur.rdms.bean;
 
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
+ * 模式下全部数据表的结构快照，表结构一次性加载后在内存中提供
+ *
  * @author Neo
  * @date 2019/2/26 10:53
  */
+@NoArgsConstructor
+@Getter
+@Setter
 public class CatelogBean {
 	/**
 	 * 模式
@@ -14,5 +26,33 @@ public class CatelogBean {
 	/**
 	 * 数据表列表
 	 */
-	private List<TableBean> tableList;
-}
\ No newline at end of file
+	private List<TableBean> tableList = new ArrayList<>();
+	/**
+	 * 表名(忽略大小写) -> 表结构
+	 */
+	private Map<String, TableBean> tableMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+	public CatelogBean(String catalogName) {
+		this.catalogName = catalogName;
+	}
+
+	/**
+	 * 添加数据表
+	 *
+	 * @param tableBean 表结构
+	 */
+	public void addTable(TableBean tableBean) {
+		this.tableList.add(tableBean);
+		this.tableMap.put(tableBean.getTableName(), tableBean);
+	}
+
+	/**
+	 * 根据表名获取表结构，表名忽略大小写
+	 *
+	 * @param tableName 表名
+	 * @return TableBean 不存在时返回null
+	 */
+	public TableBean getTable(String tableName) {
+		return this.tableMap.get(tableName);
+	}
+}
@@ -52,4 +52,22 @@ public class ColumnBean {
 	 * 描述信息
 	 */
 	private String remark;
+	/**
+	 * MySQL专用：information_schema中的COLUMN_TYPE(含unsigned、zerofill)，用于MODIFY COLUMN时还原列定义
+	 */
+	private String nativeType;
+	/**
+	 * MySQL专用：information_schema中的EXTRA(auto_increment、on update等)
+	 */
+	private String extra;
+	/**
+	 * MySQL专用：字符列的排序规则
+	 */
+	private String collation;
+
+	public ColumnBean(Boolean isPk, String columnName, int columnType, String columnTypeName, int columnSize,
+					  int decimalDigits, Boolean isNullable, String defaultValue, String remark) {
+		this(isPk, columnName, columnType, columnTypeName, columnSize, decimalDigits, isNullable, defaultValue, remark,
+			null, null, null);
+	}
 }
\ No newline at end of file
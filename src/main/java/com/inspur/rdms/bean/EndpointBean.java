@@ -0,0 +1,47 @@
+package com.inspur.rdms.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 数据库连接坐标
+ *
+ * @author Neo
+ * @date 2019/3/15 9:10
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class EndpointBean {
+	/**
+	 * 数据库类型
+	 */
+	private String dbType;
+	/**
+	 * 数据库名称
+	 */
+	private String databaseName;
+	/**
+	 * IP地址
+	 */
+	private String host;
+	/**
+	 * 端口
+	 */
+	private int port;
+	/**
+	 * 用户名
+	 */
+	private String username;
+	/**
+	 * 密码
+	 */
+	private String password;
+	/**
+	 * oracle专用
+	 */
+	private String jdbcType;
+}
@@ -0,0 +1,39 @@
+package com.inspur.rdms.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 连接探测结果
+ *
+ * @author Neo
+ * @date 2019/3/15 9:12
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class EndpointStatusBean {
+	/**
+	 * 探测的连接坐标
+	 */
+	private EndpointBean endpoint;
+	/**
+	 * 服务器端口是否可以连接
+	 */
+	private boolean reachable;
+	/**
+	 * 数据库是否可以登录
+	 */
+	private boolean databaseConnect;
+	/**
+	 * 探测耗时，单位毫秒，探测超时未返回时为-1
+	 */
+	private long latencyMillis;
+	/**
+	 * 失败原因
+	 */
+	private String errorMessage;
+}
@@ -0,0 +1,76 @@
+package com.inspur.rdms.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 数据表索引描述
+ *
+ * @author Neo
+ * @date 2019/3/4 9:12
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class IndexBean {
+	/**
+	 * 索引名
+	 */
+	private String indexName;
+	/**
+	 * 是否唯一索引
+	 */
+	private Boolean isUnique;
+	/**
+	 * 索引列，按索引中的顺序排列，表达式列以括号包裹，如(lower(name))
+	 */
+	private List<String> columnList = new ArrayList<>();
+	/**
+	 * 与columnList对应，是否降序
+	 */
+	private List<Boolean> descList = new ArrayList<>();
+	/**
+	 * 与columnList对应，前缀索引的长度(MySQL的SUB_PART)，整列索引为null
+	 */
+	private List<Integer> prefixList = new ArrayList<>();
+	/**
+	 * INCLUDE的非键列(PostgreSQL 11+)，不参与唯一约束和排序
+	 */
+	private List<String> includeList = new ArrayList<>();
+	/**
+	 * 部分索引的条件(PostgreSQL)，普通索引为null
+	 */
+	private String filterCondition;
+	/**
+	 * 索引方法，如btree、gin、FULLTEXT，未知时为null
+	 */
+	private String indexType;
+
+	/**
+	 * 是否含表达式列
+	 */
+	public boolean hasExpression() {
+		for (String column : this.columnList) {
+			if (isExpression(column)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 索引列是否为表达式
+	 *
+	 * @param column columnList中的列
+	 * @return boolean true：表达式
+	 */
+	public static boolean isExpression(String column) {
+		return column.startsWith("(");
+	}
+}
@@ -39,5 +39,9 @@ public class TableBean {
 	 * 数据表描述
 	 */
 	private String remark;
+	/**
+	 * 数据表索引列表(不含主键)
+	 */
+	private List<IndexBean> indexList;
 }
 
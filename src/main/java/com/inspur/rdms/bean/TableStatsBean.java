@@ -0,0 +1,42 @@
+package com.inspur.rdms.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 数据表统计信息，来自数据库的统计值而不是COUNT(*)，与实际值可能有偏差
+ *
+ * @author Neo
+ * @date 2019/3/21 9:20
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TableStatsBean {
+	/**
+	 * 表名
+	 */
+	private String tableName;
+	/**
+	 * 预估行数，没有统计信息时为-1
+	 */
+	private long estimatedRows;
+	/**
+	 * 数据占用空间，单位字节
+	 */
+	private long dataBytes;
+	/**
+	 * 索引占用空间，单位字节
+	 */
+	private long indexBytes;
+
+	/**
+	 * 总占用空间，单位字节
+	 */
+	public long getTotalBytes() {
+		return this.dataBytes + this.indexBytes;
+	}
+}
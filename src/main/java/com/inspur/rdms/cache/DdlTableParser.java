@@ -0,0 +1,148 @@
+package com.inspur.rdms.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析DDL语句影响的表名，用于失效元数据缓存
+ *
+ * @author Neo
+ * @date 2019/3/27 16:00
+ */
+public class DdlTableParser {
+	/**
+	 * 标识符：双引号、反引号或不加引号
+	 */
+	private static final String IDENT = "(?:\"(?:[^\"]|\"\")*\"|`(?:[^`]|``)*`|[\\w$]+)";
+	/**
+	 * 带模式限定的名称 a.b.c
+	 */
+	private static final String NAME = IDENT + "(?:\\s*\\.\\s*" + IDENT + ")*";
+	private static final String NAMES = NAME + "(?:\\s*,\\s*" + NAME + ")*";
+	private static final Pattern IDENT_PATTERN = Pattern.compile(IDENT);
+	private static final Pattern NAME_PATTERN = Pattern.compile(NAME);
+	/**
+	 * 字符串常量，解析前去掉，避免 DEFAULT 'on x'、COMMENT ... IS 'table y' 被当作表名
+	 */
+	private static final Pattern LITERAL_PATTERN = Pattern.compile("'(?:[^'\\\\]|''|\\\\.)*'");
+	private static final Pattern DDL_KEYWORD_PATTERN = Pattern.compile(
+		"^(CREATE|ALTER|DROP|RENAME|TRUNCATE|COMMENT)\\b", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern CREATE_TABLE = ddl(
+		"CREATE\\s+(?:(?:GLOBAL|LOCAL)\\s+)?(?:(?:TEMPORARY|TEMP|UNLOGGED)\\s+)?TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(" + NAME + ")");
+	private static final Pattern ALTER_TABLE = ddl(
+		"ALTER\\s+TABLE\\s+(?:IF\\s+EXISTS\\s+)?(?:ONLY\\s+)?(" + NAME + ")");
+	private static final Pattern DROP_TABLE = ddl(
+		"DROP\\s+(?:TEMPORARY\\s+)?TABLE\\s+(?:IF\\s+EXISTS\\s+)?(" + NAMES + ")");
+	private static final Pattern TRUNCATE_TABLE = ddl(
+		"TRUNCATE\\s+(?:TABLE\\s+)?(?:ONLY\\s+)?(" + NAMES + ")");
+	private static final Pattern RENAME_TABLE = ddl(
+		"RENAME\\s+TABLE\\s+(" + NAME + "\\s+TO\\s+" + NAME + "(?:\\s*,\\s*" + NAME + "\\s+TO\\s+" + NAME + ")*)");
+	private static final Pattern COMMENT_TABLE = ddl(
+		"COMMENT\\s+ON\\s+TABLE\\s+(" + NAME + ")");
+	private static final Pattern COMMENT_COLUMN = ddl(
+		"COMMENT\\s+ON\\s+COLUMN\\s+(" + NAME + ")");
+	private static final Pattern CREATE_INDEX = ddl(
+		"CREATE\\s+(?:(?:UNIQUE|FULLTEXT|SPATIAL)\\s+)?INDEX\\s+(?:CONCURRENTLY\\s+)?(?:IF\\s+NOT\\s+EXISTS\\s+)?(?:"
+			+ NAME + "\\s+)?(?:USING\\s+\\w+\\s+)?ON\\s+(?:ONLY\\s+)?(" + NAME + ")");
+	/**
+	 * ALTER TABLE ... RENAME [TO|AS] 新表名
+	 */
+	private static final Pattern RENAME_TO = Pattern.compile(
+		"\\bRENAME\\s+(?:TO|AS)\\s+(" + NAME + ")", Pattern.CASE_INSENSITIVE);
+
+	private DdlTableParser() {
+	}
+
+	private static Pattern ddl(String regex) {
+		return Pattern.compile("^" + regex + "(?=\\s|;|\\(|$)", Pattern.CASE_INSENSITIVE);
+	}
+
+	/**
+	 * 解析SQL影响的表名，多条语句以分号分隔
+	 *
+	 * @param sql 执行的SQL
+	 * @return Set 受影响的表名(去掉模式和引号)，非DDL语句返回空集合，无法识别的DDL返回null
+	 */
+	public static Set<String> parse(String sql) {
+		Set<String> result = new LinkedHashSet<>();
+		String stripped = LITERAL_PATTERN.matcher(sql).replaceAll("''");
+		for (String statement : stripped.split(";")) {
+			statement = statement.trim();
+			if (!DDL_KEYWORD_PATTERN.matcher(statement).find()) {
+				continue;
+			}
+			if (!parseStatement(statement, result)) {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	private static boolean parseStatement(String statement, Set<String> result) {
+		Matcher matcher;
+		if ((matcher = CREATE_TABLE.matcher(statement)).find()
+			|| (matcher = COMMENT_TABLE.matcher(statement)).find()
+			|| (matcher = CREATE_INDEX.matcher(statement)).find()) {
+			result.add(lastPart(matcher.group(1)));
+			return true;
+		}
+		if ((matcher = ALTER_TABLE.matcher(statement)).find()) {
+			result.add(lastPart(matcher.group(1)));
+			Matcher renamed = RENAME_TO.matcher(statement);
+			if (renamed.find(matcher.end())) {
+				result.add(lastPart(renamed.group(1)));
+			}
+			return true;
+		}
+		if ((matcher = DROP_TABLE.matcher(statement)).find()
+			|| (matcher = TRUNCATE_TABLE.matcher(statement)).find()
+			|| (matcher = RENAME_TABLE.matcher(statement)).find()) {
+			Matcher names = NAME_PATTERN.matcher(matcher.group(1));
+			while (names.find()) {
+				//RENAME TABLE a TO b 中的TO不是表名
+				if (!"TO".equalsIgnoreCase(names.group())) {
+					result.add(lastPart(names.group()));
+				}
+			}
+			return true;
+		}
+		if ((matcher = COMMENT_COLUMN.matcher(statement)).find()) {
+			//[模式.]表.列，表名是倒数第二段
+			List<String> parts = parts(matcher.group(1));
+			if (parts.size() < 2) {
+				return false;
+			}
+			result.add(parts.get(parts.size() - 2));
+			return true;
+		}
+		return false;
+	}
+
+	private static String lastPart(String name) {
+		List<String> parts = parts(name);
+		return parts.get(parts.size() - 1);
+	}
+
+	private static List<String> parts(String name) {
+		List<String> parts = new ArrayList<>();
+		Matcher matcher = IDENT_PATTERN.matcher(name);
+		while (matcher.find()) {
+			parts.add(unquote(matcher.group()));
+		}
+		return parts;
+	}
+
+	private static String unquote(String ident) {
+		char first = ident.charAt(0);
+		if (first == '"' || first == '`') {
+			String quote = String.valueOf(first);
+			return ident.substring(1, ident.length() - 1).replace(quote + quote, quote);
+		}
+		return ident;
+	}
+}
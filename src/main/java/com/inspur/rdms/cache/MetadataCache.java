@@ -0,0 +1,158 @@
+package com.inspur.rdms.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 元数据缓存：按(模式, 表名, 类别)缓存，带过期时间和LRU容量上限
+ *
+ * @author Neo
+ * @date 2019/3/5 10:26
+ */
+public class MetadataCache {
+	/**
+	 * 过期时间，单位毫秒
+	 */
+	@Getter
+	private final long ttlMillis;
+	/**
+	 * 最大缓存条数，超过后淘汰最久未使用的条目
+	 */
+	@Getter
+	private final int maxSize;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final LinkedHashMap<CacheKey, CacheEntry> cache;
+	/**
+	 * 每次失效加一，加载期间发生过失效时不写入加载结果，由cache加锁保护
+	 */
+	private long generation;
+
+	public MetadataCache(long ttlMillis, int maxSize) {
+		this.ttlMillis = ttlMillis;
+		this.maxSize = maxSize;
+		this.cache = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+				if (size() > MetadataCache.this.maxSize) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * 读取缓存，未命中或已过期时调用loader加载并写入缓存；loader抛出异常时不缓存
+	 *
+	 * @param schema    模式
+	 * @param tableName 表名，模式级别的条目为null
+	 * @param kind      类别
+	 * @param qualifier 附加条件(如表类型)，没有时为null
+	 * @param loader    加载方法
+	 * @return T 缓存值
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String schema, String tableName, MetadataKindEnum kind, String qualifier, Supplier<T> loader) {
+		CacheKey key = new CacheKey(lower(schema), lower(tableName), kind, qualifier);
+		long now = System.currentTimeMillis();
+		long loadGeneration;
+		synchronized (this.cache) {
+			loadGeneration = this.generation;
+			CacheEntry entry = this.cache.get(key);
+			if (null != entry && entry.expireAt > now) {
+				hitCount.incrementAndGet();
+				return (T) entry.value;
+			}
+		}
+		missCount.incrementAndGet();
+		//加载放在锁外，避免慢查询阻塞其它表的读取
+		T value = loader.get();
+		synchronized (this.cache) {
+			//加载期间表结构已变化，结果可能是旧的
+			if (loadGeneration == this.generation) {
+				this.cache.put(key, new CacheEntry(value, System.currentTimeMillis() + this.ttlMillis));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 表结构发生变化时失效该表的全部条目以及模式级别的表列表
+	 *
+	 * @param tableName 表名
+	 */
+	public void invalidate(String tableName) {
+		String table = lower(tableName);
+		synchronized (this.cache) {
+			this.generation++;
+			Iterator<CacheKey> it = this.cache.keySet().iterator();
+			while (it.hasNext()) {
+				CacheKey key = it.next();
+				if (null == key.tableName || key.tableName.equals(table)) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void invalidateAll() {
+		synchronized (this.cache) {
+			this.generation++;
+			this.cache.clear();
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	public int size() {
+		synchronized (this.cache) {
+			return this.cache.size();
+		}
+	}
+
+	private static String lower(String s) {
+		return null == s ? null : s.toLowerCase();
+	}
+
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	private static class CacheKey {
+		private String schema;
+		private String tableName;
+		private MetadataKindEnum kind;
+		private String qualifier;
+	}
+
+	@AllArgsConstructor
+	private static class CacheEntry {
+		private Object value;
+		private long expireAt;
+	}
+}
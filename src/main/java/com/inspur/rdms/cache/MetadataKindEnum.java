@@ -0,0 +1,26 @@
+package com.inspur.rdms.cache;
+
+/**
+ * 元数据缓存的类别
+ *
+ * @author Neo
+ * @date 2019/3/5 10:21
+ */
+public enum MetadataKindEnum {
+	/**
+	 * 表是否存在
+	 */
+	TABLE_EXISTS,
+	/**
+	 * 模式下的表列表
+	 */
+	TABLE_LIST,
+	/**
+	 * 表的列描述
+	 */
+	TABLE_COLUMNS,
+	/**
+	 * 表的主键
+	 */
+	TABLE_PRIMARY_KEY
+}
@@ -0,0 +1,30 @@
+package com.inspur.rdms.diff;
+
+/**
+ * 列变更类别
+ *
+ * @author Neo
+ * @date 2019/3/25 9:10
+ */
+public enum ChangeTypeEnum {
+	/**
+	 * 新增列
+	 */
+	ADD_COLUMN,
+	/**
+	 * 删除列
+	 */
+	DROP_COLUMN,
+	/**
+	 * 扩大列类型(加长、提高精度或换成更大的类型)
+	 */
+	ALTER_TYPE,
+	/**
+	 * 设置默认值
+	 */
+	SET_DEFAULT,
+	/**
+	 * 修改注释
+	 */
+	COMMENT
+}
@@ -0,0 +1,56 @@
+package com.inspur.rdms.diff;
+
+import com.inspur.rdms.bean.ColumnBean;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 单个列变更
+ *
+ * @author Neo
+ * @date 2019/3/25 9:12
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ColumnChange {
+	/**
+	 * 变更类别
+	 */
+	private ChangeTypeEnum changeType;
+	/**
+	 * 列名
+	 */
+	private String columnName;
+	/**
+	 * 变更后的列定义，DROP_COLUMN时为null
+	 */
+	private ColumnBean column;
+	/**
+	 * 目标库中当前的列定义，ADD_COLUMN以及新增列的COMMENT时为null
+	 */
+	private ColumnBean current;
+	/**
+	 * 变更语句，由目标库生成
+	 */
+	private String sql;
+	/**
+	 * 是否需要重写整表，执行时间与数据量成正比且期间阻塞写入
+	 */
+	private boolean rewrite;
+
+	public ColumnChange(ChangeTypeEnum changeType, String columnName, ColumnBean column, ColumnBean current) {
+		this.changeType = changeType;
+		this.columnName = columnName;
+		this.column = column;
+		this.current = current;
+	}
+
+	@Override
+	public String toString() {
+		return this.changeType + " " + this.columnName + (this.rewrite ? " (rewrite)" : "") + ": " + this.sql;
+	}
+}
@@ -0,0 +1,84 @@
+package com.inspur.rdms.diff;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 源表与目标表的结构差异，按执行顺序排列
+ *
+ * @author Neo
+ * @date 2019/3/25 9:15
+ */
+@Getter
+@Setter
+public class TableDiff {
+	/**
+	 * 表名
+	 */
+	private String tableName;
+	/**
+	 * 列变更
+	 */
+	private List<ColumnChange> changes = new ArrayList<>();
+
+	public TableDiff(String tableName) {
+		this.tableName = tableName;
+	}
+
+	public boolean isEmpty() {
+		return this.changes.isEmpty();
+	}
+
+	/**
+	 * 是否有需要重写整表的变更
+	 */
+	public boolean isRewrite() {
+		for (ColumnChange change : this.changes) {
+			if (change.isRewrite()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 全部变更语句
+	 *
+	 * @return List 按执行顺序
+	 */
+	public List<String> getStatements() {
+		List<String> statements = new ArrayList<>();
+		for (ColumnChange change : this.changes) {
+			statements.add(change.getSql());
+		}
+		return statements;
+	}
+
+	/**
+	 * 按是否重写整表筛选变更
+	 *
+	 * @param rewrite true：需要重写整表的变更 false：其它变更
+	 * @return List 列变更
+	 */
+	public List<ColumnChange> getChanges(boolean rewrite) {
+		List<ColumnChange> result = new ArrayList<>();
+		for (ColumnChange change : this.changes) {
+			if (change.isRewrite() == rewrite) {
+				result.add(change);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("table ").append(this.tableName).append(" changes=").append(this.changes.size());
+		for (ColumnChange change : this.changes) {
+			sb.append("\n  ").append(change);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,154 @@
+package com.inspur.rdms.diff;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Types;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+/**
+ * 比较源表结构与目标库中已存在的表，得到与数据库无关的列变更，列名不区分大小写
+ * 只扩大列类型，不缩小也不在不兼容的类型之间转换；只设置源表中有的默认值和注释；不处理主键和可空性
+ *
+ * @author Neo
+ * @date 2019/3/25 9:30
+ */
+public final class TableDiffer {
+	/**
+	 * 驱动对没有长度限制的字符列返回的长度
+	 */
+	private static final int UNBOUNDED_LENGTH = Integer.MAX_VALUE;
+
+	private TableDiffer() {
+	}
+
+	/**
+	 * 比较表结构
+	 *
+	 * @param source    源表结构
+	 * @param current   目标库中当前的表结构
+	 * @param typeNames 目标库中java.sql.Types对应的类型名，用于扩大后的列类型
+	 * @return TableDiff 列变更，未生成SQL
+	 */
+	public static TableDiff diff(TableBean source, TableBean current, IntFunction<String> typeNames) {
+		TableDiff diff = new TableDiff(current.getTableName());
+		Map<String, ColumnBean> currentColumns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (ColumnBean column : current.getColumnList()) {
+			currentColumns.put(column.getColumnName(), column);
+		}
+		Set<String> sourceNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+		for (ColumnBean column : source.getColumnList()) {
+			sourceNames.add(column.getColumnName());
+			ColumnBean existing = currentColumns.get(column.getColumnName());
+			if (null == existing) {
+				diff.getChanges().add(new ColumnChange(ChangeTypeEnum.ADD_COLUMN, column.getColumnName(), column, null));
+				if (StringUtils.isNotEmpty(column.getRemark())) {
+					diff.getChanges().add(new ColumnChange(ChangeTypeEnum.COMMENT, column.getColumnName(), column, null));
+				}
+				continue;
+			}
+			ColumnBean widened = widen(column, existing, typeNames);
+			if (null != widened) {
+				diff.getChanges().add(new ColumnChange(ChangeTypeEnum.ALTER_TYPE, existing.getColumnName(), widened, existing));
+			}
+			if (!Boolean.TRUE.equals(column.getIsPk()) && StringUtils.isNotEmpty(column.getDefaultValue())
+				&& !column.getDefaultValue().trim().equals(StringUtils.trimToEmpty(existing.getDefaultValue()))) {
+				diff.getChanges().add(new ColumnChange(ChangeTypeEnum.SET_DEFAULT, existing.getColumnName(), column, existing));
+			}
+			if (StringUtils.isNotEmpty(column.getRemark()) && !column.getRemark().equals(existing.getRemark())) {
+				diff.getChanges().add(new ColumnChange(ChangeTypeEnum.COMMENT, existing.getColumnName(), column, existing));
+			}
+		}
+
+		for (ColumnBean existing : current.getColumnList()) {
+			if (!sourceNames.contains(existing.getColumnName())) {
+				diff.getChanges().add(new ColumnChange(ChangeTypeEnum.DROP_COLUMN, existing.getColumnName(), null, existing));
+			}
+		}
+		return diff;
+	}
+
+	/**
+	 * 源列比当前列宽时返回扩大后的列定义(基于当前列)，否则返回null
+	 */
+	static ColumnBean widen(ColumnBean source, ColumnBean current, IntFunction<String> typeNames) {
+		int sourceType = source.getColumnType();
+		int currentType = current.getColumnType();
+		if (isCharacter(currentType) && !isLongCharacter(current)) {
+			if (isLongCharacter(source)) {
+				return copy(current, Types.LONGVARCHAR, typeNames.apply(Types.LONGVARCHAR), current.getColumnSize(), 0);
+			}
+			if (isCharacter(sourceType) && source.getColumnSize() > current.getColumnSize()) {
+				return copy(current, currentType, current.getColumnTypeName(), source.getColumnSize(), 0);
+			}
+			return null;
+		}
+		if (integerRank(currentType) > 0 && integerRank(sourceType) > integerRank(currentType)) {
+			return copy(current, sourceType, typeNames.apply(sourceType), source.getColumnSize(), 0);
+		}
+		if (Types.REAL == currentType && (Types.DOUBLE == sourceType || Types.FLOAT == sourceType)) {
+			return copy(current, Types.DOUBLE, typeNames.apply(Types.DOUBLE), source.getColumnSize(), source.getDecimalDigits());
+		}
+		if (isDecimal(currentType) && isDecimal(sourceType)) {
+			//整数位和小数位都不能减少
+			int sourceInteger = source.getColumnSize() - source.getDecimalDigits();
+			int currentInteger = current.getColumnSize() - current.getDecimalDigits();
+			int integer = Math.max(sourceInteger, currentInteger);
+			int scale = Math.max(source.getDecimalDigits(), current.getDecimalDigits());
+			if (integer + scale > current.getColumnSize() || scale > current.getDecimalDigits()) {
+				return copy(current, currentType, current.getColumnTypeName(), integer + scale, scale);
+			}
+		}
+		return null;
+	}
+
+	private static ColumnBean copy(ColumnBean current, int columnType, String columnTypeName, int columnSize, int decimalDigits) {
+		return new ColumnBean(current.getIsPk(), current.getColumnName(), columnType, columnTypeName, columnSize,
+			decimalDigits, current.getIsNullable(), current.getDefaultValue(), current.getRemark(),
+			current.getNativeType(), current.getExtra(), current.getCollation());
+	}
+
+	/**
+	 * 长文本列：text、clob等，以及没有长度限制的varchar(PostgreSQL的text读取为长度Integer.MAX_VALUE的varchar)
+	 */
+	public static boolean isLongCharacter(ColumnBean column) {
+		return isLongCharacter(column.getColumnType())
+			|| (isCharacter(column.getColumnType()) && column.getColumnSize() >= UNBOUNDED_LENGTH);
+	}
+
+	public static boolean isCharacter(int type) {
+		return Types.CHAR == type || Types.VARCHAR == type || Types.NCHAR == type || Types.NVARCHAR == type;
+	}
+
+	public static boolean isLongCharacter(int type) {
+		return Types.LONGVARCHAR == type || Types.LONGNVARCHAR == type || Types.CLOB == type || Types.NCLOB == type;
+	}
+
+	public static boolean isDecimal(int type) {
+		return Types.DECIMAL == type || Types.NUMERIC == type;
+	}
+
+	/**
+	 * 整数类型的大小顺序，非整数类型为0
+	 */
+	static int integerRank(int type) {
+		switch (type) {
+			case Types.TINYINT:
+				return 1;
+			case Types.SMALLINT:
+				return 2;
+			case Types.INTEGER:
+				return 3;
+			case Types.BIGINT:
+				return 4;
+			default:
+				return 0;
+		}
+	}
+}
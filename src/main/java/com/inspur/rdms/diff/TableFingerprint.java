@@ -0,0 +1,91 @@
+package com.inspur.rdms.diff;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表结构指纹：对表名和列的名称、类型、长度、精度、可空性、默认值、主键和注释计算SHA-256，
+ * 列按名称(不区分大小写)排序，与列的读取顺序无关；只包含TableDiffer比较的内容，指纹相同则比较结果相同
+ *
+ * @author Neo
+ * @date 2019/3/26 9:30
+ */
+public final class TableFingerprint {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private TableFingerprint() {
+	}
+
+	/**
+	 * 计算表结构指纹
+	 *
+	 * @param tableBean 表结构
+	 * @return String 64位十六进制字符串
+	 */
+	public static String of(TableBean tableBean) {
+		StringBuilder sb = new StringBuilder();
+		field(sb, tableBean.getTableName().toLowerCase());
+		List<ColumnBean> columns = new ArrayList<>(tableBean.getColumnList());
+		columns.sort((a, b) -> a.getColumnName().compareToIgnoreCase(b.getColumnName()));
+		for (ColumnBean column : columns) {
+			sb.append('\n');
+			field(sb, column.getColumnName().toLowerCase());
+			field(sb, String.valueOf(column.getColumnType()));
+			field(sb, StringUtils.upperCase(column.getColumnTypeName()));
+			field(sb, String.valueOf(column.getColumnSize()));
+			field(sb, String.valueOf(column.getDecimalDigits()));
+			field(sb, String.valueOf(Boolean.TRUE.equals(column.getIsNullable())));
+			field(sb, StringUtils.trimToNull(column.getDefaultValue()));
+			field(sb, String.valueOf(Boolean.TRUE.equals(column.getIsPk())));
+			field(sb, StringUtils.trimToNull(column.getRemark()));
+		}
+		return digest(sb.toString());
+	}
+
+	/**
+	 * 字符串的SHA-256
+	 *
+	 * @param text 字符串
+	 * @return String 64位十六进制字符串
+	 */
+	public static String digest(String text) {
+		return hex(sha256(text.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * 字段加长度前缀，null与空字符串区分，避免分隔符出现在值中时产生歧义
+	 */
+	private static void field(StringBuilder sb, String value) {
+		if (null == value) {
+			sb.append("-1:");
+		} else {
+			sb.append(value.length()).append(':').append(value);
+		}
+		sb.append('|');
+	}
+
+	private static byte[] sha256(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			//JDK必须提供SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+}
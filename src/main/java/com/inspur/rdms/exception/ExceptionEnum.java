@@ -25,7 +25,9 @@ public enum ExceptionEnum {
 
 	HANDLER_CLASS_EXCEPTION(1008, "HANDLER子类处理异常"),
 
-	OTHER_UNKNOWN_EXCEPTION(1009, "其他异常");
+	OTHER_UNKNOWN_EXCEPTION(1009, "其他异常"),
+
+	DATA_COPY_EXCEPTION(1010, "数据复制异常");
 
 	private int errorCode;
 	private String errorMessage;
@@ -0,0 +1,33 @@
+package com.inspur.rdms.impl;
+
+import com.inspur.rdms.pipe.CopyProgress;
+import com.inspur.rdms.pipe.CopyProgressTracker;
+
+/**
+ * 数据复制进度监听接口，回调在复制线程或进度线程中执行，不应阻塞
+ *
+ * @author Neo
+ * @date 2019/3/20 9:50
+ */
+public interface CopyListenerImpl {
+	/**
+	 * 数据表开始复制
+	 *
+	 * @param progress 数据表进度
+	 */
+	public void onTableStart(CopyProgress progress);
+
+	/**
+	 * 数据表复制结束，失败时errorMessage不为空
+	 *
+	 * @param progress 数据表进度
+	 */
+	public void onTableFinish(CopyProgress progress);
+
+	/**
+	 * 定时回调整个任务的进度
+	 *
+	 * @param tracker 任务进度
+	 */
+	public void onProgress(CopyProgressTracker tracker);
+}
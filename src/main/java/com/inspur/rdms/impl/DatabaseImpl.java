@@ -1,14 +1,26 @@
 package com.inspur.rdms.impl;
 
+import com.inspur.rdms.bean.CatelogBean;
+import com.inspur.rdms.cache.MetadataCache;
+import com.inspur.rdms.diff.TableDiff;
+import com.inspur.rdms.pipe.CopyOptions;
+import com.inspur.rdms.pipe.CopyResult;
+import com.inspur.rdms.pool.CircuitBreaker;
 import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.IndexBean;
 import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.bean.TableStatsBean;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Database方法接口
@@ -17,17 +29,33 @@ import java.util.Map;
  * @Date: 2019/2/21 16:10
  * @Description:
  */
-public interface DatabaseImpl {
+public interface DatabaseImpl extends AutoCloseable {
 	/**
 	 * 服务器是否可以连接： false：不可以 true：可以
 	 */
 	public boolean canConnect();
 
+	/**
+	 * 服务器是否可以连接，超时后视为不可以
+	 *
+	 * @param timeoutMillis 超时时间，单位毫秒
+	 * @return boolean false：不可以 true：可以
+	 */
+	public boolean canConnect(int timeoutMillis);
+
 	/**
 	 * 数据库是否可以连接： false：不可以 true：可以
 	 */
 	public boolean isDatabaseConnect();
 
+	/**
+	 * 数据库是否可以连接，超时后视为不可以，不修改全局状态
+	 *
+	 * @param timeoutMillis 超时时间，单位毫秒
+	 * @return boolean false：不可以 true：可以
+	 */
+	public boolean isDatabaseConnect(int timeoutMillis);
+
 	/**
 	 * 执行sql语句
 	 *
@@ -35,6 +63,22 @@ public interface DatabaseImpl {
 	 */
 	public void executeSql(String sql);
 
+	/**
+	 * 开启元数据缓存，isTableExists、queryTable、queryTableColumns、queryTablePrimaryKey的结果
+	 * 按(模式, 表名, 类别)缓存，执行DDL时失效对应的表
+	 *
+	 * @param ttlMillis 过期时间，单位毫秒
+	 * @param maxSize   最大缓存条数
+	 */
+	public void enableMetadataCache(long ttlMillis, int maxSize);
+
+	/**
+	 * 获取元数据缓存，可读取命中和未命中次数
+	 *
+	 * @return MetadataCache 未开启时返回null
+	 */
+	public MetadataCache getMetadataCache();
+
 	/**
 	 * 连接数据库
 	 *
@@ -42,6 +86,40 @@ public interface DatabaseImpl {
 	 */
 	public Connection getConnection();
 
+	/**
+	 * 预先建立连接
+	 *
+	 * @param size 预建的连接数
+	 */
+	public void warmUp(int size);
+
+	/**
+	 * 没有活动连接时关闭连接池，handler仍可使用，下次获取连接时重新创建
+	 *
+	 * @return boolean true: 已释放或连接池未创建 false: 有活动连接，未释放
+	 */
+	public boolean releaseIdlePool();
+
+	/**
+	 * 关闭连接池，释放连接和线程
+	 */
+	@Override
+	public void close();
+
+	/**
+	 * 连接池状态：活动连接、空闲连接、等待线程、等待时间、建连耗时等，连接池未创建时返回空
+	 *
+	 * @return Map 指标名 -> 值
+	 */
+	public Map<String, Number> getPoolStats();
+
+	/**
+	 * 服务器对应的熔断器，同一服务器的handler共用
+	 *
+	 * @return CircuitBreaker 熔断器
+	 */
+	public CircuitBreaker getCircuitBreaker();
+
 	/**
 	 * 获取对应的jdbc
 	 *
@@ -72,6 +150,15 @@ public interface DatabaseImpl {
 	 */
 	public boolean isTableExists(String tableName);
 
+	/**
+	 * 一次查询判断多个数据表是否存在
+	 *
+	 * @param schema     模式
+	 * @param tableNames 表名
+	 * @return Set 已存在的表名
+	 */
+	public Set<String> existingTables(String schema, Collection<String> tableNames);
+
 	/**
 	 * 获取表的描述信息
 	 *
@@ -91,13 +178,13 @@ public interface DatabaseImpl {
 	public ArrayList<ColumnBean> queryTableColumns(String schema, String tableName);
 
 	/**
-	 * 获取表的索引和统计信息描述
+	 * 获取表的索引描述，不含主键索引
 	 *
-	 * @param schema
-	 * @param tableName
-	 * @return
+	 * @param schema    模式
+	 * @param tableName 表名
+	 * @return List 索引列表，含列顺序、排序方向、唯一性和部分索引条件
 	 */
-	public List queryTableIndex(String schema, String tableName);
+	public List<IndexBean> queryTableIndex(String schema, String tableName);
 
 	/**
 	 * 主键列描述信息
@@ -170,6 +257,22 @@ public interface DatabaseImpl {
 	 */
 	public TableBean getSourceTableColumns(String schema, String tableName);
 
+	/**
+	 * 一次性加载模式下全部数据表的结构(表、列、主键、索引、备注)，之后在内存中按表名获取
+	 *
+	 * @param schema 模式
+	 * @return CatelogBean 模式快照
+	 */
+	public CatelogBean queryCatalog(String schema);
+
+	/**
+	 * 从统计信息中一次查询模式下全部数据表的预估行数和占用空间，不执行COUNT(*)
+	 *
+	 * @param schema 模式
+	 * @return List 按总占用空间从大到小排列
+	 */
+	public List<TableStatsBean> queryTableStats(String schema);
+
 	/**
 	 * 导出SQL语句
 	 *
@@ -178,6 +281,25 @@ public interface DatabaseImpl {
 	 */
 	public String exportSql(TableBean tableBean);
 
+	/**
+	 * 导出建表语句
+	 *
+	 * @param tableBean 表结构
+	 * @param bulkLoad  是否按批量加载建表(PostgreSQL建UNLOGGED表)，加载完成后需对该表调用finishBulkLoad
+	 * @return String 建表语句
+	 */
+	public String exportSql(TableBean tableBean, boolean bulkLoad);
+
+	/**
+	 * 导出建索引语句，用于数据加载完成后再创建二级索引
+	 *
+	 * @param tableBean    表结构
+	 * @param indexBean    索引
+	 * @param concurrently 是否在线创建(PostgreSQL的CREATE INDEX CONCURRENTLY)
+	 * @return String 建索引语句，目标库不支持该索引时返回null
+	 */
+	public String exportIndexSql(TableBean tableBean, IndexBean indexBean, boolean concurrently);
+
 	/**
 	 * Java到数据库类型转换
 	 *
@@ -194,4 +316,124 @@ public interface DatabaseImpl {
 	 */
 	public Boolean createTableFromSource(TableBean tableBean);
 
+	/**
+	 * 比较源表结构和目标库中已存在的表，生成最少的ALTER TABLE语句(新增、删除列，扩大类型，默认值和注释)，
+	 * 并标记需要重写整表的变更，以便单独安排执行
+	 *
+	 * @param source  源表结构
+	 * @param current 目标库中当前的表结构
+	 * @return TableDiff 列变更
+	 */
+	public TableDiff diffTable(TableBean source, TableBean current);
+
+	/**
+	 * 直接创建目标表，不检查是否存在，调用方已通过existingTables确认不存在时使用
+	 *
+	 * @param tableBean 表结构
+	 */
+	public void createTable(TableBean tableBean);
+
+	/**
+	 * 直接创建目标表，不检查是否存在
+	 *
+	 * @param tableBean 表结构
+	 * @param bulkLoad  是否按批量加载建表，见exportSql(TableBean, boolean)
+	 */
+	public void createTable(TableBean tableBean, boolean bulkLoad);
+
+	/**
+	 * 标识符(表名、列名)加引号
+	 *
+	 * @param identifier 标识符
+	 * @return String 可直接拼接到SQL中的标识符
+	 */
+	public String handleQuote(String identifier);
+
+	/**
+	 * 带模式的表名，模式为空时只返回表名
+	 *
+	 * @param schema    模式
+	 * @param tableName 表名
+	 * @return String 可直接拼接到SQL中的表名
+	 */
+	public String handleTableName(String schema, String tableName);
+
+	/**
+	 * 按主键范围把表切分为多个分片，用于并行读取
+	 *
+	 * @param schema     模式
+	 * @param tableBean  表结构
+	 * @param chunkCount 期望的分片数
+	 * @return List 每个分片的WHERE条件，无法切分时只返回一个空条件
+	 */
+	public List<String> splitTable(String schema, TableBean tableBean, int chunkCount);
+
+	/**
+	 * 创建流式读取的Statement，结果集按批从服务端获取，不会一次性加载到内存
+	 * 调用方读取结束后需通过finishStreamingRead恢复连接状态
+	 *
+	 * @param conn      连接
+	 * @param fetchSize 每次从服务端获取的行数
+	 * @return Statement 只进只读的Statement
+	 * @throws SQLException SQL异常
+	 */
+	public Statement createStreamingStatement(Connection conn, int fetchSize) throws SQLException;
+
+	/**
+	 * 流式读取结束后恢复连接状态(如自动提交)
+	 *
+	 * @param conn 连接
+	 */
+	public void finishStreamingRead(Connection conn);
+
+	/**
+	 * 未读完就放弃流式读取时，在关闭结果集前调用，避免关闭时读完剩余的行
+	 *
+	 * @param stmt createStreamingStatement创建的Statement
+	 */
+	public void cancelStreamingRead(Statement stmt);
+
+	/**
+	 * 批量加载时调整写入连接的会话参数(如MySQL关闭唯一性和外键检查)，与endBulkLoad成对调用
+	 * 只影响传入的连接，不影响同一handler上的其它操作
+	 *
+	 * @param conn 写入连接，处于自动提交状态
+	 * @return List 恢复语句，传给endBulkLoad
+	 */
+	public List<String> beginBulkLoad(Connection conn);
+
+	/**
+	 * 恢复写入连接的会话参数，恢复失败时丢弃该连接
+	 *
+	 * @param conn     写入连接
+	 * @param resetSql beginBulkLoad返回的恢复语句
+	 */
+	public void endBulkLoad(Connection conn, List<String> resetSql);
+
+	/**
+	 * 批量加载完成(包括失败)后恢复数据表的持久化等设置，如PostgreSQL的SET LOGGED
+	 *
+	 * @param tableBean 表结构
+	 */
+	public void finishBulkLoad(TableBean tableBean);
+
+	/**
+	 * 创建目标表的数据写入器
+	 *
+	 * @param tableBean 目标表结构
+	 * @return RowWriterImpl 数据写入器
+	 */
+	public RowWriterImpl createRowWriter(TableBean tableBean);
+
+	/**
+	 * 将源库中表的数据流式复制到当前库中的同名表
+	 *
+	 * @param source    源库
+	 * @param schema    源表的模式
+	 * @param tableBean 表结构
+	 * @param options   复制参数
+	 * @return CopyResult 复制结果
+	 */
+	public CopyResult copyTableFromSource(DatabaseImpl source, String schema, TableBean tableBean, CopyOptions options);
+
 }
@@ -0,0 +1,48 @@
+package com.inspur.rdms.impl;
+
+import com.inspur.rdms.exception.ExceptionEnum;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 指标输出接口，InstrumentedDatabase通过它上报调用耗时、连接池和熔断器状态
+ *
+ * @author Neo
+ * @date 2019/3/19 9:30
+ */
+public interface MetricsSinkImpl {
+	/**
+	 * 记录一次DatabaseImpl方法调用
+	 *
+	 * @param operation    方法名
+	 * @param elapsedNanos 耗时，单位纳秒
+	 * @param roundTrips   调用期间当前线程发生的JDBC往返次数
+	 * @param error        异常类型，成功时为null
+	 */
+	public void recordCall(String operation, long elapsedNanos, long roundTrips, ExceptionEnum error);
+
+	/**
+	 * 注册连接池，读取指标时通过poolStats获取当前值
+	 *
+	 * @param name      连接池名称，每个handler唯一，如 jdbcUrl#序号
+	 * @param poolStats 连接池状态
+	 */
+	public void registerPool(String name, Supplier<Map<String, Number>> poolStats);
+
+	/**
+	 * 注销连接池
+	 *
+	 * @param name 连接池名称
+	 */
+	public void unregisterPool(String name);
+
+	/**
+	 * 注册熔断器，读取指标时通过breakerStats获取当前值；
+	 * 熔断器按服务器共用且不会销毁，同一服务器重复注册时覆盖，不需要注销
+	 *
+	 * @param endpoint     服务器标识 host:port
+	 * @param breakerStats 熔断器状态
+	 */
+	public void registerBreaker(String endpoint, Supplier<Map<String, Number>> breakerStats);
+}
@@ -0,0 +1,41 @@
+package com.inspur.rdms.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 目标表数据写入接口，由各数据库handler提供具体实现
+ *
+ * @author Neo
+ * @date 2019/3/6 9:50
+ */
+public interface RowWriterImpl {
+	/**
+	 * 在目标连接上准备写入
+	 *
+	 * @param conn 目标连接，已关闭自动提交
+	 * @throws SQLException SQL异常
+	 */
+	public void open(Connection conn) throws SQLException;
+
+	/**
+	 * 写入一批数据，列顺序与TableBean的列顺序一致
+	 *
+	 * @param rows 行数据
+	 * @throws SQLException SQL异常
+	 */
+	public void write(List<Object[]> rows) throws SQLException;
+
+	/**
+	 * 将已写入的数据发送到数据库，提交事务前调用
+	 *
+	 * @throws SQLException SQL异常
+	 */
+	public void flush() throws SQLException;
+
+	/**
+	 * 释放写入占用的资源，不关闭连接
+	 */
+	public void close();
+}
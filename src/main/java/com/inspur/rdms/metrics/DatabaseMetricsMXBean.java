@@ -0,0 +1,40 @@
+package com.inspur.rdms.metrics;
+
+import java.util.Map;
+
+/**
+ * 通过JMX暴露的数据库指标，Map的键为方法名、连接池名称或服务器标识
+ *
+ * @author Neo
+ * @date 2019/3/19 10:50
+ */
+public interface DatabaseMetricsMXBean {
+	public Map<String, Long> getCallCounts();
+
+	public Map<String, Long> getErrorCounts();
+
+	/**
+	 * 键为 方法名.异常类型
+	 */
+	public Map<String, Long> getErrorCountsByType();
+
+	public Map<String, Double> getMeanLatencyMillis();
+
+	public Map<String, Double> getP99LatencyMillis();
+
+	public Map<String, Double> getMaxLatencyMillis();
+
+	public Map<String, Double> getRoundTripsPerCall();
+
+	/**
+	 * 键为 连接池名称.指标名
+	 */
+	public Map<String, Long> getPoolStats();
+
+	/**
+	 * 键为 host:port.指标名，state为0正常 1熔断 2半开
+	 */
+	public Map<String, Long> getBreakerStats();
+
+	public void reset();
+}
@@ -0,0 +1,95 @@
+package com.inspur.rdms.metrics;
+
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.exception.ExceptionEnum;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.MetricsSinkImpl;
+import com.inspur.rdms.pool.CircuitBreaker;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DatabaseImpl的指标代理：统计每个方法的调用次数、耗时、异常类型和JDBC往返次数，
+ * 并把handler的连接池和服务器熔断器注册到指标输出
+ * 往返次数只统计调用线程上发生的往返，并行复制等在其他线程执行的部分不计入；
+ * 需要在连接池创建前打开PoolConfig.roundTripMetrics，否则往返次数为0
+ *
+ * @author Neo
+ * @date 2019/3/19 11:20
+ */
+public class InstrumentedDatabase implements InvocationHandler {
+	/**
+	 * handler序号，jdbcUrl中没有用户名，不同用户或同一用户的多个handler用序号区分连接池
+	 */
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	private final DatabaseImpl target;
+	private final MetricsSinkImpl sink;
+	private final String poolName;
+
+	private InstrumentedDatabase(DatabaseImpl target, MetricsSinkImpl sink) {
+		this.target = target;
+		this.sink = sink;
+		this.poolName = target.getJDBCUrl() + "#" + SEQUENCE.incrementAndGet();
+	}
+
+	/**
+	 * 包装handler，返回的对象可直接替代原handler使用
+	 *
+	 * @param target 数据库处理handler
+	 * @param sink   指标输出
+	 * @return DatabaseImpl 带指标统计的handler
+	 */
+	public static DatabaseImpl wrap(DatabaseImpl target, MetricsSinkImpl sink) {
+		if (null == target || null == sink) {
+			return target;
+		}
+		InstrumentedDatabase handler = new InstrumentedDatabase(target, sink);
+		sink.registerPool(handler.poolName, target::getPoolStats);
+		CircuitBreaker breaker = target.getCircuitBreaker();
+		if (null != breaker) {
+			sink.registerBreaker(breaker.getEndpoint(), breaker::getStats);
+		}
+		return (DatabaseImpl) Proxy.newProxyInstance(DatabaseImpl.class.getClassLoader(),
+			new Class<?>[]{DatabaseImpl.class}, handler);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (Object.class == method.getDeclaringClass()) {
+			return this.invokeObjectMethod(proxy, method, args);
+		}
+		if ("close".equals(method.getName())) {
+			this.sink.unregisterPool(this.poolName);
+		}
+		long roundTrips = RoundTripCounter.current();
+		long start = System.nanoTime();
+		ExceptionEnum error = null;
+		try {
+			return method.invoke(this.target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			error = cause instanceof DatabaseException && null != ((DatabaseException) cause).getError()
+				? ((DatabaseException) cause).getError() : ExceptionEnum.OTHER_UNKNOWN_EXCEPTION;
+			throw cause;
+		} finally {
+			this.sink.recordCall(method.getName(), System.nanoTime() - start,
+				RoundTripCounter.current() - roundTrips, error);
+		}
+	}
+
+	private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+		switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return "Instrumented(" + this.target + ")";
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.inspur.rdms.metrics;
+
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.exception.ExceptionEnum;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 把MetricsRegistry注册为JMX MBean，可在jconsole中查看
+ * ObjectName为 com.inspur.rdms:type=DatabaseMetrics,name=名称
+ *
+ * @author Neo
+ * @date 2019/3/19 11:00
+ */
+public class JmxMetricsExporter implements DatabaseMetricsMXBean {
+	private static Logger log = LoggerFactory.getLogger(JmxMetricsExporter.class);
+
+	@Getter
+	private final MetricsRegistry registry;
+	@Getter
+	private final ObjectName objectName;
+
+	private JmxMetricsExporter(MetricsRegistry registry, ObjectName objectName) {
+		this.registry = registry;
+		this.objectName = objectName;
+	}
+
+	/**
+	 * 注册到平台MBeanServer，同名的MBean会被替换
+	 *
+	 * @param registry 指标注册表
+	 * @param name     名称
+	 * @return JmxMetricsExporter 用于注销
+	 */
+	public static JmxMetricsExporter register(MetricsRegistry registry, String name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName objectName = new ObjectName("com.inspur.rdms:type=DatabaseMetrics,name=" + ObjectName.quote(name));
+			JmxMetricsExporter exporter = new JmxMetricsExporter(registry, objectName);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(exporter, objectName);
+			log.info("注册JMX指标:{}", objectName);
+			return exporter;
+		} catch (JMException e) {
+			throw new DatabaseException(ExceptionEnum.OTHER_UNKNOWN_EXCEPTION, "register", "注册JMX指标异常" + e);
+		}
+	}
+
+	/**
+	 * 从平台MBeanServer注销
+	 */
+	public void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(this.objectName)) {
+				server.unregisterMBean(this.objectName);
+			}
+		} catch (JMException e) {
+			log.info("注销JMX指标失败", e);
+		}
+	}
+
+	@Override
+	public Map<String, Long> getCallCounts() {
+		return this.collect(OperationMetrics::getCallCount);
+	}
+
+	@Override
+	public Map<String, Long> getErrorCounts() {
+		return this.collect(OperationMetrics::getErrorCount);
+	}
+
+	@Override
+	public Map<String, Long> getErrorCountsByType() {
+		Map<String, Long> result = new TreeMap<>();
+		for (OperationMetrics metrics : this.registry.getOperations().values()) {
+			for (Map.Entry<ExceptionEnum, Long> entry : metrics.getErrors().entrySet()) {
+				result.put(metrics.getOperation() + "." + entry.getKey().name(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Double> getMeanLatencyMillis() {
+		return this.collect(m -> m.getLatency().getMeanMillis());
+	}
+
+	@Override
+	public Map<String, Double> getP99LatencyMillis() {
+		return this.collect(m -> m.getLatency().getPercentileMillis(0.99));
+	}
+
+	@Override
+	public Map<String, Double> getMaxLatencyMillis() {
+		return this.collect(m -> m.getLatency().getMaxMillis());
+	}
+
+	@Override
+	public Map<String, Double> getRoundTripsPerCall() {
+		return this.collect(OperationMetrics::getRoundTripsPerCall);
+	}
+
+	@Override
+	public Map<String, Long> getPoolStats() {
+		return flatten(this.registry.getPoolStats());
+	}
+
+	@Override
+	public Map<String, Long> getBreakerStats() {
+		return flatten(this.registry.getBreakerStats());
+	}
+
+	@Override
+	public void reset() {
+		this.registry.reset();
+	}
+
+	private static Map<String, Long> flatten(Map<String, Map<String, Number>> stats) {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<String, Map<String, Number>> group : stats.entrySet()) {
+			for (Map.Entry<String, Number> stat : group.getValue().entrySet()) {
+				result.put(group.getKey() + "." + stat.getKey(), stat.getValue().longValue());
+			}
+		}
+		return result;
+	}
+
+	private <T> Map<String, T> collect(Function<OperationMetrics, T> getter) {
+		Map<String, T> result = new TreeMap<>();
+		for (OperationMetrics metrics : this.registry.getOperations().values()) {
+			result.put(metrics.getOperation(), getter.apply(metrics));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,95 @@
+package com.inspur.rdms.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 耗时直方图：按2的幂划分微秒区间(1us、2us、4us……约67s)，记录无锁，分位数取区间上界
+ *
+ * @author Neo
+ * @date 2019/3/19 10:05
+ */
+public class LatencyHistogram {
+	/**
+	 * 区间个数，最后一个区间收纳超出上界的耗时
+	 */
+	private static final int BUCKET_COUNT = 28;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * 记录一次耗时
+	 *
+	 * @param elapsedNanos 耗时，单位纳秒
+	 */
+	public void record(long elapsedNanos) {
+		long micros = Math.max(0, elapsedNanos / 1000);
+		int index = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+		this.buckets.incrementAndGet(Math.min(index, BUCKET_COUNT - 1));
+		this.count.incrementAndGet();
+		this.totalNanos.addAndGet(elapsedNanos);
+		long max;
+		while (elapsedNanos > (max = this.maxNanos.get())) {
+			if (this.maxNanos.compareAndSet(max, elapsedNanos)) {
+				break;
+			}
+		}
+	}
+
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * 平均耗时，单位毫秒
+	 */
+	public double getMeanMillis() {
+		long c = this.count.get();
+		return 0 == c ? 0 : this.totalNanos.get() / 1e6 / c;
+	}
+
+	/**
+	 * 最大耗时，单位毫秒
+	 */
+	public double getMaxMillis() {
+		return this.maxNanos.get() / 1e6;
+	}
+
+	/**
+	 * 分位数耗时，返回所在区间的上界，单位毫秒
+	 *
+	 * @param quantile 分位，如0.99
+	 * @return double 耗时
+	 */
+	public double getPercentileMillis(double quantile) {
+		long c = this.count.get();
+		if (0 == c) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(c * quantile);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += this.buckets.get(i);
+			if (seen >= rank) {
+				return i == BUCKET_COUNT - 1 ? this.getMaxMillis() : (1L << i) / 1000.0;
+			}
+		}
+		return this.getMaxMillis();
+	}
+
+	/**
+	 * 各区间的次数，第i个区间的上界为2^i微秒
+	 *
+	 * @return long[] 次数
+	 */
+	public long[] getBuckets() {
+		long[] result = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			result[i] = this.buckets.get(i);
+		}
+		return result;
+	}
+}
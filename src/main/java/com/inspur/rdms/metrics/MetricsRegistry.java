@@ -0,0 +1,112 @@
+package com.inspur.rdms.metrics;
+
+import com.inspur.rdms.exception.ExceptionEnum;
+import com.inspur.rdms.impl.MetricsSinkImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 内存中的指标注册表，按方法名汇总调用指标，连接池和熔断器状态在读取时实时获取
+ *
+ * @author Neo
+ * @date 2019/3/19 10:35
+ */
+public class MetricsRegistry implements MetricsSinkImpl {
+	private static Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
+
+	private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+	private final Map<String, Supplier<Map<String, Number>>> pools = new ConcurrentHashMap<>();
+	private final Map<String, Supplier<Map<String, Number>>> breakers = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordCall(String operation, long elapsedNanos, long roundTrips, ExceptionEnum error) {
+		this.operations.computeIfAbsent(operation, OperationMetrics::new).record(elapsedNanos, roundTrips, error);
+	}
+
+	@Override
+	public void registerPool(String name, Supplier<Map<String, Number>> poolStats) {
+		this.pools.put(name, poolStats);
+	}
+
+	@Override
+	public void unregisterPool(String name) {
+		this.pools.remove(name);
+	}
+
+	@Override
+	public void registerBreaker(String endpoint, Supplier<Map<String, Number>> breakerStats) {
+		this.breakers.put(endpoint, breakerStats);
+	}
+
+	/**
+	 * 全部方法的调用指标，按方法名排序
+	 *
+	 * @return Map 方法名 -> 指标
+	 */
+	public Map<String, OperationMetrics> getOperations() {
+		return new TreeMap<>(this.operations);
+	}
+
+	/**
+	 * 单个方法的调用指标
+	 *
+	 * @param operation 方法名
+	 * @return OperationMetrics 没有调用过时返回null
+	 */
+	public OperationMetrics getOperation(String operation) {
+		return this.operations.get(operation);
+	}
+
+	/**
+	 * 已注册连接池的当前状态
+	 *
+	 * @return Map 连接池名称 -> (指标名 -> 值)
+	 */
+	public Map<String, Map<String, Number>> getPoolStats() {
+		Map<String, Map<String, Number>> result = new TreeMap<>();
+		for (Map.Entry<String, Supplier<Map<String, Number>>> entry : this.pools.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().get());
+		}
+		return result;
+	}
+
+	/**
+	 * 已注册熔断器的当前状态和计数
+	 *
+	 * @return Map 服务器标识 -> (指标名 -> 值)
+	 */
+	public Map<String, Map<String, Number>> getBreakerStats() {
+		Map<String, Map<String, Number>> result = new TreeMap<>();
+		for (Map.Entry<String, Supplier<Map<String, Number>>> entry : this.breakers.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().get());
+		}
+		return result;
+	}
+
+	/**
+	 * 清空调用指标，连接池和熔断器注册保留
+	 */
+	public void reset() {
+		this.operations.clear();
+	}
+
+	/**
+	 * 把当前指标写入日志
+	 */
+	public void logSummary() {
+		for (OperationMetrics metrics : this.getOperations().values()) {
+			log.info("{}", metrics);
+		}
+		for (Map.Entry<String, Map<String, Number>> entry : this.getPoolStats().entrySet()) {
+			log.info("pool {} {}", entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<String, Map<String, Number>> entry : this.getBreakerStats().entrySet()) {
+			log.info("breaker {} {}", entry.getKey(), entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.inspur.rdms.metrics;
+
+import com.inspur.rdms.exception.ExceptionEnum;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个方法的调用指标：调用次数、耗时分布、按异常类型的错误次数、JDBC往返次数
+ *
+ * @author Neo
+ * @date 2019/3/19 10:20
+ */
+public class OperationMetrics {
+	/**
+	 * 方法名
+	 */
+	@Getter
+	private final String operation;
+	@Getter
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicLong roundTrips = new AtomicLong();
+	private final Map<ExceptionEnum, AtomicLong> errors = new ConcurrentHashMap<>();
+
+	public OperationMetrics(String operation) {
+		this.operation = operation;
+	}
+
+	void record(long elapsedNanos, long roundTrips, ExceptionEnum error) {
+		this.latency.record(elapsedNanos);
+		this.roundTrips.addAndGet(roundTrips);
+		if (null != error) {
+			this.errorCount.incrementAndGet();
+			this.errors.computeIfAbsent(error, k -> new AtomicLong()).incrementAndGet();
+		}
+	}
+
+	public long getCallCount() {
+		return this.latency.getCount();
+	}
+
+	public long getErrorCount() {
+		return this.errorCount.get();
+	}
+
+	public long getRoundTrips() {
+		return this.roundTrips.get();
+	}
+
+	/**
+	 * 平均每次调用的往返次数
+	 */
+	public double getRoundTripsPerCall() {
+		long c = this.getCallCount();
+		return 0 == c ? 0 : (double) this.roundTrips.get() / c;
+	}
+
+	/**
+	 * 按异常类型统计的错误次数
+	 *
+	 * @return Map 异常类型 -> 次数
+	 */
+	public Map<ExceptionEnum, Long> getErrors() {
+		Map<ExceptionEnum, Long> result = new EnumMap<>(ExceptionEnum.class);
+		for (Map.Entry<ExceptionEnum, AtomicLong> entry : this.errors.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().get());
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s calls=%d errors=%d mean=%.2fms p50=%.2fms p99=%.2fms max=%.2fms roundTrips/call=%.1f",
+			this.operation, this.getCallCount(), this.getErrorCount(), this.latency.getMeanMillis(),
+			this.latency.getPercentileMillis(0.5), this.latency.getPercentileMillis(0.99),
+			this.latency.getMaxMillis(), this.getRoundTripsPerCall());
+	}
+}
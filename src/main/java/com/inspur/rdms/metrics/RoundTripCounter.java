@@ -0,0 +1,30 @@
+package com.inspur.rdms.metrics;
+
+/**
+ * 按线程累计的JDBC往返次数，调用前后取差值即为本次调用的往返次数
+ *
+ * @author Neo
+ * @date 2019/3/19 9:40
+ */
+public class RoundTripCounter {
+	private static final ThreadLocal<long[]> COUNTER = ThreadLocal.withInitial(() -> new long[1]);
+
+	private RoundTripCounter() {
+	}
+
+	/**
+	 * 当前线程发生一次往返
+	 */
+	public static void increment() {
+		COUNTER.get()[0]++;
+	}
+
+	/**
+	 * 当前线程累计的往返次数
+	 *
+	 * @return long 往返次数
+	 */
+	public static long current() {
+		return COUNTER.get()[0];
+	}
+}
@@ -0,0 +1,64 @@
+package com.inspur.rdms.metrics;
+
+import com.alibaba.druid.filter.FilterChain;
+import com.alibaba.druid.filter.FilterEventAdapter;
+import com.alibaba.druid.proxy.jdbc.ConnectionProxy;
+import com.alibaba.druid.proxy.jdbc.StatementProxy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Druid过滤器：语句执行和返回结果集的元数据查询各计一次往返
+ * 结果集分批读取(fetch)的往返由驱动内部完成，不在统计范围内
+ *
+ * @author Neo
+ * @date 2019/3/19 9:45
+ */
+public class RoundTripFilter extends FilterEventAdapter {
+
+	@Override
+	protected void statementExecuteBefore(StatementProxy statement, String sql) {
+		RoundTripCounter.increment();
+	}
+
+	@Override
+	protected void statementExecuteQueryBefore(StatementProxy statement, String sql) {
+		RoundTripCounter.increment();
+	}
+
+	@Override
+	protected void statementExecuteUpdateBefore(StatementProxy statement, String sql) {
+		RoundTripCounter.increment();
+	}
+
+	@Override
+	protected void statementExecuteBatchBefore(StatementProxy statement) {
+		RoundTripCounter.increment();
+	}
+
+	/**
+	 * Druid不代理DatabaseMetaData，这里包一层统计getTables、getColumns等查询
+	 */
+	@Override
+	public DatabaseMetaData connection_getMetaData(FilterChain chain, ConnectionProxy connection) throws SQLException {
+		DatabaseMetaData metaData = super.connection_getMetaData(chain, connection);
+		if (null == metaData) {
+			return null;
+		}
+		return (DatabaseMetaData) Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(),
+			new Class<?>[]{DatabaseMetaData.class}, (proxy, method, args) -> {
+				if (ResultSet.class.isAssignableFrom(method.getReturnType())) {
+					RoundTripCounter.increment();
+				}
+				try {
+					return method.invoke(metaData, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			});
+	}
+}
@@ -0,0 +1,339 @@
+package com.inspur.rdms.migrate;
+
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.bean.TableStatsBean;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.pipe.CopyOptions;
+import com.inspur.rdms.pipe.CopyProgress;
+import com.inspur.rdms.pipe.CopyProgressTracker;
+import com.inspur.rdms.pipe.TableCopier;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多表数据复制调度：按统计信息中的占用空间从大到小分配数据表，大表按主键范围切分为多个分片，
+ * 没有新表可领取的空闲线程从仍在复制的大表尾部窃取分片，直到所有分片完成
+ * 每个线程同时占用一个源连接和一个目标连接，线程数不超过两个连接池的最大连接数
+ *
+ * @author Neo
+ * @date 2019/3/22 9:30
+ */
+public class CopyScheduler {
+	private static Logger log = LoggerFactory.getLogger(CopyScheduler.class);
+	/**
+	 * 单表最多切分的分片数
+	 */
+	private static final int MAX_CHUNKS = 256;
+	/**
+	 * 所有表都没有行数统计时，估算行数使用的平均行宽，单位字节
+	 */
+	private static final long DEFAULT_ROW_BYTES = 200;
+
+	private final DatabaseImpl source;
+	private final DatabaseImpl target;
+	private final String schema;
+	private final MigrateOptions options;
+	private final CopyOptions copyOptions;
+
+	private final Queue<TableTask> pending = new ConcurrentLinkedQueue<>();
+	private final List<TableTask> running = new CopyOnWriteArrayList<>();
+
+	public CopyScheduler(DatabaseImpl source, DatabaseImpl target, String schema, MigrateOptions options) {
+		this.source = source;
+		this.target = target;
+		this.schema = schema;
+		this.options = null == options ? new MigrateOptions() : options;
+		CopyOptions copyOptions = null == this.options.getCopyOptions() ? new CopyOptions() : this.options.getCopyOptions();
+		if (this.options.isBulkLoad() && !copyOptions.isBulkLoad()) {
+			copyOptions = copyOptions.copy();
+			copyOptions.setBulkLoad(true);
+		}
+		this.copyOptions = copyOptions;
+	}
+
+	/**
+	 * 复制多张表的数据
+	 *
+	 * @param tables 要复制的数据表，目标库中已建好同名表
+	 * @return Map 表名 -> 复制结果，状态只有成功(CREATED)和失败(FAILED)
+	 */
+	public Map<String, TableMigrateResult> copy(List<TableBean> tables) {
+		Map<String, TableMigrateResult> results = new LinkedHashMap<>();
+		if (null == tables || tables.isEmpty()) {
+			return results;
+		}
+		List<TableTask> tasks = this.createTasks(tables);
+		this.pending.addAll(tasks);
+		int workers = this.workerCount();
+		log.info("模式{}复制{}张表数据,线程数:{}", this.schema, tasks.size(), workers);
+
+		ExecutorService executor = this.options.getExecutor();
+		boolean ownExecutor = null == executor;
+		if (ownExecutor) {
+			AtomicInteger seq = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(workers, r -> {
+				Thread t = new Thread(r, "jdbcPipe-copy-" + seq.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(this::work));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.info("模式{}数据复制被中断", this.schema);
+		} catch (ExecutionException e) {
+			log.info("模式" + this.schema + "数据复制线程异常", e.getCause());
+		} finally {
+			if (ownExecutor) {
+				executor.shutdownNow();
+			}
+		}
+
+		for (TableTask task : tasks) {
+			TableMigrateResult result = new TableMigrateResult();
+			result.setTableName(task.tableBean.getTableName());
+			result.setRowCount(task.rowCount.get());
+			result.setElapsedMillis(task.elapsedMillis);
+			if (null != task.error || !task.isDone()) {
+				result.setStatus(MigrateStatusEnum.FAILED);
+				result.setErrorMessage(null == task.error ? "数据复制未完成" : task.error);
+			} else {
+				result.setStatus(MigrateStatusEnum.CREATED);
+			}
+			results.put(result.getTableName(), result);
+		}
+		return results;
+	}
+
+	/**
+	 * 读取统计信息并按占用空间从大到小排序，没有统计信息的表排在最后
+	 */
+	private List<TableTask> createTasks(List<TableBean> tables) {
+		Map<String, TableStatsBean> stats = new HashMap<>();
+		try {
+			for (TableStatsBean bean : this.source.queryTableStats(this.schema)) {
+				stats.put(bean.getTableName().toLowerCase(), bean);
+			}
+		} catch (RuntimeException e) {
+			log.info("查询模式" + this.schema + "统计信息失败，按原顺序复制", e);
+		}
+		//没有行数统计但有数据大小的表(如PostgreSQL从未ANALYZE的表)，按其它表的平均行宽估算行数
+		long knownRows = 0;
+		long knownBytes = 0;
+		for (TableStatsBean bean : stats.values()) {
+			if (bean.getEstimatedRows() > 0 && bean.getDataBytes() > 0) {
+				knownRows += bean.getEstimatedRows();
+				knownBytes += bean.getDataBytes();
+			}
+		}
+		long rowBytes = knownRows > 0 ? Math.max(1, knownBytes / knownRows) : DEFAULT_ROW_BYTES;
+		CopyProgressTracker tracker = this.copyOptions.getProgressTracker();
+		List<TableTask> tasks = new ArrayList<>();
+		for (TableBean tableBean : tables) {
+			TableStatsBean stat = stats.get(tableBean.getTableName().toLowerCase());
+			long estimatedRows = null == stat ? -1 : stat.getEstimatedRows();
+			if (estimatedRows < 0 && null != stat && stat.getDataBytes() > 0) {
+				estimatedRows = stat.getDataBytes() / rowBytes;
+			}
+			TableTask task = new TableTask(tableBean, estimatedRows, null == stat ? 0 : stat.getTotalBytes());
+			if (null != tracker) {
+				task.progress = tracker.table(tableBean.getTableName());
+				task.progress.setEstimatedRows(task.estimatedRows);
+			}
+			tasks.add(task);
+		}
+		tasks.sort((a, b) -> a.totalBytes != b.totalBytes ? Long.compare(b.totalBytes, a.totalBytes)
+			: Long.compare(b.estimatedRows, a.estimatedRows));
+		return tasks;
+	}
+
+	/**
+	 * 线程数：不超过配置的线程数和两个连接池的最大连接数
+	 */
+	private int workerCount() {
+		int workers = Math.max(1, this.options.getThreads());
+		workers = Math.min(workers, maxActive(this.source, workers));
+		workers = Math.min(workers, maxActive(this.target, workers));
+		return Math.max(1, workers);
+	}
+
+	private static int maxActive(DatabaseImpl db, int defaultValue) {
+		Number maxActive = db.getPoolStats().get("maxActive");
+		return null == maxActive ? defaultValue : maxActive.intValue();
+	}
+
+	/**
+	 * 工作线程：先领取新表，没有新表时窃取其它表剩余的分片
+	 */
+	private void work() {
+		TableCopier copier = new TableCopier(this.source, this.target, this.copyOptions);
+		TableTask own = null;
+		while (!Thread.currentThread().isInterrupted()) {
+			String chunk = null == own ? null : own.chunks.pollFirst();
+			TableTask task = own;
+			if (null == chunk) {
+				own = this.claim();
+				if (null != own) {
+					continue;
+				}
+				task = this.victim();
+				if (null == task) {
+					return;
+				}
+				chunk = task.chunks.pollLast();
+				if (null == chunk) {
+					continue;
+				}
+			}
+			this.copyChunk(copier, task, chunk);
+		}
+	}
+
+	/**
+	 * 领取下一张表并切分
+	 */
+	private TableTask claim() {
+		TableTask task = this.pending.poll();
+		if (null == task) {
+			return null;
+		}
+		task.startMillis = System.currentTimeMillis();
+		if (null != task.progress) {
+			this.copyOptions.getProgressTracker().begin(task.progress);
+		}
+		List<String> chunks;
+		try {
+			chunks = this.source.splitTable(this.schema, task.tableBean, this.chunkCount(task));
+		} catch (RuntimeException e) {
+			log.info("数据表" + task.tableBean.getTableName() + "切分失败，整表复制", e);
+			chunks = Collections.singletonList("");
+		}
+		if (chunks.isEmpty()) {
+			chunks = Collections.singletonList("");
+		}
+		if (chunks.size() > 1) {
+			log.info("数据表{}切分为{}个分片", task.tableBean.getTableName(), chunks.size());
+		}
+		task.outstanding.set(chunks.size());
+		task.chunks.addAll(chunks);
+		this.running.add(task);
+		return task;
+	}
+
+	/**
+	 * 剩余分片最多的表，作为窃取对象
+	 */
+	private TableTask victim() {
+		TableTask victim = null;
+		int most = 0;
+		for (TableTask task : this.running) {
+			int size = task.chunks.size();
+			if (size > most) {
+				most = size;
+				victim = task;
+			}
+		}
+		return victim;
+	}
+
+	/**
+	 * 按预估行数计算分片数，没有行数统计和数据大小的表不切分
+	 */
+	private int chunkCount(TableTask task) {
+		long chunkRows = Math.max(1, this.options.getChunkRows());
+		if (task.estimatedRows <= chunkRows) {
+			return 1;
+		}
+		return (int) Math.min(MAX_CHUNKS, (task.estimatedRows + chunkRows - 1) / chunkRows);
+	}
+
+	private void copyChunk(TableCopier copier, TableTask task, String chunk) {
+		try {
+			if (null == task.error) {
+				task.rowCount.addAndGet(copier.copy(this.schema, task.tableBean, StringUtils.isBlank(chunk) ? null : chunk).getRowCount());
+			}
+		} catch (RuntimeException e) {
+			log.info("数据表" + task.tableBean.getTableName() + "分片复制失败:" + chunk, e);
+			if (null == task.error) {
+				task.error = e.toString();
+			}
+			//表已失败，剩余分片不再复制
+			int dropped = 0;
+			while (null != task.chunks.pollFirst()) {
+				dropped++;
+			}
+			task.outstanding.addAndGet(-dropped);
+		} finally {
+			if (0 == task.outstanding.decrementAndGet()) {
+				this.finish(task);
+			}
+		}
+	}
+
+	private void finish(TableTask task) {
+		this.running.remove(task);
+		task.elapsedMillis = System.currentTimeMillis() - task.startMillis;
+		task.done = true;
+		if (null != task.progress) {
+			this.copyOptions.getProgressTracker().end(task.progress, null == task.error ? null : new IllegalStateException(task.error));
+		}
+		log.info("数据表{}数据复制{},行数:{},耗时:{}ms", task.tableBean.getTableName(),
+			null == task.error ? "完成" : "失败", task.rowCount.get(), task.elapsedMillis);
+	}
+
+	/**
+	 * 单张表的复制任务
+	 */
+	private static class TableTask {
+		private final TableBean tableBean;
+		private final long estimatedRows;
+		private final long totalBytes;
+		private final Deque<String> chunks = new ConcurrentLinkedDeque<>();
+		/**
+		 * 未完成的分片数，包括正在复制的分片
+		 */
+		private final AtomicInteger outstanding = new AtomicInteger();
+		private final AtomicLong rowCount = new AtomicLong();
+		private CopyProgress progress;
+		private volatile String error;
+		private volatile long startMillis;
+		private volatile long elapsedMillis;
+		private volatile boolean done;
+
+		private TableTask(TableBean tableBean, long estimatedRows, long totalBytes) {
+			this.tableBean = tableBean;
+			this.estimatedRows = estimatedRows;
+			this.totalBytes = totalBytes;
+		}
+
+		private boolean isDone() {
+			return this.done;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.inspur.rdms.migrate;
+
+import com.inspur.rdms.diff.TableFingerprint;
+import com.inspur.rdms.impl.DatabaseImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 上次同步成功时源表的结构指纹，每个(目标库, 源模式)一个properties文件，key为小写表名
+ * 读取失败时视为没有记录，所有表重新比较；写入时先写临时文件再替换，中断不会留下不完整的文件
+ *
+ * @author Neo
+ * @date 2019/3/26 10:00
+ */
+public class FingerprintStore {
+	private static Logger log = LoggerFactory.getLogger(FingerprintStore.class);
+
+	private final File file;
+	private final String comment;
+	private final Map<String, String> fingerprints = new TreeMap<>();
+
+	public FingerprintStore(File file, String comment) {
+		this.file = file;
+		this.comment = comment;
+		this.load();
+	}
+
+	/**
+	 * 目标库和源模式对应的指纹文件，文件名为目标库jdbcUrl和源模式的SHA-256
+	 *
+	 * @param dir    指纹文件目录
+	 * @param target 目标库
+	 * @param schema 源库模式
+	 * @return FingerprintStore 指纹记录
+	 */
+	public static FingerprintStore forTarget(File dir, DatabaseImpl target, String schema) {
+		String key = target.getJDBCUrl() + "|" + schema;
+		return new FingerprintStore(new File(dir, "fingerprint-" + TableFingerprint.digest(key).substring(0, 16) + ".properties"), key);
+	}
+
+	private void load() {
+		if (!this.file.isFile()) {
+			return;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(this.file.toPath())) {
+			properties.load(in);
+		} catch (IOException | IllegalArgumentException e) {
+			log.info("读取结构指纹文件" + this.file + "失败，全部数据表重新比较", e);
+			return;
+		}
+		for (String tableName : properties.stringPropertyNames()) {
+			this.fingerprints.put(tableName, properties.getProperty(tableName));
+		}
+	}
+
+	/**
+	 * 上次同步的指纹
+	 *
+	 * @param tableName 表名
+	 * @return String 没有记录时返回null
+	 */
+	public synchronized String get(String tableName) {
+		return this.fingerprints.get(tableName.toLowerCase());
+	}
+
+	/**
+	 * 记录同步成功的指纹
+	 *
+	 * @param tableName   表名
+	 * @param fingerprint 指纹
+	 */
+	public synchronized void put(String tableName, String fingerprint) {
+		this.fingerprints.put(tableName.toLowerCase(), fingerprint);
+	}
+
+	/**
+	 * 删除指纹，下次同步时重新比较
+	 *
+	 * @param tableName 表名
+	 */
+	public synchronized void remove(String tableName) {
+		this.fingerprints.remove(tableName.toLowerCase());
+	}
+
+	public synchronized int size() {
+		return this.fingerprints.size();
+	}
+
+	/**
+	 * 写入文件，失败时只记录日志，下次同步时重新比较
+	 */
+	public synchronized void save() {
+		Properties properties = new Properties();
+		properties.putAll(this.fingerprints);
+		File dir = this.file.getAbsoluteFile().getParentFile();
+		File tmp = new File(dir, this.file.getName() + ".tmp");
+		try {
+			Files.createDirectories(dir.toPath());
+			try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+				properties.store(out, this.comment);
+			}
+			Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.info("写入结构指纹文件" + this.file + "失败", e);
+		}
+	}
+
+	public File getFile() {
+		return this.file;
+	}
+}
@@ -0,0 +1,136 @@
+package com.inspur.rdms.migrate;
+
+import com.inspur.rdms.bean.IndexBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.impl.DatabaseImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 数据加载完成后创建二级索引：不同表并行，同一张表的索引依次创建
+ * (同表的索引并行时会互相等待表锁，CONCURRENTLY时还会等待彼此的事务)
+ *
+ * @author Neo
+ * @date 2019/3/22 16:40
+ */
+public class IndexBuilder {
+	private static Logger log = LoggerFactory.getLogger(IndexBuilder.class);
+
+	private final DatabaseImpl target;
+	private final MigrateOptions options;
+
+	public IndexBuilder(DatabaseImpl target, MigrateOptions options) {
+		this.target = target;
+		this.options = null == options ? new MigrateOptions() : options;
+	}
+
+	/**
+	 * 创建多张表的索引
+	 *
+	 * @param tables 数据表，按提交顺序开始创建，调用方应把大表排在前面
+	 * @return Map 表名 -> 结果，状态只有成功(CREATED)和失败(FAILED)，耗时为建索引的耗时
+	 */
+	public Map<String, TableMigrateResult> build(List<TableBean> tables) {
+		Map<String, TableMigrateResult> results = new LinkedHashMap<>();
+		List<TableBean> indexed = new ArrayList<>();
+		for (TableBean tableBean : tables) {
+			if (null != tableBean.getIndexList() && !tableBean.getIndexList().isEmpty()) {
+				indexed.add(tableBean);
+			}
+		}
+		if (indexed.isEmpty()) {
+			return results;
+		}
+		int workers = this.workerCount(indexed.size());
+		log.info("创建{}张表的索引,线程数:{},在线创建:{}", indexed.size(), workers, this.options.isConcurrentIndexes());
+
+		ExecutorService executor = this.options.getExecutor();
+		boolean ownExecutor = null == executor;
+		if (ownExecutor) {
+			AtomicInteger seq = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(workers, r -> {
+				Thread t = new Thread(r, "jdbcPipe-index-" + seq.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		try {
+			List<Future<TableMigrateResult>> futures = new ArrayList<>();
+			for (TableBean tableBean : indexed) {
+				futures.add(executor.submit(() -> this.buildTable(tableBean)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				String tableName = indexed.get(i).getTableName();
+				try {
+					results.put(tableName, futures.get(i).get());
+				} catch (ExecutionException e) {
+					results.put(tableName, new TableMigrateResult(tableName, MigrateStatusEnum.FAILED, 0, 0, String.valueOf(e.getCause())));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.info("索引创建被中断");
+		} finally {
+			if (ownExecutor) {
+				executor.shutdownNow();
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * 线程数：不超过配置的线程数、表数和目标连接池的最大连接数
+	 */
+	private int workerCount(int tableCount) {
+		int workers = Math.min(Math.max(1, this.options.getThreads()), tableCount);
+		Number maxActive = this.target.getPoolStats().get("maxActive");
+		if (null != maxActive) {
+			workers = Math.min(workers, maxActive.intValue());
+		}
+		return Math.max(1, workers);
+	}
+
+	/**
+	 * 依次创建单张表的索引，单个索引失败不影响其它索引，目标库不支持的索引跳过
+	 */
+	private TableMigrateResult buildTable(TableBean tableBean) {
+		long start = System.currentTimeMillis();
+		TableMigrateResult result = new TableMigrateResult();
+		result.setTableName(tableBean.getTableName());
+		List<String> failed = new ArrayList<>();
+		int created = 0;
+		for (IndexBean indexBean : tableBean.getIndexList()) {
+			String sql = this.target.exportIndexSql(tableBean, indexBean, this.options.isConcurrentIndexes());
+			if (null == sql) {
+				log.info("目标库不支持数据表{}的索引{}，跳过", tableBean.getTableName(), indexBean.getIndexName());
+				continue;
+			}
+			try {
+				this.target.executeSql(sql);
+				created++;
+			} catch (RuntimeException e) {
+				log.info("数据表" + tableBean.getTableName() + "索引" + indexBean.getIndexName() + "创建失败", e);
+				failed.add(indexBean.getIndexName() + ":" + e.getMessage());
+			}
+		}
+		result.setElapsedMillis(System.currentTimeMillis() - start);
+		if (failed.isEmpty()) {
+			result.setStatus(MigrateStatusEnum.CREATED);
+		} else {
+			result.setStatus(MigrateStatusEnum.FAILED);
+			result.setErrorMessage("索引创建失败 " + String.join("; ", failed));
+		}
+		log.info("数据表{}创建索引{}个,失败{}个,耗时:{}ms", tableBean.getTableName(), created, failed.size(), result.getElapsedMillis());
+		return result;
+	}
+}
@@ -0,0 +1,77 @@
+package com.inspur.rdms.migrate;
+
+import com.inspur.rdms.pipe.CopyOptions;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 模式迁移参数
+ *
+ * @author Neo
+ * @date 2019/3/12 9:12
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class MigrateOptions {
+	/**
+	 * 并行迁移的表数，executor为空时按此创建线程池
+	 */
+	private int threads = 4;
+	/**
+	 * 外部传入的线程池，迁移结束后不关闭
+	 */
+	private ExecutorService executor;
+	/**
+	 * 只迁移这些表，为空时迁移模式下全部的表
+	 */
+	private List<String> tableNames;
+	/**
+	 * 建表后是否复制数据
+	 */
+	private boolean copyData = false;
+	/**
+	 * 数据复制参数
+	 */
+	private CopyOptions copyOptions = new CopyOptions();
+	/**
+	 * 复制数据时每个分片的预估行数，超过的表按主键范围切分，空闲线程可窃取分片
+	 */
+	private long chunkRows = 1000000;
+	/**
+	 * 是否创建二级索引，建表时只建主键，数据复制完成后再按表并行创建
+	 */
+	private boolean createIndexes = true;
+	/**
+	 * PostgreSQL使用CREATE INDEX CONCURRENTLY，不阻塞目标表写入，但耗时更长
+	 */
+	private boolean concurrentIndexes = false;
+	/**
+	 * 批量加载模式，用于迁移到新目标库：PostgreSQL建UNLOGGED表并关闭同步提交，复制完成后改为LOGGED；
+	 * MySQL写入时关闭唯一性检查、外键检查和binlog
+	 */
+	private boolean bulkLoad = false;
+	/**
+	 * 目标表已存在时比较结构，执行新增列、扩大类型、默认值和注释等变更，而不是跳过
+	 */
+	private boolean alterExisting = false;
+	/**
+	 * 是否执行需要重写整表的变更，否则只记录到pendingStatements
+	 */
+	private boolean allowRewrite = false;
+	/**
+	 * 是否删除源表中没有的列，否则只记录到pendingStatements
+	 */
+	private boolean dropColumns = false;
+	/**
+	 * 结构指纹文件目录，为空时不使用指纹；目标表已存在且源表指纹与上次同步成功时相同的表不再比较结构和执行DDL
+	 */
+	private File fingerprintDir;
+}
@@ -0,0 +1,30 @@
+package com.inspur.rdms.migrate;
+
+/**
+ * 单表迁移状态
+ *
+ * @author Neo
+ * @date 2019/3/12 9:10
+ */
+public enum MigrateStatusEnum {
+	/**
+	 * 目标表创建成功
+	 */
+	CREATED,
+	/**
+	 * 目标表已存在，未做处理
+	 */
+	EXISTS,
+	/**
+	 * 目标表已存在，已按源表结构修改
+	 */
+	ALTERED,
+	/**
+	 * 目标表已存在，源表结构指纹与上次同步相同，跳过比较
+	 */
+	UNCHANGED,
+	/**
+	 * 迁移失败
+	 */
+	FAILED
+}
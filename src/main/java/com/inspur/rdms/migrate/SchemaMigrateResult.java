@@ -0,0 +1,34 @@
+package com.inspur.rdms.migrate;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模式迁移结果
+ *
+ * @author Neo
+ * @date 2019/3/12 9:18
+ */
+@Getter
+@Setter
+public class SchemaMigrateResult {
+	/**
+	 * 模式
+	 */
+	private String schema;
+	/**
+	 * 每张表的结果，按源库中表的顺序排列
+	 */
+	private List<TableMigrateResult> tableResults = new ArrayList<>();
+	/**
+	 * 总耗时，单位毫秒
+	 */
+	private long elapsedMillis;
+
+	public long count(MigrateStatusEnum status) {
+		return this.tableResults.stream().filter(r -> status == r.getStatus()).count();
+	}
+}
@@ -0,0 +1,363 @@
+package com.inspur.rdms.migrate;
+
+import com.inspur.rdms.bean.CatelogBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.diff.ChangeTypeEnum;
+import com.inspur.rdms.diff.ColumnChange;
+import com.inspur.rdms.diff.TableDiff;
+import com.inspur.rdms.diff.TableFingerprint;
+import com.inspur.rdms.impl.DatabaseImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 整个模式的迁移：一次加载源库结构，按表并行建表，单表失败不影响其它表
+ * 复制数据时在建表完成后由CopyScheduler按表大小统一调度
+ * 建表时只建主键，二级索引在数据复制完成后由IndexBuilder创建，避免逐行维护索引
+ * 批量加载只作用于本次迁移建的表和复制使用的连接，不修改目标handler的状态，共用handler的其它调用不受影响，
+ * 结束后(包括失败)恢复本次新建的表
+ * 已存在的表可按源表结构生成ALTER TABLE修改，需要重写整表的变更默认只记录，由调用方单独安排
+ * 设置指纹目录后，源表结构与上次同步成功时相同的已存在表直接跳过，重复同步时只处理变化的表
+ *
+ * @author Neo
+ * @date 2019/3/12 9:30
+ */
+public class SchemaMigrator {
+	private static Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+	private SchemaMigrator() {
+	}
+
+	/**
+	 * 迁移模式下的数据表
+	 *
+	 * @param source  源库
+	 * @param target  目标库
+	 * @param schema  源库模式
+	 * @param options 迁移参数
+	 * @return SchemaMigrateResult 每张表的迁移结果
+	 */
+	public static SchemaMigrateResult migrateSchema(DatabaseImpl source, DatabaseImpl target, String schema, MigrateOptions options) {
+		long start = System.currentTimeMillis();
+		MigrateOptions opts = null == options ? new MigrateOptions() : options;
+		SchemaMigrateResult result = new SchemaMigrateResult();
+		result.setSchema(schema);
+
+		CatelogBean catelogBean = source.queryCatalog(schema);
+		List<TableBean> tables = selectTables(catelogBean, opts);
+		FingerprintStore fingerprints = null == opts.getFingerprintDir() ? null
+			: FingerprintStore.forTarget(opts.getFingerprintDir(), target, schema);
+		List<TableBean> created = new ArrayList<>();
+		try {
+			createTables(target, schema, tables, result, opts);
+			if (null != fingerprints) {
+				skipUnchanged(catelogBean, fingerprints, result);
+			}
+			for (TableMigrateResult tableResult : result.getTableResults()) {
+				if (MigrateStatusEnum.CREATED == tableResult.getStatus()) {
+					created.add(catelogBean.getTable(tableResult.getTableName()));
+				}
+			}
+			if (opts.isAlterExisting() && !Thread.currentThread().isInterrupted()) {
+				alterTables(target, catelogBean, result, opts);
+			}
+			if (opts.isCopyData() && !Thread.currentThread().isInterrupted()) {
+				copyData(source, target, schema, catelogBean, result, opts);
+			}
+		} finally {
+			if (opts.isBulkLoad()) {
+				finishBulkLoad(target, created, result);
+			}
+		}
+		if (opts.isCreateIndexes() && !Thread.currentThread().isInterrupted()) {
+			buildIndexes(target, catelogBean, result, opts);
+		}
+		if (null != fingerprints) {
+			saveFingerprints(catelogBean, fingerprints, result, opts);
+		}
+		result.setElapsedMillis(System.currentTimeMillis() - start);
+		log.info("模式{}迁移完成,新建:{},已存在:{},修改:{},未变化:{},失败:{},耗时:{}ms", schema,
+			result.count(MigrateStatusEnum.CREATED), result.count(MigrateStatusEnum.EXISTS), result.count(MigrateStatusEnum.ALTERED),
+			result.count(MigrateStatusEnum.UNCHANGED), result.count(MigrateStatusEnum.FAILED), result.getElapsedMillis());
+		return result;
+	}
+
+	/**
+	 * 一次查询目标库中已存在的表，其余的表按表并行建表
+	 */
+	private static void createTables(DatabaseImpl target, String schema, List<TableBean> tables, SchemaMigrateResult result, MigrateOptions opts) {
+		List<String> names = new ArrayList<>();
+		for (TableBean tableBean : tables) {
+			names.add(tableBean.getTableName());
+		}
+		Set<String> existing;
+		try {
+			existing = target.existingTables(null, names);
+		} catch (RuntimeException e) {
+			log.info("批量查询目标表是否存在失败，逐表检查", e);
+			existing = null;
+		}
+		Set<String> exists = existing;
+		ExecutorService executor = opts.getExecutor();
+		boolean ownExecutor = null == executor;
+		if (ownExecutor) {
+			executor = Executors.newFixedThreadPool(Math.max(1, opts.getThreads()));
+		}
+
+		try {
+			List<Future<TableMigrateResult>> futures = new ArrayList<>();
+			for (TableBean tableBean : tables) {
+				futures.add(executor.submit(() -> migrateTable(target, tableBean, exists, opts.isBulkLoad())));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					result.getTableResults().add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					result.getTableResults().add(new TableMigrateResult(tables.get(i).getTableName(), MigrateStatusEnum.FAILED, 0, 0, String.valueOf(e.getCause())));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.info("模式{}迁移被中断", schema);
+		} finally {
+			if (ownExecutor) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * 已存在的表中源表指纹与上次同步相同的标记为UNCHANGED，不再比较结构
+	 */
+	private static void skipUnchanged(CatelogBean catelogBean, FingerprintStore fingerprints, SchemaMigrateResult result) {
+		int skipped = 0;
+		for (TableMigrateResult tableResult : result.getTableResults()) {
+			if (MigrateStatusEnum.EXISTS != tableResult.getStatus()) {
+				continue;
+			}
+			String last = fingerprints.get(tableResult.getTableName());
+			if (null != last && last.equals(TableFingerprint.of(catelogBean.getTable(tableResult.getTableName())))) {
+				tableResult.setStatus(MigrateStatusEnum.UNCHANGED);
+				skipped++;
+			}
+		}
+		log.info("结构指纹未变化的数据表{}张,已记录指纹{}张", skipped, fingerprints.size());
+	}
+
+	/**
+	 * 记录同步成功的表的指纹：新建的表、修改后没有待安排语句的表、比较后没有差异的表；
+	 * 失败或有待安排语句的表删除指纹，下次重新比较；未比较结构的已存在表不记录
+	 */
+	private static void saveFingerprints(CatelogBean catelogBean, FingerprintStore fingerprints, SchemaMigrateResult result, MigrateOptions opts) {
+		for (TableMigrateResult tableResult : result.getTableResults()) {
+			String tableName = tableResult.getTableName();
+			boolean synced;
+			switch (tableResult.getStatus()) {
+				case UNCHANGED:
+					continue;
+				case CREATED:
+					synced = true;
+					break;
+				case ALTERED:
+					synced = tableResult.getPendingStatements().isEmpty();
+					break;
+				case EXISTS:
+					if (!opts.isAlterExisting() || null == tableResult.getDiff()) {
+						continue;
+					}
+					synced = tableResult.getPendingStatements().isEmpty();
+					break;
+				default:
+					synced = false;
+			}
+			if (synced) {
+				fingerprints.put(tableName, TableFingerprint.of(catelogBean.getTable(tableName)));
+			} else {
+				fingerprints.remove(tableName);
+			}
+		}
+		fingerprints.save();
+	}
+
+	/**
+	 * 一次加载目标库结构，按源表修改已存在的表；需要重写整表和删除列的变更按参数执行或只记录
+	 */
+	private static void alterTables(DatabaseImpl target, CatelogBean catelogBean, SchemaMigrateResult result, MigrateOptions opts) {
+		List<TableMigrateResult> existing = new ArrayList<>();
+		for (TableMigrateResult tableResult : result.getTableResults()) {
+			if (MigrateStatusEnum.EXISTS == tableResult.getStatus()) {
+				existing.add(tableResult);
+			}
+		}
+		if (existing.isEmpty()) {
+			return;
+		}
+		CatelogBean currentCatalog = target.queryCatalog(target.getSchema(""));
+		for (TableMigrateResult tableResult : existing) {
+			TableBean current = currentCatalog.getTable(tableResult.getTableName());
+			if (null == current) {
+				continue;
+			}
+			long start = System.currentTimeMillis();
+			TableDiff diff = target.diffTable(catelogBean.getTable(tableResult.getTableName()), current);
+			tableResult.setDiff(diff);
+			int applied = 0;
+			for (ColumnChange change : diff.getChanges()) {
+				if ((ChangeTypeEnum.DROP_COLUMN == change.getChangeType() && !opts.isDropColumns())
+					|| (change.isRewrite() && !opts.isAllowRewrite())) {
+					tableResult.getPendingStatements().add(change.getSql());
+					continue;
+				}
+				try {
+					target.executeSql(change.getSql());
+					applied++;
+				} catch (RuntimeException e) {
+					log.info("数据表" + tableResult.getTableName() + "修改失败", e);
+					tableResult.setStatus(MigrateStatusEnum.FAILED);
+					tableResult.setErrorMessage(e.toString());
+					break;
+				}
+			}
+			if (applied > 0 && MigrateStatusEnum.FAILED != tableResult.getStatus()) {
+				tableResult.setStatus(MigrateStatusEnum.ALTERED);
+			}
+			tableResult.setElapsedMillis(tableResult.getElapsedMillis() + System.currentTimeMillis() - start);
+			if (!diff.isEmpty()) {
+				log.info("数据表{}结构差异{}项,已执行:{},待安排:{}", tableResult.getTableName(), diff.getChanges().size(),
+					applied, tableResult.getPendingStatements().size());
+			}
+		}
+	}
+
+	/**
+	 * 批量加载结束后恢复新建表的设置，数据复制失败的表同样处理
+	 */
+	private static void finishBulkLoad(DatabaseImpl target, List<TableBean> created, SchemaMigrateResult result) {
+		for (TableBean tableBean : created) {
+			try {
+				target.finishBulkLoad(tableBean);
+			} catch (RuntimeException e) {
+				log.info("数据表" + tableBean.getTableName() + "结束批量加载失败", e);
+				for (TableMigrateResult tableResult : result.getTableResults()) {
+					if (tableResult.getTableName().equals(tableBean.getTableName())) {
+						tableResult.setStatus(MigrateStatusEnum.FAILED);
+						tableResult.setErrorMessage(e.toString());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 只迁移数据表，视图不处理
+	 */
+	private static List<TableBean> selectTables(CatelogBean catelogBean, MigrateOptions opts) {
+		List<TableBean> tables = new ArrayList<>();
+		if (null != opts.getTableNames() && !opts.getTableNames().isEmpty()) {
+			for (String tableName : opts.getTableNames()) {
+				TableBean tableBean = catelogBean.getTable(tableName);
+				if (null == tableBean) {
+					log.info("源库中不存在数据表{}", tableName);
+				} else if ("TABLE".equalsIgnoreCase(tableBean.getType())) {
+					tables.add(tableBean);
+				}
+			}
+			return tables;
+		}
+		for (TableBean tableBean : catelogBean.getTableList()) {
+			if ("TABLE".equalsIgnoreCase(tableBean.getType())) {
+				tables.add(tableBean);
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * 复制新建表的数据，已存在的表不复制
+	 */
+	private static void copyData(DatabaseImpl source, DatabaseImpl target, String schema, CatelogBean catelogBean,
+								 SchemaMigrateResult result, MigrateOptions opts) {
+		List<TableBean> created = new ArrayList<>();
+		for (TableMigrateResult tableResult : result.getTableResults()) {
+			if (MigrateStatusEnum.CREATED == tableResult.getStatus()) {
+				created.add(catelogBean.getTable(tableResult.getTableName()));
+			}
+		}
+		Map<String, TableMigrateResult> copyResults = new CopyScheduler(source, target, schema, opts).copy(created);
+		for (TableMigrateResult tableResult : result.getTableResults()) {
+			TableMigrateResult copyResult = copyResults.get(tableResult.getTableName());
+			if (null == copyResult) {
+				continue;
+			}
+			tableResult.setRowCount(copyResult.getRowCount());
+			tableResult.setElapsedMillis(tableResult.getElapsedMillis() + copyResult.getElapsedMillis());
+			if (MigrateStatusEnum.FAILED == copyResult.getStatus()) {
+				tableResult.setStatus(MigrateStatusEnum.FAILED);
+				tableResult.setErrorMessage(copyResult.getErrorMessage());
+			}
+		}
+	}
+
+	/**
+	 * 为新建的表创建二级索引，行数多的表先开始
+	 */
+	private static void buildIndexes(DatabaseImpl target, CatelogBean catelogBean, SchemaMigrateResult result, MigrateOptions opts) {
+		List<TableMigrateResult> created = new ArrayList<>();
+		for (TableMigrateResult tableResult : result.getTableResults()) {
+			if (MigrateStatusEnum.CREATED == tableResult.getStatus()) {
+				created.add(tableResult);
+			}
+		}
+		created.sort((a, b) -> Long.compare(b.getRowCount(), a.getRowCount()));
+		List<TableBean> tables = new ArrayList<>();
+		for (TableMigrateResult tableResult : created) {
+			tables.add(catelogBean.getTable(tableResult.getTableName()));
+		}
+		Map<String, TableMigrateResult> indexResults = new IndexBuilder(target, opts).build(tables);
+		for (TableMigrateResult tableResult : created) {
+			TableMigrateResult indexResult = indexResults.get(tableResult.getTableName());
+			if (null == indexResult) {
+				continue;
+			}
+			tableResult.setElapsedMillis(tableResult.getElapsedMillis() + indexResult.getElapsedMillis());
+			if (MigrateStatusEnum.FAILED == indexResult.getStatus()) {
+				tableResult.setStatus(MigrateStatusEnum.FAILED);
+				tableResult.setErrorMessage(indexResult.getErrorMessage());
+			}
+		}
+	}
+
+	/**
+	 * @param existing 目标库中已存在的表名，为null时逐表检查
+	 * @param bulkLoad 是否按批量加载建表
+	 */
+	private static TableMigrateResult migrateTable(DatabaseImpl target, TableBean tableBean, Set<String> existing, boolean bulkLoad) {
+		long start = System.currentTimeMillis();
+		TableMigrateResult result = new TableMigrateResult();
+		result.setTableName(tableBean.getTableName());
+		try {
+			if (null == existing ? target.isTableExists(tableBean.getTableName()) : existing.contains(tableBean.getTableName())) {
+				log.info(tableBean.getTableName() + " 数据表已经存在");
+				result.setStatus(MigrateStatusEnum.EXISTS);
+			} else {
+				target.createTable(tableBean, bulkLoad);
+				result.setStatus(MigrateStatusEnum.CREATED);
+			}
+		} catch (RuntimeException e) {
+			log.info("数据表" + tableBean.getTableName() + "迁移失败", e);
+			result.setStatus(MigrateStatusEnum.FAILED);
+			result.setErrorMessage(e.toString());
+		}
+		result.setElapsedMillis(System.currentTimeMillis() - start);
+		return result;
+	}
+}
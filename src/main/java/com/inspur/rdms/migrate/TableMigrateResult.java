@@ -0,0 +1,57 @@
+package com.inspur.rdms.migrate;
+
+import com.inspur.rdms.diff.TableDiff;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单表迁移结果
+ *
+ * @author Neo
+ * @date 2019/3/12 9:15
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class TableMigrateResult {
+	/**
+	 * 表名
+	 */
+	private String tableName;
+	/**
+	 * 迁移状态
+	 */
+	private MigrateStatusEnum status;
+	/**
+	 * 复制的行数
+	 */
+	private long rowCount;
+	/**
+	 * 耗时，单位毫秒
+	 */
+	private long elapsedMillis;
+	/**
+	 * 失败原因
+	 */
+	private String errorMessage;
+	/**
+	 * 已存在的表与源表的结构差异，未比较时为null
+	 */
+	private TableDiff diff;
+	/**
+	 * 未执行、需要单独安排的变更语句(重写整表或删除列)
+	 */
+	private List<String> pendingStatements = new ArrayList<>();
+
+	public TableMigrateResult(String tableName, MigrateStatusEnum status, long rowCount, long elapsedMillis, String errorMessage) {
+		this.tableName = tableName;
+		this.status = status;
+		this.rowCount = rowCount;
+		this.elapsedMillis = elapsedMillis;
+		this.errorMessage = errorMessage;
+	}
+}
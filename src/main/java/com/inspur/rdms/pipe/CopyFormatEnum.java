@@ -0,0 +1,28 @@
+package com.inspur.rdms.pipe;
+
+/**
+ * PostgreSQL COPY的数据格式
+ *
+ * @author Neo
+ * @date 2019/3/7 9:15
+ */
+public enum CopyFormatEnum {
+	/**
+	 * 文本格式，兼容所有类型
+	 */
+	TEXT("text"),
+	/**
+	 * 二进制格式，解析开销更小，只支持常见类型，存在不支持的列时退回文本格式
+	 */
+	BINARY("binary");
+
+	private String format;
+
+	private CopyFormatEnum(String format) {
+		this.format = format;
+	}
+
+	public String getFormat() {
+		return format;
+	}
+}
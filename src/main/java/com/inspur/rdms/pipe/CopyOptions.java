@@ -0,0 +1,57 @@
+package com.inspur.rdms.pipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 数据复制参数
+ *
+ * @author Neo
+ * @date 2019/3/6 9:40
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CopyOptions {
+	/**
+	 * 每批读取和写入的行数
+	 */
+	private int batchSize = 1000;
+	/**
+	 * 每写入多少行提交一次事务
+	 */
+	private int commitInterval = 10000;
+	/**
+	 * 读写之间的队列可缓存的批次数，决定了复制过程中占用的最大内存
+	 */
+	private int queueCapacity = 4;
+	/**
+	 * 读取时的fetchSize
+	 */
+	private int fetchSize = 1000;
+	/**
+	 * 单表并行复制的分片数，大于1时按主键范围切分，每个分片各占用一个源连接和一个目标连接
+	 */
+	private int parallelism = 1;
+	/**
+	 * 复制进度，为null时不统计
+	 */
+	private CopyProgressTracker progressTracker;
+	/**
+	 * 批量加载：写入连接按beginBulkLoad调整会话参数，只影响本次复制使用的连接
+	 */
+	private boolean bulkLoad = false;
+
+	/**
+	 * 复制一份参数，用于按单次迁移调整而不修改调用方的对象
+	 *
+	 * @return CopyOptions 新的参数对象
+	 */
+	public CopyOptions copy() {
+		return new CopyOptions(this.batchSize, this.commitInterval, this.queueCapacity, this.fetchSize,
+			this.parallelism, this.progressTracker, this.bulkLoad);
+	}
+}
@@ -0,0 +1,206 @@
+package com.inspur.rdms.pipe;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个数据表的复制进度，读取和写入线程并发更新
+ * 读取等待：队列已满，读取线程等待写入，说明写入(目标库)是瓶颈
+ * 写入等待：队列为空，写入线程等待读取，说明读取(源库)是瓶颈
+ *
+ * @author Neo
+ * @date 2019/3/20 9:30
+ */
+public class CopyProgress {
+	/**
+	 * 表名
+	 */
+	@Getter
+	private final String tableName;
+	/**
+	 * 预估行数，来自统计信息，未知时为-1
+	 */
+	@Getter
+	@Setter
+	private volatile long estimatedRows = -1;
+	/**
+	 * 复制失败时的异常信息
+	 */
+	@Getter
+	@Setter
+	private volatile String errorMessage;
+
+	private final AtomicLong rowCount = new AtomicLong();
+	private final AtomicLong byteCount = new AtomicLong();
+	private final AtomicLong readStallNanos = new AtomicLong();
+	private final AtomicLong writeStallNanos = new AtomicLong();
+	/**
+	 * 进行中的复制数，并行复制时整表和每个分片各计一次
+	 */
+	private final AtomicInteger running = new AtomicInteger();
+	private volatile long startMillis;
+	private volatile long finishMillis;
+
+	public CopyProgress(String tableName) {
+		this.tableName = tableName;
+	}
+
+	/**
+	 * 开始一次复制，返回true表示整表开始
+	 */
+	boolean begin() {
+		if (0 == this.running.getAndIncrement() && 0 == this.startMillis) {
+			this.startMillis = System.currentTimeMillis();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 结束一次复制，返回true表示整表结束
+	 */
+	boolean end() {
+		if (0 == this.running.decrementAndGet()) {
+			this.finishMillis = System.currentTimeMillis();
+			return true;
+		}
+		return false;
+	}
+
+	void addRows(long rows, long bytes) {
+		this.rowCount.addAndGet(rows);
+		this.byteCount.addAndGet(bytes);
+	}
+
+	void addReadStall(long nanos) {
+		this.readStallNanos.addAndGet(nanos);
+	}
+
+	void addWriteStall(long nanos) {
+		this.writeStallNanos.addAndGet(nanos);
+	}
+
+	public boolean isStarted() {
+		return 0 != this.startMillis;
+	}
+
+	public boolean isFinished() {
+		return 0 != this.finishMillis && 0 == this.running.get();
+	}
+
+	public long getRowCount() {
+		return this.rowCount.get();
+	}
+
+	/**
+	 * 已写入数据的估算字节数
+	 */
+	public long getByteCount() {
+		return this.byteCount.get();
+	}
+
+	public long getReadStallMillis() {
+		return this.readStallNanos.get() / 1000000;
+	}
+
+	public long getWriteStallMillis() {
+		return this.writeStallNanos.get() / 1000000;
+	}
+
+	/**
+	 * 已用时间，单位毫秒
+	 */
+	public long getElapsedMillis() {
+		if (!this.isStarted()) {
+			return 0;
+		}
+		return (this.isFinished() ? this.finishMillis : System.currentTimeMillis()) - this.startMillis;
+	}
+
+	public double getRowsPerSecond() {
+		long elapsed = this.getElapsedMillis();
+		return 0 == elapsed ? 0 : this.getRowCount() * 1000.0 / elapsed;
+	}
+
+	public double getBytesPerSecond() {
+		long elapsed = this.getElapsedMillis();
+		return 0 == elapsed ? 0 : this.getByteCount() * 1000.0 / elapsed;
+	}
+
+	/**
+	 * 按当前速度和预估行数计算的剩余时间
+	 *
+	 * @return long 单位毫秒，已完成为0，无法估算时为-1
+	 */
+	public long getEtaMillis() {
+		if (this.isFinished()) {
+			return 0;
+		}
+		return eta(this.estimatedRows, this.getRowCount(), this.getRowsPerSecond());
+	}
+
+	/**
+	 * 瓶颈所在：读取等待多说明目标库写入慢，写入等待多说明源库读取慢
+	 *
+	 * @return String target/source，等待时间相近时为balanced
+	 */
+	public String getBottleneck() {
+		return bottleneck(this.readStallNanos.get(), this.writeStallNanos.get());
+	}
+
+	static long eta(long estimatedRows, long rowCount, double rowsPerSecond) {
+		if (estimatedRows < 0 || rowsPerSecond <= 0) {
+			return -1;
+		}
+		return (long) (Math.max(0, estimatedRows - rowCount) * 1000 / rowsPerSecond);
+	}
+
+	static String bottleneck(long readStall, long writeStall) {
+		if (readStall > writeStall * 2) {
+			return "target";
+		}
+		if (writeStall > readStall * 2) {
+			return "source";
+		}
+		return "balanced";
+	}
+
+	/**
+	 * 估算一行数据的字节数，用于计算吞吐量
+	 *
+	 * @param row 行数据
+	 * @return long 字节数
+	 */
+	static long estimateBytes(Object[] row) {
+		long bytes = 0;
+		for (Object value : row) {
+			if (null == value) {
+				bytes += 1;
+			} else if (value instanceof byte[]) {
+				bytes += ((byte[]) value).length;
+			} else if (value instanceof CharSequence) {
+				bytes += ((CharSequence) value).length();
+			} else if (value instanceof Number || value instanceof Boolean) {
+				bytes += 8;
+			} else {
+				bytes += String.valueOf(value).length();
+			}
+		}
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s rows=%d%s rows/s=%.0f KB/s=%.1f elapsed=%ds eta=%s readStall=%dms writeStall=%dms bottleneck=%s",
+			this.tableName, this.getRowCount(), this.estimatedRows >= 0 ? "/" + this.estimatedRows : "",
+			this.getRowsPerSecond(), this.getBytesPerSecond() / 1024, this.getElapsedMillis() / 1000,
+			formatEta(this.getEtaMillis()), this.getReadStallMillis(), this.getWriteStallMillis(), this.getBottleneck());
+	}
+
+	static String formatEta(long etaMillis) {
+		return etaMillis < 0 ? "unknown" : etaMillis / 1000 + "s";
+	}
+}
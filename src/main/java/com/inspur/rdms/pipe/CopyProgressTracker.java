@@ -0,0 +1,242 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.impl.CopyListenerImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复制任务的进度：汇总各数据表的进度，通知监听器，并可定时输出进度日志
+ * 通过CopyOptions.progressTracker传给复制过程，多张表共用一个tracker即为一个任务
+ *
+ * @author Neo
+ * @date 2019/3/20 10:10
+ */
+public class CopyProgressTracker {
+	private static Logger log = LoggerFactory.getLogger(CopyProgressTracker.class);
+
+	private final Map<String, CopyProgress> tables = new ConcurrentHashMap<>();
+	private final List<CopyListenerImpl> listeners = new CopyOnWriteArrayList<>();
+	private final long startMillis = System.currentTimeMillis();
+	private ScheduledExecutorService reporter;
+
+	/**
+	 * 添加监听器
+	 *
+	 * @param listener 监听器
+	 */
+	public void addListener(CopyListenerImpl listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * 设置数据表的预估行数，用于计算剩余时间
+	 *
+	 * @param tableName     表名
+	 * @param estimatedRows 预估行数
+	 */
+	public void setEstimatedRows(String tableName, long estimatedRows) {
+		this.table(tableName).setEstimatedRows(estimatedRows);
+	}
+
+	/**
+	 * 获取数据表的进度，不存在时创建
+	 *
+	 * @param tableName 表名
+	 * @return CopyProgress 数据表进度
+	 */
+	public CopyProgress table(String tableName) {
+		return this.tables.computeIfAbsent(tableName, CopyProgress::new);
+	}
+
+	/**
+	 * 全部数据表的进度
+	 *
+	 * @return List 数据表进度
+	 */
+	public List<CopyProgress> getTables() {
+		return new ArrayList<>(this.tables.values());
+	}
+
+	/**
+	 * 数据表(或其分片)开始复制，与end成对调用，嵌套调用时只在最外层通知监听器，监听器的异常只记录日志，不影响复制
+	 *
+	 * @param progress 数据表进度
+	 */
+	public void begin(CopyProgress progress) {
+		if (progress.begin()) {
+			for (CopyListenerImpl listener : this.listeners) {
+				try {
+					listener.onTableStart(progress);
+				} catch (RuntimeException e) {
+					log.info("进度监听器异常", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 数据表(或其分片)复制结束
+	 *
+	 * @param progress 数据表进度
+	 * @param error    异常，成功时为null
+	 */
+	public void end(CopyProgress progress, Throwable error) {
+		if (null != error && null == progress.getErrorMessage()) {
+			progress.setErrorMessage(error.toString());
+		}
+		if (progress.end()) {
+			for (CopyListenerImpl listener : this.listeners) {
+				try {
+					listener.onTableFinish(progress);
+				} catch (RuntimeException e) {
+					log.info("进度监听器异常", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 开始定时输出进度日志并回调监听器
+	 *
+	 * @param intervalMillis 间隔，单位毫秒
+	 */
+	public synchronized void start(long intervalMillis) {
+		if (null != this.reporter) {
+			return;
+		}
+		this.reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "jdbcPipe-progress");
+			t.setDaemon(true);
+			return t;
+		});
+		this.reporter.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 停止定时输出，并输出最后一次进度
+	 */
+	public synchronized void stop() {
+		if (null != this.reporter) {
+			this.reporter.shutdownNow();
+			this.reporter = null;
+			this.report();
+		}
+	}
+
+	/**
+	 * 输出一次进度日志并回调监听器
+	 */
+	public void report() {
+		log.info("{}", this);
+		for (CopyProgress progress : this.tables.values()) {
+			if (progress.isStarted() && !progress.isFinished()) {
+				log.info("  {}", progress);
+			}
+		}
+		for (CopyListenerImpl listener : this.listeners) {
+			try {
+				listener.onProgress(this);
+			} catch (RuntimeException e) {
+				log.info("进度监听器异常", e);
+			}
+		}
+	}
+
+	public long getRowCount() {
+		long rows = 0;
+		for (CopyProgress progress : this.tables.values()) {
+			rows += progress.getRowCount();
+		}
+		return rows;
+	}
+
+	public long getByteCount() {
+		long bytes = 0;
+		for (CopyProgress progress : this.tables.values()) {
+			bytes += progress.getByteCount();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 全部数据表的预估行数之和，有任一表未知时为-1
+	 */
+	public long getEstimatedRows() {
+		long rows = 0;
+		for (CopyProgress progress : this.tables.values()) {
+			if (progress.getEstimatedRows() < 0) {
+				return -1;
+			}
+			rows += progress.getEstimatedRows();
+		}
+		return rows;
+	}
+
+	public long getElapsedMillis() {
+		return System.currentTimeMillis() - this.startMillis;
+	}
+
+	public double getRowsPerSecond() {
+		long elapsed = this.getElapsedMillis();
+		return 0 == elapsed ? 0 : this.getRowCount() * 1000.0 / elapsed;
+	}
+
+	public double getBytesPerSecond() {
+		long elapsed = this.getElapsedMillis();
+		return 0 == elapsed ? 0 : this.getByteCount() * 1000.0 / elapsed;
+	}
+
+	/**
+	 * 整个任务的剩余时间
+	 *
+	 * @return long 单位毫秒，无法估算时为-1
+	 */
+	public long getEtaMillis() {
+		return CopyProgress.eta(this.getEstimatedRows(), this.getRowCount(), this.getRowsPerSecond());
+	}
+
+	public long getReadStallMillis() {
+		long stall = 0;
+		for (CopyProgress progress : this.tables.values()) {
+			stall += progress.getReadStallMillis();
+		}
+		return stall;
+	}
+
+	public long getWriteStallMillis() {
+		long stall = 0;
+		for (CopyProgress progress : this.tables.values()) {
+			stall += progress.getWriteStallMillis();
+		}
+		return stall;
+	}
+
+	public int getFinishedCount() {
+		int count = 0;
+		for (CopyProgress progress : this.tables.values()) {
+			if (progress.isFinished()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		long estimated = this.getEstimatedRows();
+		return String.format("copy progress tables=%d/%d rows=%d%s rows/s=%.0f KB/s=%.1f elapsed=%ds eta=%s readStall=%dms writeStall=%dms bottleneck=%s",
+			this.getFinishedCount(), this.tables.size(), this.getRowCount(), estimated >= 0 ? "/" + estimated : "",
+			this.getRowsPerSecond(), this.getBytesPerSecond() / 1024, this.getElapsedMillis() / 1000,
+			CopyProgress.formatEta(this.getEtaMillis()), this.getReadStallMillis(), this.getWriteStallMillis(),
+			CopyProgress.bottleneck(this.getReadStallMillis(), this.getWriteStallMillis()));
+	}
+}
@@ -0,0 +1,31 @@
+package com.inspur.rdms.pipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 单个数据表的复制结果
+ *
+ * @author Neo
+ * @date 2019/3/6 9:42
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CopyResult {
+	/**
+	 * 表名
+	 */
+	private String tableName;
+	/**
+	 * 写入的行数
+	 */
+	private long rowCount;
+	/**
+	 * 耗时，单位毫秒
+	 */
+	private long elapsedMillis;
+}
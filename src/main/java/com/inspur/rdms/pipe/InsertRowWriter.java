@@ -0,0 +1,65 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.RowWriterImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 通用的批量INSERT写入
+ *
+ * @author Neo
+ * @date 2019/3/6 10:05
+ */
+public class InsertRowWriter implements RowWriterImpl {
+	private final DatabaseImpl database;
+	private final TableBean tableBean;
+	private PreparedStatement psmt;
+
+	public InsertRowWriter(DatabaseImpl database, TableBean tableBean) {
+		this.database = database;
+		this.tableBean = tableBean;
+	}
+
+	@Override
+	public void open(Connection conn) throws SQLException {
+		StringBuilder columns = new StringBuilder();
+		StringBuilder values = new StringBuilder();
+		for (ColumnBean column : this.tableBean.getColumnList()) {
+			if (columns.length() > 0) {
+				columns.append(",");
+				values.append(",");
+			}
+			columns.append(this.database.handleQuote(column.getColumnName()));
+			values.append("?");
+		}
+		String sql = "INSERT INTO " + this.database.handleTableName(this.database.handleSchema(null), this.tableBean.getTableName())
+			+ " (" + columns + ") VALUES (" + values + ")";
+		this.psmt = conn.prepareStatement(sql);
+	}
+
+	@Override
+	public void write(List<Object[]> rows) throws SQLException {
+		for (Object[] row : rows) {
+			for (int i = 0; i < row.length; i++) {
+				this.psmt.setObject(i + 1, row[i]);
+			}
+			this.psmt.addBatch();
+		}
+		this.psmt.executeBatch();
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+		this.database.closeObject(null, this.psmt, null);
+	}
+}
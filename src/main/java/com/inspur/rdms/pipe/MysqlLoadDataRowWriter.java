@@ -0,0 +1,224 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.RowWriterImpl;
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * MySQL通过LOAD DATA LOCAL INFILE批量写入，数据经setLocalInfileInputStream从内存发送，不落临时文件
+ * 服务端或驱动禁用local_infile时退回批量INSERT(rewriteBatchedStatements改写为多行VALUES)
+ * LOCAL方式下重复键和类型转换错误只产生警告，每次发送后核对写入行数和警告，不一致时视为失败
+ *
+ * @author Neo
+ * @date 2019/3/8 9:20
+ */
+public class MysqlLoadDataRowWriter implements RowWriterImpl {
+	private static Logger log = LoggerFactory.getLogger(MysqlLoadDataRowWriter.class);
+	/**
+	 * 单次LOAD DATA发送的最大字节数
+	 */
+	private static final int MAX_BUFFER_BYTES = 4 * 1024 * 1024;
+	/**
+	 * ER_NOT_ALLOWED_COMMAND, ER_CLIENT_LOCAL_FILES_DISABLED
+	 */
+	private static final int ER_NOT_ALLOWED_COMMAND = 1148;
+	private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+
+	private final DatabaseImpl database;
+	private final TableBean tableBean;
+	private final String loadSql;
+
+	private Connection conn;
+	private RowWriterImpl fallback;
+	private boolean loaded;
+	/**
+	 * 缓冲区中的行数
+	 */
+	private int bufferedRows;
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+	public MysqlLoadDataRowWriter(DatabaseImpl database, TableBean tableBean) {
+		this.database = database;
+		this.tableBean = tableBean;
+		StringBuilder columnSql = new StringBuilder();
+		for (ColumnBean column : tableBean.getColumnList()) {
+			if (columnSql.length() > 0) {
+				columnSql.append(",");
+			}
+			columnSql.append(database.handleQuote(column.getColumnName()));
+		}
+		//文件名只是占位，数据来自setLocalInfileInputStream
+		this.loadSql = "LOAD DATA LOCAL INFILE 'jdbcPipe.tsv' INTO TABLE " + database.handleTableName(database.handleSchema(null), tableBean.getTableName())
+			+ " CHARACTER SET binary FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ("
+			+ columnSql + ")";
+	}
+
+	@Override
+	public void open(Connection conn) {
+		this.conn = conn;
+	}
+
+	@Override
+	public void write(List<Object[]> rows) throws SQLException {
+		if (null != this.fallback) {
+			this.fallback.write(rows);
+			return;
+		}
+		for (Object[] row : rows) {
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0) {
+					this.buffer.write('\t');
+				}
+				this.appendField(row[i]);
+			}
+			this.buffer.write('\n');
+			this.bufferedRows++;
+		}
+		//第一批立即发送，以便在缓冲区只含这一批时确认LOAD DATA是否可用
+		if (!this.loaded || this.buffer.size() >= MAX_BUFFER_BYTES) {
+			this.send(rows);
+		}
+	}
+
+	@Override
+	public void flush() throws SQLException {
+		if (null != this.fallback) {
+			this.fallback.flush();
+			return;
+		}
+		if (this.buffer.size() > 0) {
+			this.send(null);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (null != this.fallback) {
+			this.fallback.close();
+		}
+		this.buffer.reset();
+		this.bufferedRows = 0;
+	}
+
+	/**
+	 * 发送缓冲区中的数据，第一次发送被服务端拒绝时切换为批量INSERT
+	 *
+	 * @param rows 最近一批原始数据，用于切换写入方式后重写
+	 */
+	private void send(List<Object[]> rows) throws SQLException {
+		Statement stmt = null;
+		try {
+			stmt = this.conn.createStatement();
+			stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(this.buffer.toByteArray()));
+			int count = stmt.executeUpdate(this.loadSql);
+			this.loaded = true;
+			this.check(count, stmt.getWarnings());
+			this.buffer.reset();
+			this.bufferedRows = 0;
+		} catch (SQLException e) {
+			if (this.loaded || (ER_NOT_ALLOWED_COMMAND != e.getErrorCode() && ER_CLIENT_LOCAL_FILES_DISABLED != e.getErrorCode())) {
+				throw e;
+			}
+			log.info("LOAD DATA LOCAL INFILE不可用,{}改用批量INSERT:{}", this.tableBean.getTableName(), e.getMessage());
+			this.switchToInsert(rows);
+		} finally {
+			if (null != stmt) {
+				stmt.close();
+			}
+		}
+	}
+
+	/**
+	 * 写入行数与发送行数不一致(重复键被跳过)或有警告(数据被截断或转换)时抛出异常
+	 */
+	private void check(int count, SQLWarning warning) throws SQLException {
+		if (count == this.bufferedRows && null == warning) {
+			return;
+		}
+		String message = "LOAD DATA写入" + this.tableBean.getTableName() + "不完整,发送行数:" + this.bufferedRows + ",写入行数:" + count
+			+ (null == warning ? "" : ",警告:" + warning.getMessage());
+		SQLException e = new SQLException(message);
+		if (null != warning) {
+			e.setNextException(warning);
+		}
+		throw e;
+	}
+
+	/**
+	 * 切换为批量INSERT，并重写被拒绝的第一批数据
+	 */
+	private void switchToInsert(List<Object[]> rows) throws SQLException {
+		this.buffer.reset();
+		this.bufferedRows = 0;
+		this.fallback = new InsertRowWriter(this.database, this.tableBean);
+		this.fallback.open(this.conn);
+		if (null != rows) {
+			this.fallback.write(rows);
+		}
+	}
+
+	/**
+	 * 按LOAD DATA默认转义规则编码字段：NULL写为\N，反斜杠、制表符、换行、回车和NUL转义
+	 */
+	private void appendField(Object value) {
+		if (null == value) {
+			this.buffer.write('\\');
+			this.buffer.write('N');
+			return;
+		}
+		byte[] bytes;
+		if (value instanceof byte[]) {
+			bytes = (byte[]) value;
+		} else if (value instanceof Boolean) {
+			bytes = new byte[]{(byte) ((Boolean) value ? '1' : '0')};
+		} else if (value instanceof BigDecimal) {
+			bytes = ((BigDecimal) value).toPlainString().getBytes(StandardCharsets.UTF_8);
+		} else if (value instanceof java.util.Date && !(value instanceof java.sql.Date || value instanceof Time || value instanceof Timestamp)) {
+			bytes = new Timestamp(((java.util.Date) value).getTime()).toString().getBytes(StandardCharsets.UTF_8);
+		} else {
+			bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		for (byte b : bytes) {
+			switch (b) {
+				case '\\':
+					this.buffer.write('\\');
+					this.buffer.write('\\');
+					break;
+				case '\t':
+					this.buffer.write('\\');
+					this.buffer.write('t');
+					break;
+				case '\n':
+					this.buffer.write('\\');
+					this.buffer.write('n');
+					break;
+				case '\r':
+					this.buffer.write('\\');
+					this.buffer.write('r');
+					break;
+				case 0:
+					this.buffer.write('\\');
+					this.buffer.write('0');
+					break;
+				default:
+					this.buffer.write(b);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.exception.ExceptionEnum;
+import com.inspur.rdms.impl.DatabaseImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 单表并行复制：按主键范围切分后，每个分片在各自的连接上独立读取和写入
+ *
+ * @author Neo
+ * @date 2019/3/11 9:30
+ */
+public class ParallelTableCopier {
+	private static Logger log = LoggerFactory.getLogger(ParallelTableCopier.class);
+
+	private final DatabaseImpl source;
+	private final DatabaseImpl target;
+	private final CopyOptions options;
+
+	public ParallelTableCopier(DatabaseImpl source, DatabaseImpl target, CopyOptions options) {
+		this.source = source;
+		this.target = target;
+		this.options = null == options ? new CopyOptions() : options;
+	}
+
+	/**
+	 * 并行复制一张表，无法切分时退回单线程复制
+	 *
+	 * @param schema    源表的模式
+	 * @param tableBean 表结构
+	 * @return CopyResult 各分片的合计结果
+	 */
+	public CopyResult copy(String schema, TableBean tableBean) {
+		long start = System.currentTimeMillis();
+		List<String> chunks = this.source.splitTable(schema, tableBean, this.options.getParallelism());
+		TableCopier copier = new TableCopier(this.source, this.target, this.options);
+		if (chunks.size() <= 1) {
+			return copier.copy(schema, tableBean);
+		}
+		log.info("数据表{}切分为{}个分片并行复制", tableBean.getTableName(), chunks.size());
+		//整表计一次，避免某个分片先结束时被当作整表结束
+		CopyProgressTracker tracker = this.options.getProgressTracker();
+		CopyProgress progress = null == tracker ? null : tracker.table(tableBean.getTableName());
+		if (null != tracker) {
+			tracker.begin(progress);
+		}
+		Throwable error = null;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(chunks.size(), this.options.getParallelism()));
+		List<Future<CopyResult>> futures = new ArrayList<>();
+		try {
+			for (String chunk : chunks) {
+				futures.add(executor.submit(() -> copier.copy(schema, tableBean, chunk)));
+			}
+			long rowCount = 0;
+			for (Future<CopyResult> future : futures) {
+				rowCount += future.get().getRowCount();
+			}
+			return new CopyResult(tableBean.getTableName(), rowCount, System.currentTimeMillis() - start);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			error = cause;
+			if (cause instanceof DatabaseException) {
+				throw (DatabaseException) cause;
+			}
+			throw new DatabaseException(ExceptionEnum.DATA_COPY_EXCEPTION, "copy", "并行复制" + tableBean.getTableName() + "出现异常" + cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			error = e;
+			throw new DatabaseException(ExceptionEnum.DATA_COPY_EXCEPTION, "copy", "并行复制" + tableBean.getTableName() + "被中断");
+		} finally {
+			executor.shutdownNow();
+			if (null != tracker) {
+				tracker.end(progress, error);
+			}
+		}
+	}
+}
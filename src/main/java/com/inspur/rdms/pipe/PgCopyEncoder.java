@@ -0,0 +1,349 @@
+package com.inspur.rdms.pipe;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PostgreSQL COPY文本格式和二进制格式的编码
+ *
+ * @author Neo
+ * @date 2019/3/7 9:30
+ */
+public class PgCopyEncoder {
+	/**
+	 * 二进制格式文件头：签名 + flags + 扩展区长度
+	 */
+	static final byte[] BINARY_HEADER = {
+		'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0,
+		0, 0, 0, 0,
+		0, 0, 0, 0
+	};
+	/**
+	 * PostgreSQL日期的纪元 2000-01-01 与 1970-01-01 相差的天数和秒数
+	 */
+	private static final long PG_EPOCH_DAYS = 10957L;
+	private static final long PG_EPOCH_SECONDS = PG_EPOCH_DAYS * 86400L;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private PgCopyEncoder() {
+	}
+
+	/**
+	 * 二进制格式支持的目标列类型
+	 *
+	 * @param typeName exportSql中使用的类型名
+	 * @return boolean true:支持
+	 */
+	public static boolean isBinarySupported(String typeName) {
+		switch (typeName) {
+			case "SMALLINT":
+			case "INT4":
+			case "INTEGER":
+			case "INT8":
+			case "BIGINT":
+			case "REAL":
+			case "FLOAT":
+			case "NUMERIC":
+			case "DECIMAL":
+			case "BOOLEAN":
+			case "CHAR":
+			case "VARCHAR":
+			case "TEXT":
+			case "NCHAR":
+			case "NVARCHAR":
+			case "DATE":
+			case "TIME":
+			case "TIMESTAMP":
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * 文本格式编码一个字段：NULL写为\N，反斜杠和分隔符转义，bytea使用十六进制格式
+	 *
+	 * @param sb       输出
+	 * @param value    字段值
+	 * @param typeName 目标列类型
+	 */
+	public static void appendText(StringBuilder sb, Object value, String typeName) {
+		if (null == value) {
+			sb.append("\\N");
+			return;
+		}
+		if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			//bytea十六进制格式 \x...，反斜杠本身需要转义
+			sb.append("\\\\x");
+			for (byte b : bytes) {
+				sb.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+			}
+			return;
+		}
+		if (value instanceof Boolean) {
+			boolean b = (Boolean) value;
+			if ("BIT".equals(typeName)) {
+				sb.append(b ? '1' : '0');
+			} else {
+				sb.append(b ? 't' : 'f');
+			}
+			return;
+		}
+		if (value instanceof BigDecimal) {
+			sb.append(((BigDecimal) value).toPlainString());
+			return;
+		}
+		if (value instanceof Number || value instanceof java.sql.Date || value instanceof Time || value instanceof Timestamp) {
+			//数值和java.sql日期类型的toString不包含需要转义的字符
+			sb.append(value.toString());
+			return;
+		}
+		if (value instanceof java.util.Date) {
+			sb.append(new Timestamp(((java.util.Date) value).getTime()).toString());
+			return;
+		}
+		String s = value.toString();
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					sb.append(c);
+			}
+		}
+	}
+
+	/**
+	 * 二进制格式编码一个字段：int32长度 + 内容，NULL长度为-1
+	 *
+	 * @param out      输出
+	 * @param value    字段值
+	 * @param typeName 目标列类型
+	 */
+	public static void writeBinary(DataOutputStream out, Object value, String typeName) throws IOException, SQLException {
+		if (null == value) {
+			out.writeInt(-1);
+			return;
+		}
+		try {
+			switch (typeName) {
+				case "SMALLINT":
+					out.writeInt(2);
+					out.writeShort((short) toLong(value, Short.MIN_VALUE, Short.MAX_VALUE));
+					break;
+				case "INT4":
+				case "INTEGER":
+					out.writeInt(4);
+					out.writeInt((int) toLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+					break;
+				case "INT8":
+				case "BIGINT":
+					out.writeInt(8);
+					out.writeLong(toLong(value, Long.MIN_VALUE, Long.MAX_VALUE));
+					break;
+				case "REAL":
+					out.writeInt(4);
+					out.writeFloat(toNumber(value).floatValue());
+					break;
+				case "FLOAT":
+					out.writeInt(8);
+					out.writeDouble(toNumber(value).doubleValue());
+					break;
+				case "NUMERIC":
+				case "DECIMAL":
+					writeNumeric(out, toBigDecimal(value));
+					break;
+				case "BOOLEAN":
+					out.writeInt(1);
+					out.writeByte(toBoolean(value) ? 1 : 0);
+					break;
+				case "DATE":
+					out.writeInt(4);
+					out.writeInt((int) (toLocalDate(value).toEpochDay() - PG_EPOCH_DAYS));
+					break;
+				case "TIME":
+					out.writeInt(8);
+					out.writeLong(toLocalTime(value).toNanoOfDay() / 1000L);
+					break;
+				case "TIMESTAMP":
+					LocalDateTime ldt = toLocalDateTime(value);
+					out.writeInt(8);
+					out.writeLong((ldt.toEpochSecond(ZoneOffset.UTC) - PG_EPOCH_SECONDS) * 1000000L + ldt.getNano() / 1000L);
+					break;
+				default:
+					byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+			}
+		} catch (ClassCastException | NumberFormatException | ArithmeticException e) {
+			throw new SQLException("值" + value + "无法按" + typeName + "类型编码", e);
+		}
+	}
+
+	/**
+	 * numeric二进制格式：ndigits, weight, sign, dscale, 以10000为基数的各位
+	 */
+	private static void writeNumeric(DataOutputStream out, BigDecimal value) throws IOException {
+		if (value.scale() < 0) {
+			value = value.setScale(0);
+		}
+		int dscale = value.scale();
+		short sign = value.signum() < 0 ? (short) 0x4000 : 0;
+		String plain = value.abs().toPlainString();
+		int dot = plain.indexOf('.');
+		String intPart = dot < 0 ? plain : plain.substring(0, dot);
+		String fracPart = dot < 0 ? "" : plain.substring(dot + 1);
+
+		//整数部分左侧补零、小数部分右侧补零到4的倍数
+		StringBuilder ib = new StringBuilder(intPart);
+		while (ib.length() % 4 != 0) {
+			ib.insert(0, '0');
+		}
+		StringBuilder fb = new StringBuilder(fracPart);
+		while (fb.length() % 4 != 0) {
+			fb.append('0');
+		}
+		List<Short> digits = new ArrayList<>();
+		for (int i = 0; i < ib.length(); i += 4) {
+			digits.add(Short.parseShort(ib.substring(i, i + 4)));
+		}
+		int weight = digits.size() - 1;
+		for (int i = 0; i < fb.length(); i += 4) {
+			digits.add(Short.parseShort(fb.substring(i, i + 4)));
+		}
+		//去掉前导零和末尾零
+		while (!digits.isEmpty() && digits.get(0) == 0) {
+			digits.remove(0);
+			weight--;
+		}
+		while (!digits.isEmpty() && digits.get(digits.size() - 1) == 0) {
+			digits.remove(digits.size() - 1);
+		}
+		if (digits.isEmpty()) {
+			weight = 0;
+		}
+
+		out.writeInt(8 + digits.size() * 2);
+		out.writeShort(digits.size());
+		out.writeShort(weight);
+		out.writeShort(sign);
+		out.writeShort(dscale);
+		for (short d : digits) {
+			out.writeShort(d);
+		}
+	}
+
+	/**
+	 * 整数列的值，超出范围或有小数部分时抛出ArithmeticException，与文本格式由服务端报错一致，不静默截断
+	 */
+	private static long toLong(Object value, long min, long max) {
+		long v;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			v = ((Number) value).longValue();
+		} else {
+			v = toBigDecimal(value).longValueExact();
+		}
+		if (v < min || v > max) {
+			throw new ArithmeticException("值" + v + "超出范围[" + min + "," + max + "]");
+		}
+		return v;
+	}
+
+	private static Number toNumber(Object value) {
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		if (value instanceof Boolean) {
+			return (Boolean) value ? 1 : 0;
+		}
+		return new BigDecimal(value.toString());
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		if (value instanceof BigInteger) {
+			return new BigDecimal((BigInteger) value);
+		}
+		if (value instanceof Double || value instanceof Float) {
+			return BigDecimal.valueOf(((Number) value).doubleValue());
+		}
+		if (value instanceof Number) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+		if (value instanceof Boolean) {
+			return (Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+		}
+		return new BigDecimal(value.toString().trim());
+	}
+
+	private static boolean toBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		if (value instanceof Number) {
+			return ((Number) value).intValue() != 0;
+		}
+		String s = value.toString();
+		return "t".equalsIgnoreCase(s) || "true".equalsIgnoreCase(s) || "1".equals(s);
+	}
+
+	private static LocalDate toLocalDate(Object value) {
+		if (value instanceof LocalDate) {
+			return (LocalDate) value;
+		}
+		if (value instanceof java.sql.Date) {
+			return ((java.sql.Date) value).toLocalDate();
+		}
+		return toLocalDateTime(value).toLocalDate();
+	}
+
+	private static LocalTime toLocalTime(Object value) {
+		if (value instanceof LocalTime) {
+			return (LocalTime) value;
+		}
+		if (value instanceof Time) {
+			return ((Time) value).toLocalTime();
+		}
+		return toLocalDateTime(value).toLocalTime();
+	}
+
+	private static LocalDateTime toLocalDateTime(Object value) {
+		if (value instanceof LocalDateTime) {
+			return (LocalDateTime) value;
+		}
+		if (value instanceof Timestamp) {
+			return ((Timestamp) value).toLocalDateTime();
+		}
+		if (value instanceof java.util.Date) {
+			return new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime();
+		}
+		return Timestamp.valueOf(value.toString()).toLocalDateTime();
+	}
+}
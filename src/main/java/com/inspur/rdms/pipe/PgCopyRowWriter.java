@@ -0,0 +1,136 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.RowWriterImpl;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * PostgreSQL通过CopyManager执行COPY FROM STDIN批量写入
+ * 列顺序和类型与exportSql生成的建表语句一致
+ *
+ * @author Neo
+ * @date 2019/3/7 10:10
+ */
+public class PgCopyRowWriter implements RowWriterImpl {
+	private static Logger log = LoggerFactory.getLogger(PgCopyRowWriter.class);
+
+	private final TableBean tableBean;
+	/**
+	 * 每列在目标库中的类型名
+	 */
+	private final String[] typeNames;
+	private final String copySql;
+	private final CopyFormatEnum format;
+
+	private PGConnection pgConnection;
+	private CopyIn copyIn;
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+	private final DataOutputStream out = new DataOutputStream(buffer);
+	private final StringBuilder line = new StringBuilder(1024);
+
+	public PgCopyRowWriter(DatabaseImpl database, TableBean tableBean, CopyFormatEnum format) {
+		this.tableBean = tableBean;
+		List<ColumnBean> columns = tableBean.getColumnList();
+		this.typeNames = new String[columns.size()];
+		boolean binary = CopyFormatEnum.BINARY == format;
+		StringBuilder columnSql = new StringBuilder();
+		for (int i = 0; i < columns.size(); i++) {
+			ColumnBean column = columns.get(i);
+			this.typeNames[i] = database.java2db(column.getColumnTypeName().toUpperCase());
+			if (binary && !PgCopyEncoder.isBinarySupported(this.typeNames[i])) {
+				log.info("数据表{}的列{}类型{}不支持二进制COPY,改用文本格式", tableBean.getTableName(), column.getColumnName(), this.typeNames[i]);
+				binary = false;
+			}
+			if (i > 0) {
+				columnSql.append(",");
+			}
+			columnSql.append(database.handleQuote(column.getColumnName()));
+		}
+		this.format = binary ? CopyFormatEnum.BINARY : CopyFormatEnum.TEXT;
+		this.copySql = "COPY " + database.handleTableName(database.handleSchema(null), tableBean.getTableName()) + " (" + columnSql
+			+ ") FROM STDIN WITH (FORMAT " + this.format.getFormat() + ")";
+	}
+
+	@Override
+	public void open(Connection conn) throws SQLException {
+		this.pgConnection = conn.unwrap(PGConnection.class);
+	}
+
+	@Override
+	public void write(List<Object[]> rows) throws SQLException {
+		if (null == this.copyIn) {
+			this.copyIn = this.pgConnection.getCopyAPI().copyIn(this.copySql);
+			if (CopyFormatEnum.BINARY == this.format) {
+				this.copyIn.writeToCopy(PgCopyEncoder.BINARY_HEADER, 0, PgCopyEncoder.BINARY_HEADER.length);
+			}
+		}
+		this.buffer.reset();
+		try {
+			if (CopyFormatEnum.BINARY == this.format) {
+				for (Object[] row : rows) {
+					this.out.writeShort(row.length);
+					for (int i = 0; i < row.length; i++) {
+						PgCopyEncoder.writeBinary(this.out, row[i], this.typeNames[i]);
+					}
+				}
+			} else {
+				for (Object[] row : rows) {
+					this.line.setLength(0);
+					for (int i = 0; i < row.length; i++) {
+						if (i > 0) {
+							this.line.append('\t');
+						}
+						PgCopyEncoder.appendText(this.line, row[i], this.typeNames[i]);
+					}
+					this.line.append('\n');
+					this.out.write(this.line.toString().getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			this.out.flush();
+		} catch (IOException e) {
+			throw new SQLException("编码" + this.tableBean.getTableName() + "的COPY数据失败", e);
+		}
+		this.copyIn.writeToCopy(this.buffer.toByteArray(), 0, this.buffer.size());
+	}
+
+	/**
+	 * 结束当前COPY，之后才能提交事务
+	 */
+	@Override
+	public void flush() throws SQLException {
+		if (null == this.copyIn) {
+			return;
+		}
+		if (CopyFormatEnum.BINARY == this.format) {
+			byte[] trailer = {(byte) 0xff, (byte) 0xff};
+			this.copyIn.writeToCopy(trailer, 0, trailer.length);
+		}
+		this.copyIn.endCopy();
+		this.copyIn = null;
+	}
+
+	@Override
+	public void close() {
+		if (null != this.copyIn && this.copyIn.isActive()) {
+			try {
+				this.copyIn.cancelCopy();
+			} catch (SQLException e) {
+				log.info("取消COPY失败", e);
+			}
+		}
+		this.copyIn = null;
+	}
+}
@@ -0,0 +1,320 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.exception.ExceptionEnum;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.impl.RowWriterImpl;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 数据表数据复制：读取线程流式读取源表，经有界队列交给写入线程批量写入目标表，
+ * 内存占用只与batchSize和queueCapacity有关，与表的大小无关
+ *
+ * @author Neo
+ * @date 2019/3/6 10:20
+ */
+public class TableCopier {
+	private static Logger log = LoggerFactory.getLogger(TableCopier.class);
+	/**
+	 * 读取结束标记
+	 */
+	private static final List<Object[]> END = Collections.emptyList();
+
+	private final DatabaseImpl source;
+	private final DatabaseImpl target;
+	private final CopyOptions options;
+
+	public TableCopier(DatabaseImpl source, DatabaseImpl target, CopyOptions options) {
+		this.source = source;
+		this.target = target;
+		this.options = null == options ? new CopyOptions() : options;
+	}
+
+	/**
+	 * 将源表的数据复制到目标库中的同名表
+	 *
+	 * @param schema    源表的模式
+	 * @param tableBean 表结构，列顺序决定读写的列顺序
+	 * @return CopyResult 复制结果
+	 */
+	public CopyResult copy(String schema, TableBean tableBean) {
+		return this.copy(schema, tableBean, null);
+	}
+
+	/**
+	 * 将源表中满足条件的数据复制到目标库中的同名表
+	 *
+	 * @param schema    源表的模式
+	 * @param tableBean 表结构
+	 * @param condition WHERE条件，为空时复制整张表
+	 * @return CopyResult 复制结果
+	 */
+	public CopyResult copy(String schema, TableBean tableBean, String condition) {
+		String sql = this.buildSelectSql(schema, tableBean);
+		if (StringUtils.isNotBlank(condition)) {
+			sql += " WHERE " + condition;
+		}
+		return this.copyQuery(sql, tableBean);
+	}
+
+	/**
+	 * 执行查询语句，将结果写入目标表
+	 *
+	 * @param selectSql 源库上的查询语句，列顺序需与tableBean一致
+	 * @param tableBean 目标表结构
+	 * @return CopyResult 复制结果
+	 */
+	public CopyResult copyQuery(String selectSql, TableBean tableBean) {
+		CopyProgressTracker tracker = this.options.getProgressTracker();
+		CopyProgress progress = null == tracker ? null : tracker.table(tableBean.getTableName());
+		if (null != tracker) {
+			tracker.begin(progress);
+		}
+		Throwable error = null;
+		try {
+			return this.copyQuery(selectSql, tableBean, progress);
+		} catch (RuntimeException e) {
+			error = e;
+			throw e;
+		} finally {
+			if (null != tracker) {
+				tracker.end(progress, error);
+			}
+		}
+	}
+
+	private CopyResult copyQuery(String selectSql, TableBean tableBean, CopyProgress progress) {
+		long start = System.currentTimeMillis();
+		BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(Math.max(1, this.options.getQueueCapacity()));
+		AtomicReference<Throwable> readError = new AtomicReference<>();
+		AtomicReference<Throwable> writeError = new AtomicReference<>();
+
+		Thread reader = new Thread(() -> this.read(selectSql, tableBean, queue, readError, writeError, progress),
+			"jdbcPipe-reader-" + tableBean.getTableName());
+		reader.setDaemon(true);
+		reader.start();
+
+		long rowCount;
+		try {
+			rowCount = this.write(tableBean, queue, readError, progress);
+		} catch (RuntimeException e) {
+			writeError.set(e);
+			reader.interrupt();
+			throw e;
+		} finally {
+			try {
+				reader.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (null != readError.get()) {
+			throw new DatabaseException(ExceptionEnum.DATA_COPY_EXCEPTION, "copy",
+				"读取" + tableBean.getTableName() + "出现异常" + readError.get());
+		}
+		long elapsed = System.currentTimeMillis() - start;
+		log.info("数据表{}复制完成,行数:{},耗时:{}ms", tableBean.getTableName(), rowCount, elapsed);
+		return new CopyResult(tableBean.getTableName(), rowCount, elapsed);
+	}
+
+	/**
+	 * 读取线程：按批放入队列，队列满时阻塞，从而限制内存
+	 */
+	private void read(String selectSql, TableBean tableBean, BlockingQueue<List<Object[]>> queue,
+					  AtomicReference<Throwable> readError, AtomicReference<Throwable> writeError, CopyProgress progress) {
+		Connection conn = null;
+		Statement stmt = null;
+		ResultSet rs = null;
+		int columnCount = tableBean.getColumnList().size();
+		int batchSize = Math.max(1, this.options.getBatchSize());
+		boolean finished = false;
+
+		try {
+			conn = this.source.getConnection();
+			stmt = this.source.createStreamingStatement(conn, this.options.getFetchSize());
+			rs = stmt.executeQuery(selectSql);
+			List<Object[]> batch = new ArrayList<>(batchSize);
+			while (rs.next()) {
+				Object[] row = new Object[columnCount];
+				for (int i = 0; i < columnCount; i++) {
+					row[i] = rs.getObject(i + 1);
+				}
+				batch.add(row);
+				if (batch.size() >= batchSize) {
+					if (!this.offer(queue, batch, writeError, progress)) {
+						return;
+					}
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+			finished = true;
+			if (!batch.isEmpty() && !this.offer(queue, batch, writeError, progress)) {
+				return;
+			}
+		} catch (SQLException | RuntimeException e) {
+			readError.set(e);
+		} finally {
+			if (!finished && null != rs) {
+				//写入端失败或读取出错，剩余的行不再需要
+				this.source.cancelStreamingRead(stmt);
+			}
+			closeQuietly(rs, stmt, null);
+			this.source.finishStreamingRead(conn);
+			closeQuietly(null, null, conn);
+			this.offer(queue, END, writeError, progress);
+		}
+	}
+
+	/**
+	 * 放入队列，写入端出错时放弃
+	 *
+	 * @return boolean true:放入成功 false:写入端已失败
+	 */
+	private boolean offer(BlockingQueue<List<Object[]>> queue, List<Object[]> batch, AtomicReference<Throwable> writeError, CopyProgress progress) {
+		long waitStart = System.nanoTime();
+		try {
+			while (null == writeError.get()) {
+				if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			if (null != progress) {
+				progress.addReadStall(System.nanoTime() - waitStart);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 写入：按commitInterval提交事务
+	 *
+	 * @return long 写入的行数
+	 */
+	private long write(TableBean tableBean, BlockingQueue<List<Object[]>> queue, AtomicReference<Throwable> readError, CopyProgress progress) {
+		Connection conn = null;
+		RowWriterImpl writer = this.target.createRowWriter(tableBean);
+		List<String> resetSql = null;
+		long rowCount = 0;
+		long uncommitted = 0;
+
+		try {
+			conn = this.target.getConnection();
+			if (this.options.isBulkLoad()) {
+				resetSql = this.target.beginBulkLoad(conn);
+			}
+			conn.setAutoCommit(false);
+			writer.open(conn);
+			while (true) {
+				long waitStart = System.nanoTime();
+				List<Object[]> batch = queue.take();
+				if (batch == END) {
+					break;
+				}
+				if (null != progress) {
+					progress.addWriteStall(System.nanoTime() - waitStart);
+				}
+				writer.write(batch);
+				rowCount += batch.size();
+				if (null != progress) {
+					long bytes = 0;
+					for (Object[] row : batch) {
+						bytes += CopyProgress.estimateBytes(row);
+					}
+					progress.addRows(batch.size(), bytes);
+				}
+				uncommitted += batch.size();
+				if (uncommitted >= this.options.getCommitInterval()) {
+					writer.flush();
+					conn.commit();
+					uncommitted = 0;
+				}
+			}
+			if (null != readError.get()) {
+				conn.rollback();
+				return rowCount;
+			}
+			writer.flush();
+			conn.commit();
+		} catch (SQLException e) {
+			rollbackQuietly(conn);
+			throw new DatabaseException(ExceptionEnum.DATA_COPY_EXCEPTION, "copy",
+				"写入" + tableBean.getTableName() + "出现异常" + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			rollbackQuietly(conn);
+			throw new DatabaseException(ExceptionEnum.DATA_COPY_EXCEPTION, "copy", "写入" + tableBean.getTableName() + "被中断");
+		} catch (RuntimeException e) {
+			rollbackQuietly(conn);
+			throw e;
+		} finally {
+			writer.close();
+			if (null != conn) {
+				try {
+					conn.setAutoCommit(true);
+				} catch (SQLException e) {
+					log.info("恢复自动提交失败", e);
+				}
+			}
+			this.target.endBulkLoad(conn, resetSql);
+			this.target.closeObject(conn, null, null);
+		}
+		return rowCount;
+	}
+
+	/**
+	 * 生成源表的查询语句
+	 */
+	private String buildSelectSql(String schema, TableBean tableBean) {
+		StringBuilder sb = new StringBuilder("SELECT ");
+		for (int i = 0; i < tableBean.getColumnList().size(); i++) {
+			ColumnBean column = tableBean.getColumnList().get(i);
+			if (i > 0) {
+				sb.append(",");
+			}
+			sb.append(this.source.handleQuote(column.getColumnName()));
+		}
+		sb.append(" FROM ").append(this.source.handleTableName(schema, tableBean.getTableName()));
+		return sb.toString();
+	}
+
+	private static void rollbackQuietly(Connection conn) {
+		if (null != conn) {
+			try {
+				conn.rollback();
+			} catch (SQLException e) {
+				log.info("回滚失败", e);
+			}
+		}
+	}
+
+	private static void closeQuietly(ResultSet rs, Statement stmt, Connection conn) {
+		for (AutoCloseable c : new AutoCloseable[]{rs, stmt, conn}) {
+			if (null != c) {
+				try {
+					c.close();
+				} catch (Exception e) {
+					log.info("关闭资源失败", e);
+				}
+			}
+		}
+	}
+}
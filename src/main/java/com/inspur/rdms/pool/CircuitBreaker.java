@@ -0,0 +1,234 @@
+package com.inspur.rdms.pool;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按服务器(host:port)划分的熔断器：连续失败达到阈值后熔断，熔断期间请求立即失败，
+ * 熔断时间过后放行一个试探请求，成功则恢复，失败则继续熔断
+ * 只有连接类异常计为失败，认证失败、数据库不存在等说明服务器可达，不影响同一服务器上的其它数据库和用户
+ *
+ * @author Neo
+ * @date 2019/3/18 9:20
+ */
+public class CircuitBreaker {
+	private static Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+	private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+	/**
+	 * 服务器标识 host:port
+	 */
+	@Getter
+	private final String endpoint;
+	/**
+	 * 连续失败多少次后熔断
+	 */
+	@Getter
+	@Setter
+	private volatile int failureThreshold = 3;
+	/**
+	 * 熔断持续时间，单位毫秒
+	 */
+	@Getter
+	@Setter
+	private volatile long openMillis = 10000;
+
+	@Getter
+	private volatile CircuitStateEnum state = CircuitStateEnum.CLOSED;
+	private volatile long openedAt;
+	private volatile int consecutiveFailures;
+	private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+	private final AtomicLong openCount = new AtomicLong();
+	private final AtomicLong halfOpenCount = new AtomicLong();
+	private final AtomicLong closeCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private CircuitBreaker(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	/**
+	 * 获取服务器对应的熔断器，同一服务器的所有handler共用
+	 *
+	 * @param host IP地址
+	 * @param port 端口
+	 * @return CircuitBreaker 熔断器
+	 */
+	public static CircuitBreaker forEndpoint(String host, int port) {
+		return BREAKERS.computeIfAbsent(host + ":" + port, CircuitBreaker::new);
+	}
+
+	/**
+	 * 全部熔断器，用于输出指标
+	 *
+	 * @return Map 服务器标识 -> 熔断器
+	 */
+	public static Map<String, CircuitBreaker> getBreakers() {
+		return BREAKERS;
+	}
+
+	/**
+	 * 是否放行请求；熔断时间已过时转为半开，只放行一个试探请求
+	 *
+	 * @return boolean true:放行 false:拒绝
+	 */
+	public boolean allowRequest() {
+		CircuitStateEnum current = this.state;
+		if (CircuitStateEnum.CLOSED == current) {
+			return true;
+		}
+		if (CircuitStateEnum.OPEN == current && System.currentTimeMillis() - this.openedAt >= this.openMillis) {
+			synchronized (this) {
+				if (CircuitStateEnum.OPEN == this.state) {
+					this.transition(CircuitStateEnum.HALF_OPEN);
+				}
+			}
+		}
+		if (CircuitStateEnum.HALF_OPEN == this.state && this.trialInFlight.compareAndSet(false, true)) {
+			return true;
+		}
+		this.rejectedCount.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * 记录成功，半开或熔断状态下恢复为正常
+	 * 每次获取连接都会调用，正常状态且没有失败记录时不加锁
+	 */
+	public void recordSuccess() {
+		if (CircuitStateEnum.CLOSED == this.state && 0 == this.consecutiveFailures && !this.trialInFlight.get()) {
+			return;
+		}
+		synchronized (this) {
+			this.consecutiveFailures = 0;
+			this.trialInFlight.set(false);
+			if (CircuitStateEnum.CLOSED != this.state) {
+				this.transition(CircuitStateEnum.CLOSED);
+			}
+		}
+	}
+
+	/**
+	 * 按异常记录结果：连接类异常计为失败，其它异常说明服务器可达，计为成功
+	 *
+	 * @param e 建立连接时的异常
+	 */
+	public void record(SQLException e) {
+		if (isConnectivityFailure(e)) {
+			this.recordFailure();
+		} else {
+			this.recordSuccess();
+		}
+	}
+
+	/**
+	 * 放行的请求没有到达服务器(如驱动不存在、连接池已关闭)时释放试探名额，不计成功或失败
+	 */
+	public void releaseTrial() {
+		this.trialInFlight.set(false);
+	}
+
+	/**
+	 * 是否为连接类异常：异常链中有SQLState为08开头(连接异常)的SQLException或网络异常
+	 *
+	 * @param e 异常
+	 * @return boolean true:是
+	 */
+	public static boolean isConnectivityFailure(Throwable e) {
+		for (Throwable t = e; null != t; t = t.getCause() == t ? null : t.getCause()) {
+			if (t instanceof SQLException && null != ((SQLException) t).getSQLState()
+				&& ((SQLException) t).getSQLState().startsWith("08")) {
+				return true;
+			}
+			if (t instanceof SocketException || t instanceof SocketTimeoutException || t instanceof UnknownHostException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 记录失败，半开状态下或连续失败达到阈值时熔断
+	 */
+	public synchronized void recordFailure() {
+		this.consecutiveFailures++;
+		this.trialInFlight.set(false);
+		if (CircuitStateEnum.HALF_OPEN == this.state
+			|| (CircuitStateEnum.CLOSED == this.state && this.consecutiveFailures >= this.failureThreshold)) {
+			this.openedAt = System.currentTimeMillis();
+			this.transition(CircuitStateEnum.OPEN);
+		}
+	}
+
+	private void transition(CircuitStateEnum to) {
+		log.info("熔断器{}状态变更:{} -> {}", this.endpoint, this.state, to);
+		this.state = to;
+		switch (to) {
+			case OPEN:
+				this.openCount.incrementAndGet();
+				break;
+			case HALF_OPEN:
+				this.halfOpenCount.incrementAndGet();
+				break;
+			default:
+				this.closeCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * 当前状态和计数，用于输出指标；state为CircuitStateEnum的序号(0正常 1熔断 2半开)
+	 *
+	 * @return Map 指标名 -> 值
+	 */
+	public Map<String, Number> getStats() {
+		Map<String, Number> stats = new LinkedHashMap<>();
+		stats.put("state", this.state.ordinal());
+		stats.put("consecutiveFailures", this.consecutiveFailures);
+		stats.put("openCount", this.getOpenCount());
+		stats.put("halfOpenCount", this.getHalfOpenCount());
+		stats.put("closeCount", this.getCloseCount());
+		stats.put("rejectedCount", this.getRejectedCount());
+		return stats;
+	}
+
+	/**
+	 * 进入熔断状态的次数
+	 */
+	public long getOpenCount() {
+		return openCount.get();
+	}
+
+	/**
+	 * 进入半开状态的次数
+	 */
+	public long getHalfOpenCount() {
+		return halfOpenCount.get();
+	}
+
+	/**
+	 * 从熔断恢复的次数
+	 */
+	public long getCloseCount() {
+		return closeCount.get();
+	}
+
+	/**
+	 * 被熔断拒绝的请求数
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+}
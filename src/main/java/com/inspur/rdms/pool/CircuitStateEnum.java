@@ -0,0 +1,22 @@
+package com.inspur.rdms.pool;
+
+/**
+ * 熔断器状态
+ *
+ * @author Neo
+ * @date 2019/3/18 9:10
+ */
+public enum CircuitStateEnum {
+	/**
+	 * 正常，请求直接放行
+	 */
+	CLOSED,
+	/**
+	 * 熔断，请求立即失败
+	 */
+	OPEN,
+	/**
+	 * 半开，只放行一个试探请求
+	 */
+	HALF_OPEN
+}
@@ -0,0 +1,159 @@
+package com.inspur.rdms.pool;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Druid连接池配置，可按场景选用预设
+ *
+ * @author Neo
+ * @date 2019/3/13 9:20
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class PoolConfig {
+	/**
+	 * 初始化时建立物理连接的个数
+	 */
+	private int initialSize = 0;
+	/**
+	 * 工厂创建handler后预建的连接数，0表示不预建
+	 */
+	private int prewarmSize = 0;
+	/**
+	 * 最小空闲连接数
+	 */
+	private int minIdle = 0;
+	/**
+	 * 最大连接数
+	 */
+	private int maxActive = 8;
+	/**
+	 * 获取连接时最大等待时间，单位毫秒
+	 */
+	private long maxWait = 5000;
+	/**
+	 * 检测空闲连接的间隔，单位毫秒
+	 */
+	private long timeBetweenEvictionRunsMillis = 60000;
+	/**
+	 * 连接在池中最小空闲时间，超过后可被回收，单位毫秒
+	 */
+	private long minEvictableIdleTimeMillis = 300000;
+	/**
+	 * 对minIdle以内的空闲连接做保活
+	 */
+	private boolean keepAlive = false;
+	/**
+	 * 空闲时检测连接有效性
+	 */
+	private boolean testWhileIdle = true;
+	/**
+	 * 获取连接时检测有效性，开销较大
+	 */
+	private boolean testOnBorrow = false;
+	/**
+	 * 检测连接的SQL，为空时使用驱动自带的检测
+	 */
+	private String validationQuery;
+	/**
+	 * 检测连接的超时时间，单位秒
+	 */
+	private int validationQueryTimeout = 3;
+	/**
+	 * 是否缓存PreparedStatement
+	 */
+	private boolean poolPreparedStatements = false;
+	/**
+	 * 每个连接缓存的PreparedStatement个数
+	 */
+	private int maxPoolPreparedStatementPerConnectionSize = 20;
+	/**
+	 * 使用非公平锁，并发获取连接时效率更高
+	 */
+	private boolean useUnfairLock = true;
+	/**
+	 * 连接长时间不归还时强制回收，长时间的数据复制需要关闭
+	 */
+	private boolean removeAbandoned = false;
+	/**
+	 * 强制回收的时间，单位秒
+	 */
+	private int removeAbandonedTimeout = 80;
+	/**
+	 * MySQL连接池是否打开allowLoadLocalInfile，只用于目标库的批量复制：打开后服务端可以读取客户端的本地文件
+	 */
+	private boolean allowLoadLocalInfile = false;
+	/**
+	 * 是否统计JDBC往返次数(RoundTripFilter)，每次JDBC调用多一层代理，只在需要指标时打开
+	 */
+	private boolean roundTripMetrics = false;
+
+	/**
+	 * 只读取元数据：连接少、用完即还，开启强制回收防止泄漏
+	 *
+	 * @return PoolConfig 预设配置
+	 */
+	public static PoolConfig metadata() {
+		PoolConfig config = new PoolConfig();
+		config.setMaxActive(4);
+		config.setPoolPreparedStatements(true);
+		config.setRemoveAbandoned(true);
+		return config;
+	}
+
+	/**
+	 * 批量复制：连接数满足并行分片，连接长时间占用，不做强制回收
+	 *
+	 * @return PoolConfig 预设配置
+	 */
+	public static PoolConfig bulkCopy() {
+		PoolConfig config = new PoolConfig();
+		config.setMaxActive(32);
+		config.setMinIdle(4);
+		config.setKeepAlive(true);
+		config.setMaxWait(30000);
+		config.setRemoveAbandoned(false);
+		return config;
+	}
+
+	/**
+	 * 批量复制的目标库：在bulkCopy基础上允许MySQL使用LOAD DATA LOCAL INFILE写入，不要用于源库
+	 *
+	 * @return PoolConfig 预设配置
+	 */
+	public static PoolConfig bulkCopyTarget() {
+		PoolConfig config = bulkCopy();
+		config.setAllowLoadLocalInfile(true);
+		return config;
+	}
+
+	/**
+	 * 将配置应用到连接池
+	 *
+	 * @param ds Druid连接池
+	 */
+	public void apply(DruidDataSource ds) {
+		ds.setInitialSize(this.initialSize);
+		ds.setMinIdle(this.minIdle);
+		ds.setMaxActive(this.maxActive);
+		ds.setMaxWait(this.maxWait);
+		ds.setTimeBetweenEvictionRunsMillis(this.timeBetweenEvictionRunsMillis);
+		ds.setMinEvictableIdleTimeMillis(this.minEvictableIdleTimeMillis);
+		ds.setKeepAlive(this.keepAlive);
+		ds.setTestWhileIdle(this.testWhileIdle);
+		ds.setTestOnBorrow(this.testOnBorrow);
+		if (null != this.validationQuery) {
+			ds.setValidationQuery(this.validationQuery);
+		}
+		ds.setValidationQueryTimeout(this.validationQueryTimeout);
+		ds.setPoolPreparedStatements(this.poolPreparedStatements);
+		ds.setMaxPoolPreparedStatementPerConnectionSize(this.maxPoolPreparedStatementPerConnectionSize);
+		ds.setUseUnfairLock(this.useUnfairLock);
+		ds.setRemoveAbandoned(this.removeAbandoned);
+		ds.setRemoveAbandonedTimeout(this.removeAbandonedTimeout);
+	}
+}
@@ -0,0 +1,79 @@
+package com.inspur.rdms.adapter;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.IndexBean;
+import com.inspur.rdms.bean.TableBean;
+import com.inspur.rdms.diff.ChangeTypeEnum;
+import com.inspur.rdms.diff.ColumnChange;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * MysqlAdapter生成的ALTER语句，不连接数据库
+ *
+ * @author Neo
+ * @date 2019/3/27 10:00
+ */
+public class MysqlAdapterTest {
+	private final MysqlAdapter adapter = new MysqlAdapter("db", "127.0.0.1", 3306, "u", "p", null);
+
+	private static ColumnBean current(String nativeType, String extra) {
+		ColumnBean column = new ColumnBean(true, "id", Types.INTEGER, "INT", 10, 0, true, "", "");
+		column.setNativeType(nativeType);
+		column.setExtra(extra);
+		return column;
+	}
+
+	@Test
+	public void widenKeepsUnsignedAndAutoIncrement() {
+		ColumnBean current = current("int(10) unsigned", "auto_increment");
+		ColumnBean widened = new ColumnBean(true, "id", Types.BIGINT, "BIGINT", 19, 0, true, "", "", "int(10) unsigned", "auto_increment", null);
+		String sql = this.adapter.handleAlterSql("t", new ColumnChange(ChangeTypeEnum.ALTER_TYPE, "id", widened, current));
+		assertEquals("ALTER TABLE `db`.`t` MODIFY COLUMN `id` BIGINT(19) UNSIGNED NOT NULL AUTO_INCREMENT", sql);
+	}
+
+	@Test
+	public void commentKeepsColumnTypeCollationAndOnUpdate() {
+		ColumnBean current = new ColumnBean(false, "updated", Types.TIMESTAMP, "TIMESTAMP", 23, 0, false, "CURRENT_TIMESTAMP(3)", "",
+			"timestamp(3)", "DEFAULT_GENERATED on update CURRENT_TIMESTAMP(3)", null);
+		ColumnBean source = new ColumnBean(false, "updated", Types.TIMESTAMP, "TIMESTAMP", 23, 0, false, "", "修改时间");
+		String sql = this.adapter.handleAlterSql("t", new ColumnChange(ChangeTypeEnum.COMMENT, "updated", source, current));
+		assertEquals("ALTER TABLE `db`.`t` MODIFY COLUMN `updated` timestamp(3) DEFAULT CURRENT_TIMESTAMP(3)"
+			+ " ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '修改时间'", sql);
+
+		ColumnBean name = new ColumnBean(false, "name", Types.VARCHAR, "VARCHAR", 20, 0, false, "", "",
+			"varchar(20)", "", "utf8mb4_bin");
+		ColumnBean named = new ColumnBean(false, "name", Types.VARCHAR, "VARCHAR", 20, 0, false, "", "名称");
+		assertEquals("ALTER TABLE `db`.`t` MODIFY COLUMN `name` varchar(20) COLLATE utf8mb4_bin COMMENT '名称'",
+			this.adapter.handleAlterSql("t", new ColumnChange(ChangeTypeEnum.COMMENT, "name", named, name)));
+	}
+
+	@Test
+	public void refusesModifyWhenDefinitionIsUnknown() {
+		ColumnBean widened = new ColumnBean(true, "id", Types.BIGINT, "BIGINT", 19, 0, true, "", "");
+		assertNull(this.adapter.handleAlterSql("t", new ColumnChange(ChangeTypeEnum.ALTER_TYPE, "id", widened, current(null, null))));
+
+		ColumnBean generated = current("int(11)", "VIRTUAL GENERATED");
+		ColumnBean source = new ColumnBean(false, "id", Types.INTEGER, "INT", 10, 0, true, "", "注释");
+		assertNull(this.adapter.handleAlterSql("t", new ColumnChange(ChangeTypeEnum.COMMENT, "id", source, generated)));
+	}
+
+	@Test
+	public void prefixIndexKeepsLengthAndDropsInclude() {
+		IndexBean index = new IndexBean();
+		index.setIndexName("idx_body");
+		index.setIsUnique(false);
+		index.setColumnList(new ArrayList<>(Arrays.asList("body", "id")));
+		index.setDescList(new ArrayList<>(Arrays.asList(false, true)));
+		index.setPrefixList(new ArrayList<>(Arrays.asList(100, null)));
+		index.setIncludeList(new ArrayList<>(Arrays.asList("note")));
+		TableBean table = new TableBean("t", new ArrayList<>(), "TABLE", "", null);
+		assertEquals("CREATE INDEX `idx_body` ON `db`.`t` (`body`(100), `id` DESC)", this.adapter.exportIndexSql(table, index, false));
+	}
+}
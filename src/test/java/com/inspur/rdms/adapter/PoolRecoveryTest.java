@@ -0,0 +1,173 @@
+package com.inspur.rdms.adapter;
+
+import com.inspur.rdms.exception.DatabaseException;
+import com.inspur.rdms.impl.DatabaseImpl;
+import com.inspur.rdms.metrics.InstrumentedDatabase;
+import com.inspur.rdms.metrics.MetricsRegistry;
+import com.inspur.rdms.pool.CircuitBreaker;
+import com.inspur.rdms.pool.CircuitStateEnum;
+import com.inspur.rdms.pool.PoolConfig;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 服务器中断后恢复：连接池建连线程失败过，熔断器仍能经半开恢复为正常；释放空闲连接池后可重新创建
+ *
+ * @author Neo
+ * @date 2019/3/29 9:30
+ */
+public class PoolRecoveryTest {
+	private static volatile boolean serverDown;
+
+	/**
+	 * serverDown为true时建连失败(SQLState 08S01)，否则返回一个空实现的连接
+	 */
+	public static class FakeDriver implements Driver {
+		@Override
+		public Connection connect(String url, Properties info) throws SQLException {
+			if (!acceptsURL(url)) {
+				return null;
+			}
+			if (serverDown) {
+				throw new SQLException("Communications link failure", "08S01");
+			}
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getAutoCommit":
+						case "isValid":
+							return true;
+						case "isClosed":
+						case "isReadOnly":
+							return false;
+						case "getTransactionIsolation":
+							return Connection.TRANSACTION_READ_COMMITTED;
+						case "getHoldability":
+							return 1;
+						case "getNetworkTimeout":
+							return 0;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						case "toString":
+							return "FakeConnection";
+						default:
+							return null;
+					}
+				});
+		}
+
+		@Override
+		public boolean acceptsURL(String url) {
+			return null != url && url.startsWith("jdbc:fake:");
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() {
+			return Logger.getGlobal();
+		}
+	}
+
+	private static class FakeAdapter extends MysqlAdapter {
+		private FakeAdapter() {
+			super("db", "pool.recovery.test", 1, "u", "p", null);
+		}
+
+		@Override
+		public String handleJdbcUrl(String jdbcType) {
+			return "jdbc:fake:recovery";
+		}
+
+		@Override
+		public String handleDriver() {
+			return FakeDriver.class.getName();
+		}
+	}
+
+	@Test
+	public void breakerClosesAfterPoolCreateThreadFailed() throws Exception {
+		FakeAdapter target = new FakeAdapter();
+		MetricsRegistry metrics = new MetricsRegistry();
+		DatabaseImpl adapter = InstrumentedDatabase.wrap(target, metrics);
+		PoolConfig config = new PoolConfig();
+		//大于Druid建连失败后的重试间隔(500ms)
+		config.setMaxWait(1500);
+		target.setPoolConfig(config);
+		CircuitBreaker breaker = adapter.getCircuitBreaker();
+		breaker.setFailureThreshold(1);
+		breaker.setOpenMillis(50);
+		try {
+			serverDown = true;
+			try {
+				adapter.getConnection();
+				fail("服务器不可用时应获取连接失败");
+			} catch (DatabaseException e) {
+				//建连线程已失败一次
+			}
+			assertEquals(CircuitStateEnum.OPEN, breaker.getState());
+			assertEquals(CircuitStateEnum.OPEN.ordinal(), metrics.getBreakerStats().get(breaker.getEndpoint()).get("state"));
+
+			serverDown = false;
+			Thread.sleep(100);
+			Connection conn = adapter.getConnection();
+			assertNotNull(conn);
+			conn.close();
+			assertEquals(CircuitStateEnum.CLOSED, breaker.getState());
+		} finally {
+			serverDown = false;
+			adapter.close();
+		}
+	}
+
+	@Test
+	public void releasedPoolReopensOnNextConnection() throws Exception {
+		FakeAdapter adapter = new FakeAdapter();
+		try {
+			Connection conn = adapter.getConnection();
+			assertFalse("有活动连接时不释放", adapter.releaseIdlePool());
+			conn.close();
+			assertTrue(adapter.releaseIdlePool());
+			assertTrue(adapter.getPoolStats().isEmpty());
+
+			conn = adapter.getConnection();
+			assertNotNull(conn);
+			conn.close();
+		} finally {
+			adapter.close();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.inspur.rdms.adapter;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.IndexBean;
+import com.inspur.rdms.bean.TableBean;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PostgresqlAdapter生成的建表、建索引语句，不连接数据库
+ *
+ * @author Neo
+ * @date 2019/3/28 9:30
+ */
+public class PostgresqlAdapterTest {
+	private final PostgresqlAdapter adapter = new PostgresqlAdapter("db", "127.0.0.1", 5432, "u", "p", null);
+
+	@Test
+	public void indexNamesAreUniquePerSchema() {
+		assertEquals("orders_idx_name", PostgresqlAdapter.handleIndexName("orders", "idx_name"));
+		assertEquals("orders_name_idx", PostgresqlAdapter.handleIndexName("orders", "orders_name_idx"));
+
+		String table = "t_" + String.join("", Collections.nCopies(30, "ab"));
+		String a = PostgresqlAdapter.handleIndexName(table, "idx_first_long_index_name");
+		String b = PostgresqlAdapter.handleIndexName(table, "idx_second_long_index_name");
+		assertTrue(a.getBytes(StandardCharsets.UTF_8).length <= 63);
+		assertTrue(b.getBytes(StandardCharsets.UTF_8).length <= 63);
+		assertNotEquals(a, b);
+		assertTrue(PostgresqlAdapter.handleIndexName("表", String.join("", Collections.nCopies(30, "索引")))
+			.getBytes(StandardCharsets.UTF_8).length <= 63);
+	}
+
+	@Test
+	public void includeColumnsAreNotKeyColumns() {
+		IndexBean index = new IndexBean();
+		index.setIndexName("idx_a");
+		index.setIsUnique(true);
+		index.setColumnList(new ArrayList<>(Arrays.asList("a")));
+		index.setDescList(new ArrayList<>(Arrays.asList(false)));
+		index.setIncludeList(new ArrayList<>(Arrays.asList("b")));
+		TableBean table = new TableBean("t", new ArrayList<>(), "TABLE", "", null);
+		String sql = this.adapter.exportIndexSql(table, index, false);
+		assertTrue(sql, sql.startsWith("CREATE UNIQUE INDEX "));
+		assertTrue(sql, sql.contains("t_idx_a"));
+		assertTrue(sql, sql.replace("\"", "").endsWith("(a) INCLUDE (b)"));
+	}
+
+	@Test
+	public void identifiersAreQuoted() {
+		assertEquals("\"UserInfo\"", this.adapter.handleQuote("UserInfo"));
+		assertEquals("\"a\"\"b\"", this.adapter.handleQuote("a\"b"));
+		assertEquals("\"public\".\"UserInfo\"", this.adapter.handleTableName("public", "UserInfo"));
+
+		ColumnBean id = new ColumnBean(true, "Id", Types.INTEGER, "INTEGER", 10, 0, true, "", "编号");
+		ColumnBean name = new ColumnBean(false, "Name", Types.VARCHAR, "VARCHAR", 20, 0, false, "", "用户's名");
+		TableBean table = new TableBean("UserInfo", new ArrayList<>(Arrays.asList(id, name)), "TABLE", "", null);
+		String sql = this.adapter.exportSql(table, false);
+		assertTrue(sql, sql.startsWith("CREATE TABLE \"public\".\"UserInfo\" (\"Id\" INTEGER NOT NULL PRIMARY KEY ,\"Name\" VARCHAR (20)"));
+		assertTrue(sql, sql.contains("COMMENT ON COLUMN \"public\".\"UserInfo\".\"Name\" IS '用户''s名';"));
+	}
+}
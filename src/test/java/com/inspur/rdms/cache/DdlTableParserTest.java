@@ -0,0 +1,60 @@
+package com.inspur.rdms.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * DdlTableParser：按语句形式解析受影响的表名，无法识别时返回null
+ *
+ * @author Neo
+ * @date 2019/3/27 16:30
+ */
+public class DdlTableParserTest {
+
+	private static Set<String> tables(String... names) {
+		return new LinkedHashSet<>(Arrays.asList(names));
+	}
+
+	@Test
+	public void tableStatements() {
+		assertEquals(tables("t"), DdlTableParser.parse("CREATE TABLE IF NOT EXISTS \"public\".\"t\" (id int, flag varchar(3) DEFAULT 'on x')"));
+		assertEquals(tables("t"), DdlTableParser.parse("CREATE UNLOGGED TABLE t(id int)"));
+		assertEquals(tables("t"), DdlTableParser.parse("ALTER TABLE `db`.`t` MODIFY COLUMN `c` int COMMENT 'table y'"));
+		assertEquals(tables("t", "u"), DdlTableParser.parse("ALTER TABLE ONLY t RENAME TO u"));
+		assertEquals(tables("a", "b"), DdlTableParser.parse("DROP TABLE IF EXISTS a, s.b"));
+		assertEquals(tables("t"), DdlTableParser.parse("TRUNCATE TABLE t"));
+		assertEquals(tables("a", "b", "c", "d"), DdlTableParser.parse("RENAME TABLE a TO b, c TO d"));
+		assertEquals(tables("My\"T"), DdlTableParser.parse("DROP TABLE \"My\"\"T\""));
+	}
+
+	@Test
+	public void commentAndIndexStatements() {
+		assertEquals(tables("t"), DdlTableParser.parse("COMMENT ON TABLE public.t IS 'on z'"));
+		assertEquals(tables("t"), DdlTableParser.parse("COMMENT ON COLUMN \"public\".\"t\".\"c\" IS 'table x'"));
+		assertEquals(tables("t"), DdlTableParser.parse("COMMENT ON COLUMN t.c IS ''"));
+		assertEquals(tables("t"), DdlTableParser.parse("CREATE UNIQUE INDEX idx_t ON public.t (a)"));
+		assertEquals(tables("t"), DdlTableParser.parse("CREATE INDEX ON t(a)"));
+		assertEquals(tables("t", "u"), DdlTableParser.parse("CREATE TABLE t (c text); COMMENT ON COLUMN u.c IS 'a; b'"));
+	}
+
+	@Test
+	public void nonDdlAffectsNothing() {
+		assertEquals(Collections.emptySet(), DdlTableParser.parse("INSERT INTO t VALUES ('DROP TABLE x')"));
+		assertEquals(Collections.emptySet(), DdlTableParser.parse("SELECT 1"));
+	}
+
+	@Test
+	public void unrecognizedDdlReturnsNull() {
+		assertNull(DdlTableParser.parse("COMMENT ON COLUMN c IS 'x'"));
+		assertNull(DdlTableParser.parse("DROP INDEX idx_t"));
+		assertNull(DdlTableParser.parse("CREATE VIEW v AS SELECT * FROM t"));
+		assertNull(DdlTableParser.parse("CREATE TABLE t (id int); DROP SCHEMA s CASCADE"));
+	}
+}
@@ -0,0 +1,103 @@
+package com.inspur.rdms.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * MetadataCache：过期、LRU淘汰、命中统计和失效
+ *
+ * @author Neo
+ * @date 2019/3/29 15:10
+ */
+public class MetadataCacheTest {
+
+	@Test
+	public void hitAndMissCounters() {
+		MetadataCache cache = new MetadataCache(60000, 10);
+		AtomicInteger loads = new AtomicInteger();
+		assertEquals("v", cache.get("public", "t", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads)));
+		//表名和模式不区分大小写
+		assertEquals("v", cache.get("PUBLIC", "T", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads)));
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void expiredEntryIsReloaded() throws InterruptedException {
+		MetadataCache cache = new MetadataCache(20, 10);
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("public", "t", MetadataKindEnum.TABLE_EXISTS, null, () -> load(loads));
+		Thread.sleep(50);
+		cache.get("public", "t", MetadataKindEnum.TABLE_EXISTS, null, () -> load(loads));
+		assertEquals(2, loads.get());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		MetadataCache cache = new MetadataCache(60000, 2);
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("public", "a", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		cache.get("public", "b", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		//访问a后b成为最久未使用
+		cache.get("public", "a", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		cache.get("public", "c", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+
+		cache.get("public", "a", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		assertEquals(3, loads.get());
+		cache.get("public", "b", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	public void invalidateRemovesTableAndSchemaEntries() {
+		MetadataCache cache = new MetadataCache(60000, 10);
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("public", "t", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		cache.get("public", "u", MetadataKindEnum.TABLE_COLUMNS, null, () -> load(loads));
+		cache.get("public", null, MetadataKindEnum.TABLE_LIST, "TABLE", () -> load(loads));
+		cache.invalidate("T");
+		assertEquals(1, cache.size());
+
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void invalidateDuringLoadDiscardsResult() {
+		MetadataCache cache = new MetadataCache(60000, 10);
+		String value = cache.get("public", "t", MetadataKindEnum.TABLE_COLUMNS, null, () -> {
+			cache.invalidate("t");
+			return "old";
+		});
+		assertEquals("old", value);
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void failedLoadIsNotCached() {
+		MetadataCache cache = new MetadataCache(60000, 10);
+		try {
+			cache.get("public", "t", MetadataKindEnum.TABLE_EXISTS, null, () -> {
+				throw new IllegalStateException("load failed");
+			});
+			fail("加载异常应抛出");
+		} catch (IllegalStateException e) {
+			//不缓存
+		}
+		assertEquals(0, cache.size());
+	}
+
+	private static String load(AtomicInteger loads) {
+		loads.incrementAndGet();
+		return "v";
+	}
+}
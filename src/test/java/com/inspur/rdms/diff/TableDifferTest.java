@@ -0,0 +1,148 @@
+package com.inspur.rdms.diff;
+
+import com.inspur.rdms.bean.ColumnBean;
+import com.inspur.rdms.bean.TableBean;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TableDiffer：列匹配、类型扩大和默认值、注释、删除列的比较
+ *
+ * @author Neo
+ * @date 2019/3/27 9:30
+ */
+public class TableDifferTest {
+	private static final IntFunction<String> TYPE_NAMES = type -> {
+		switch (type) {
+			case Types.BIGINT:
+				return "BIGINT";
+			case Types.DOUBLE:
+				return "DOUBLE";
+			case Types.LONGVARCHAR:
+				return "TEXT";
+			default:
+				return "OTHER";
+		}
+	};
+
+	private static ColumnBean column(String name, int type, String typeName, int size, int digits) {
+		return new ColumnBean(false, name, type, typeName, size, digits, false, "", "");
+	}
+
+	private static TableBean table(ColumnBean... columns) {
+		return new TableBean("t", new ArrayList<>(Arrays.asList(columns)), "TABLE", "", null);
+	}
+
+	@Test
+	public void widensVarchar() {
+		ColumnBean widened = TableDiffer.widen(column("c", Types.VARCHAR, "VARCHAR", 200, 0),
+			column("c", Types.VARCHAR, "VARCHAR", 100, 0), TYPE_NAMES);
+		assertEquals(200, widened.getColumnSize());
+		assertEquals("VARCHAR", widened.getColumnTypeName());
+	}
+
+	@Test
+	public void neverNarrows() {
+		assertNull(TableDiffer.widen(column("c", Types.VARCHAR, "VARCHAR", 50, 0),
+			column("c", Types.VARCHAR, "VARCHAR", 100, 0), TYPE_NAMES));
+		assertNull(TableDiffer.widen(column("c", Types.INTEGER, "INT", 10, 0),
+			column("c", Types.BIGINT, "BIGINT", 19, 0), TYPE_NAMES));
+		assertNull(TableDiffer.widen(column("c", Types.VARCHAR, "VARCHAR", 10, 0),
+			column("c", Types.INTEGER, "INT", 10, 0), TYPE_NAMES));
+	}
+
+	@Test
+	public void widensIntegerAndReal() {
+		ColumnBean bigint = TableDiffer.widen(column("c", Types.BIGINT, "BIGINT", 19, 0),
+			column("c", Types.INTEGER, "INT", 10, 0), TYPE_NAMES);
+		assertEquals(Types.BIGINT, bigint.getColumnType());
+		assertEquals("BIGINT", bigint.getColumnTypeName());
+		ColumnBean dbl = TableDiffer.widen(column("c", Types.DOUBLE, "DOUBLE", 17, 0),
+			column("c", Types.REAL, "FLOAT4", 8, 0), TYPE_NAMES);
+		assertEquals(Types.DOUBLE, dbl.getColumnType());
+	}
+
+	@Test
+	public void widensDecimalKeepingIntegerDigitsAndScale() {
+		ColumnBean widened = TableDiffer.widen(column("c", Types.DECIMAL, "DECIMAL", 8, 4),
+			column("c", Types.NUMERIC, "NUMERIC", 10, 2), TYPE_NAMES);
+		assertEquals(12, widened.getColumnSize());
+		assertEquals(4, widened.getDecimalDigits());
+		assertNull(TableDiffer.widen(column("c", Types.DECIMAL, "DECIMAL", 9, 2),
+			column("c", Types.NUMERIC, "NUMERIC", 10, 2), TYPE_NAMES));
+	}
+
+	@Test
+	public void unboundedVarcharIsLongCharacter() {
+		//MySQL的TEXT与PostgreSQL的text(读取为长度Integer.MAX_VALUE的varchar)之间没有差异
+		assertNull(TableDiffer.widen(column("c", Types.LONGVARCHAR, "TEXT", 65535, 0),
+			column("c", Types.VARCHAR, "text", Integer.MAX_VALUE, 0), TYPE_NAMES));
+		ColumnBean widened = TableDiffer.widen(column("c", Types.VARCHAR, "text", Integer.MAX_VALUE, 0),
+			column("c", Types.VARCHAR, "VARCHAR", 100, 0), TYPE_NAMES);
+		assertEquals(Types.LONGVARCHAR, widened.getColumnType());
+		assertEquals("TEXT", widened.getColumnTypeName());
+	}
+
+	@Test
+	public void widenKeepsCurrentColumnAttributes() {
+		ColumnBean current = column("id", Types.INTEGER, "INT", 10, 0);
+		current.setIsPk(true);
+		current.setIsNullable(true);
+		current.setNativeType("int(10) unsigned");
+		current.setExtra("auto_increment");
+		ColumnBean widened = TableDiffer.widen(column("ID", Types.BIGINT, "BIGINT", 19, 0), current, TYPE_NAMES);
+		assertEquals("id", widened.getColumnName());
+		assertTrue(widened.getIsPk());
+		assertTrue(widened.getIsNullable());
+		assertEquals("int(10) unsigned", widened.getNativeType());
+		assertEquals("auto_increment", widened.getExtra());
+	}
+
+	@Test
+	public void diffsColumnsCaseInsensitively() {
+		ColumnBean added = column("added", Types.INTEGER, "INT", 10, 0);
+		added.setRemark("new");
+		ColumnBean defaulted = column("name", Types.VARCHAR, "VARCHAR", 100, 0);
+		defaulted.setDefaultValue("x");
+		defaulted.setRemark("名字");
+		TableBean source = table(column("id", Types.INTEGER, "INT", 10, 0), defaulted, added);
+		TableBean current = table(column("ID", Types.INTEGER, "INT", 10, 0), column("NAME", Types.VARCHAR, "VARCHAR", 100, 0),
+			column("old", Types.VARCHAR, "VARCHAR", 10, 0));
+
+		TableDiff diff = TableDiffer.diff(source, current, TYPE_NAMES);
+		assertEquals(5, diff.getChanges().size());
+		assertChange(diff.getChanges().get(0), ChangeTypeEnum.SET_DEFAULT, "NAME");
+		assertChange(diff.getChanges().get(1), ChangeTypeEnum.COMMENT, "NAME");
+		assertChange(diff.getChanges().get(2), ChangeTypeEnum.ADD_COLUMN, "added");
+		assertChange(diff.getChanges().get(3), ChangeTypeEnum.COMMENT, "added");
+		assertChange(diff.getChanges().get(4), ChangeTypeEnum.DROP_COLUMN, "old");
+	}
+
+	@Test
+	public void identicalTablesHaveNoChanges() {
+		TableBean source = table(column("id", Types.INTEGER, "INT", 10, 0), column("note", Types.LONGVARCHAR, "TEXT", 65535, 0));
+		TableBean current = table(column("id", Types.INTEGER, "INT4", 10, 0), column("note", Types.VARCHAR, "text", Integer.MAX_VALUE, 0));
+		assertTrue(TableDiffer.diff(source, current, TYPE_NAMES).isEmpty());
+	}
+
+	@Test
+	public void primaryKeyDefaultIsIgnored() {
+		ColumnBean pk = column("id", Types.INTEGER, "INT", 10, 0);
+		pk.setIsPk(true);
+		pk.setDefaultValue("nextval('t_id_seq')");
+		assertTrue(TableDiffer.diff(table(pk), table(column("id", Types.INTEGER, "INT", 10, 0)), TYPE_NAMES).isEmpty());
+	}
+
+	private static void assertChange(ColumnChange change, ChangeTypeEnum type, String columnName) {
+		assertEquals(type, change.getChangeType());
+		assertEquals(columnName, change.getColumnName());
+	}
+}
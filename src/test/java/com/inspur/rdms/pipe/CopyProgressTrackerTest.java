@@ -0,0 +1,41 @@
+package com.inspur.rdms.pipe;
+
+import com.inspur.rdms.impl.CopyListenerImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CopyProgressTracker：监听器抛出异常不影响复制
+ *
+ * @author Neo
+ * @date 2019/3/28 11:00
+ */
+public class CopyProgressTrackerTest {
+
+	@Test
+	public void listenerExceptionsAreContained() {
+		CopyProgressTracker tracker = new CopyProgressTracker();
+		tracker.addListener(new CopyListenerImpl() {
+			@Override
+			public void onTableStart(CopyProgress progress) {
+				throw new IllegalStateException("start");
+			}
+
+			@Override
+			public void onTableFinish(CopyProgress progress) {
+				throw new IllegalStateException("finish");
+			}
+
+			@Override
+			public void onProgress(CopyProgressTracker tracker) {
+				throw new IllegalStateException("progress");
+			}
+		});
+		CopyProgress progress = tracker.table("t");
+		tracker.begin(progress);
+		tracker.report();
+		tracker.end(progress, null);
+		assertTrue(progress.isFinished());
+	}
+}
@@ -0,0 +1,100 @@
+package com.inspur.rdms.pipe;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * PgCopyEncoder的文本格式转义和二进制格式字节
+ *
+ * @author Neo
+ * @date 2019/3/27 11:00
+ */
+public class PgCopyEncoderTest {
+
+	private static byte[] binary(Object value, String typeName) throws IOException, SQLException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PgCopyEncoder.writeBinary(new DataOutputStream(bytes), value, typeName);
+		return bytes.toByteArray();
+	}
+
+	private static String text(Object value, String typeName) {
+		StringBuilder sb = new StringBuilder();
+		PgCopyEncoder.appendText(sb, value, typeName);
+		return sb.toString();
+	}
+
+	private static void assertRejected(Object value, String typeName) throws IOException {
+		try {
+			binary(value, typeName);
+			fail("值" + value + "不应能按" + typeName + "编码");
+		} catch (SQLException e) {
+			//超出范围时报错，不截断
+		}
+	}
+
+	@Test
+	public void textEscapesSpecialCharacters() {
+		assertEquals("\\N", text(null, "VARCHAR"));
+		assertEquals("a\\\\b\\tc\\nd\\re", text("a\\b\tc\nd\re", "VARCHAR"));
+		assertEquals("\\\\x00ff", text(new byte[]{0, (byte) 0xff}, "BYTEA"));
+		assertEquals("t", text(true, "BOOLEAN"));
+		assertEquals("1", text(true, "BIT"));
+		assertEquals("100", text(new BigDecimal("1E+2"), "NUMERIC"));
+	}
+
+	@Test
+	public void binaryIntegers() throws Exception {
+		assertArrayEquals(new byte[]{-1, -1, -1, -1}, binary(null, "INT4"));
+		assertArrayEquals(new byte[]{0, 0, 0, 2, 0x7f, (byte) 0xff}, binary(Short.MAX_VALUE, "SMALLINT"));
+		assertArrayEquals(new byte[]{0, 0, 0, 4, 0, 0, 1, 0}, binary(256L, "INT4"));
+		assertArrayEquals(new byte[]{0, 0, 0, 4, 0, 0, 0, 7}, binary("7", "INTEGER"));
+		assertArrayEquals(new byte[]{0, 0, 0, 8, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0}, binary(Long.MIN_VALUE, "INT8"));
+		assertArrayEquals(new byte[]{0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 1}, binary(true, "BIGINT"));
+		assertArrayEquals(new byte[]{0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 3}, binary(new BigDecimal("3.00"), "BIGINT"));
+	}
+
+	@Test
+	public void binaryIntegersRejectOutOfRangeValues() throws Exception {
+		assertRejected(32768, "SMALLINT");
+		assertRejected((long) Integer.MAX_VALUE + 1, "INT4");
+		assertRejected(Long.MIN_VALUE, "INTEGER");
+		//BIGINT UNSIGNED的最大值
+		assertRejected(new BigInteger("18446744073709551615"), "INT8");
+		assertRejected(new BigDecimal("1.5"), "INT4");
+		assertRejected("abc", "INT4");
+	}
+
+	@Test
+	public void binaryNumeric() throws Exception {
+		//12345.678：ndigits=3, weight=1, sign=0, dscale=3, 1 2345 6780
+		assertArrayEquals(new byte[]{0, 0, 0, 14, 0, 3, 0, 1, 0, 0, 0, 3, 0, 1, 0x09, 0x29, 0x1a, 0x7c},
+			binary(new BigDecimal("12345.678"), "NUMERIC"));
+		//-0.0001：ndigits=1, weight=-1, sign=0x4000, dscale=4
+		assertArrayEquals(new byte[]{0, 0, 0, 10, 0, 1, (byte) 0xff, (byte) 0xff, 0x40, 0, 0, 4, 0, 1},
+			binary(new BigDecimal("-0.0001"), "NUMERIC"));
+		assertArrayEquals(new byte[]{0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 2}, binary(new BigDecimal("0.00"), "DECIMAL"));
+		//1E+4按整数编码：ndigits=1, weight=1
+		assertArrayEquals(new byte[]{0, 0, 0, 10, 0, 1, 0, 1, 0, 0, 0, 0, 0, 1}, binary(new BigDecimal("1E+4"), "NUMERIC"));
+	}
+
+	@Test
+	public void binaryDateAndTimestamp() throws Exception {
+		assertArrayEquals(new byte[]{0, 0, 0, 4, 0, 0, 0, 1}, binary(LocalDate.of(2000, 1, 2), "DATE"));
+		assertArrayEquals(new byte[]{0, 0, 0, 4, -1, -1, -1, -1}, binary(java.sql.Date.valueOf("1999-12-31"), "DATE"));
+		//2000-01-01 00:00:01.000002 = 1000002微秒
+		assertArrayEquals(new byte[]{0, 0, 0, 8, 0, 0, 0, 0, 0, 0x0f, 0x42, 0x42},
+			binary(Timestamp.valueOf("2000-01-01 00:00:01.000002"), "TIMESTAMP"));
+	}
+}
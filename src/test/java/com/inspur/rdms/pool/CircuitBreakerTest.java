@@ -0,0 +1,55 @@
+package com.inspur.rdms.pool;
+
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CircuitBreaker：只有连接类异常计入熔断，试探名额释放后可再次试探
+ *
+ * @author Neo
+ * @date 2019/3/27 14:00
+ */
+public class CircuitBreakerTest {
+
+	@Test
+	public void classifiesConnectivityFailures() {
+		assertTrue(CircuitBreaker.isConnectivityFailure(new SQLException("refused", "08001")));
+		assertTrue(CircuitBreaker.isConnectivityFailure(new SQLException("link failure", "08S01")));
+		assertTrue(CircuitBreaker.isConnectivityFailure(new SQLException("wrapped", null, new ConnectException("refused"))));
+		assertFalse(CircuitBreaker.isConnectivityFailure(new SQLException("password authentication failed", "28P01")));
+		assertFalse(CircuitBreaker.isConnectivityFailure(new SQLException("database does not exist", "3D000")));
+		assertFalse(CircuitBreaker.isConnectivityFailure(new SQLException("no state")));
+	}
+
+	@Test
+	public void authenticationFailuresDoNotOpen() {
+		CircuitBreaker breaker = CircuitBreaker.forEndpoint("auth.test", 1);
+		for (int i = 0; i < 10; i++) {
+			breaker.record(new SQLException("Access denied", "28000"));
+		}
+		assertEquals(CircuitStateEnum.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void releasedTrialCanBeRetried() throws InterruptedException {
+		CircuitBreaker breaker = CircuitBreaker.forEndpoint("trial.test", 1);
+		breaker.setOpenMillis(1);
+		for (int i = 0; i < breaker.getFailureThreshold(); i++) {
+			breaker.record(new SQLException("refused", "08001"));
+		}
+		assertEquals(CircuitStateEnum.OPEN, breaker.getState());
+		Thread.sleep(5);
+		assertTrue(breaker.allowRequest());
+		assertFalse(breaker.allowRequest());
+		breaker.releaseTrial();
+		assertTrue(breaker.allowRequest());
+		breaker.recordSuccess();
+		assertEquals(CircuitStateEnum.CLOSED, breaker.getState());
+	}
+}